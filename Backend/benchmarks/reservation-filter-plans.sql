@@ -0,0 +1,146 @@
+-- Plans des filtres de réservations : requête fourre-tout "(:x IS NULL OR ...)"
+-- contre requête ne contenant que les critères fournis (ReservationSpecifications).
+--
+--   psql -d Reservation -f benchmarks/reservation-filter-plans.sql
+--
+-- Tout se passe dans un schéma jetable "bench" (200 complexes x 5 terrains,
+-- 100 000 clients, 2 000 000 réservations sur deux ans) : les tables de
+-- l'application ne sont pas touchées. Les requêtes sont préparées et
+-- exécutées avec un plan générique, comme le fait le driver JDBC après cinq
+-- exécutions de la même requête.
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+SET search_path = bench;
+
+CREATE TABLE complexe (id bigint PRIMARY KEY, nom varchar(255) NOT NULL);
+CREATE TABLE terrain (id bigint PRIMARY KEY, complexe_id bigint NOT NULL, nom varchar(255),
+    prix_terrain varchar(255) NOT NULL);
+CREATE TABLE client (id bigint PRIMARY KEY, nom varchar(255), prenom varchar(255), email varchar(255),
+    num_tele varchar(255));
+CREATE TABLE reservation (id bigint PRIMARY KEY, status varchar(255) NOT NULL, date date NOT NULL,
+    heure_debut time NOT NULL, heure_fin time NOT NULL, duree int NOT NULL,
+    client_id bigint NOT NULL, terrain_id bigint NOT NULL);
+
+INSERT INTO complexe SELECT i, 'Complexe ' || i FROM generate_series(1, 200) i;
+INSERT INTO terrain SELECT i, (i - 1) / 5 + 1, 'Terrain ' || i, (100 + i % 5 * 50)::text
+    FROM generate_series(1, 1000) i;
+INSERT INTO client SELECT i, 'Nom' || i, 'Prenom' || i, 'client' || i || '@example.com', NULL
+    FROM generate_series(1, 100000) i;
+INSERT INTO reservation
+SELECT i,
+       CASE WHEN i % 20 = 0 THEN 'ANNULEE' WHEN i % 10 = 0 THEN 'VALIDEE' ELSE 'CONFIRMEE' END,
+       DATE '2025-01-01' + (i % 730),
+       make_time(8 + i % 14, 0, 0),
+       make_time(9 + i % 14, 0, 0),
+       60,
+       (i::bigint * 7919) % 100000 + 1,
+       (i / 730) % 1000 + 1
+FROM generate_series(1, 2000000) i;
+
+-- Index déjà en place (listes paginées, historique client)
+CREATE INDEX ON reservation (date, heure_debut, id);
+CREATE INDEX ON reservation (client_id, date, heure_debut, id);
+ANALYZE;
+
+SET plan_cache_mode = force_generic_plan;
+
+-- Ancienne forme : mêmes huit paramètres quel que soit le filtre
+PREPARE catch_all(bigint, bigint, bigint, date, date, varchar, int, int) AS
+SELECT r.id, r.status, r.date, r.heure_debut, r.heure_fin, r.duree, t.id, t.nom, t.prix_terrain, c.nom,
+       cl.id, cl.nom, cl.prenom, cl.email, cl.num_tele
+FROM reservation r JOIN terrain t ON t.id = r.terrain_id JOIN complexe c ON c.id = t.complexe_id
+     JOIN client cl ON cl.id = r.client_id
+WHERE ($1 IS NULL OR c.id = $1) AND ($2 IS NULL OR t.id = $2) AND ($3 IS NULL OR cl.id = $3)
+  AND ($4 IS NULL OR r.date >= $4) AND ($5 IS NULL OR r.date <= $5) AND ($6 IS NULL OR r.status = $6)
+  AND ($7 IS NULL OR r.duree >= $7) AND ($8 IS NULL OR r.duree <= $8)
+ORDER BY r.date, r.heure_debut, r.id
+LIMIT 51;
+
+-- Nouvelles formes, une par combinaison de critères réellement utilisée
+PREPARE owner_terrain_day(bigint, bigint, date) AS
+SELECT r.id, r.status, r.date, r.heure_debut, r.heure_fin, r.duree, t.id, t.nom, t.prix_terrain, c.nom,
+       cl.id, cl.nom, cl.prenom, cl.email, cl.num_tele
+FROM reservation r JOIN terrain t ON t.id = r.terrain_id JOIN complexe c ON c.id = t.complexe_id
+     JOIN client cl ON cl.id = r.client_id
+WHERE t.complexe_id = $1 AND r.terrain_id = $2 AND r.date >= $3 AND r.date <= $3
+ORDER BY r.date, r.heure_debut, r.id;
+
+PREPARE owner_day(bigint, date) AS
+SELECT r.id, r.status, r.date, r.heure_debut, r.heure_fin, r.duree, t.id, t.nom, t.prix_terrain, c.nom,
+       cl.id, cl.nom, cl.prenom, cl.email, cl.num_tele
+FROM reservation r JOIN terrain t ON t.id = r.terrain_id JOIN complexe c ON c.id = t.complexe_id
+     JOIN client cl ON cl.id = r.client_id
+WHERE t.complexe_id = $1 AND r.date >= $2 AND r.date <= $2
+ORDER BY r.date, r.heure_debut, r.id;
+
+PREPARE admin_status_month(varchar, date, date) AS
+SELECT r.id, r.status, r.date, r.heure_debut, r.heure_fin, r.duree, t.id, t.nom, t.prix_terrain, c.nom,
+       cl.id, cl.nom, cl.prenom, cl.email, cl.num_tele
+FROM reservation r JOIN terrain t ON t.id = r.terrain_id JOIN complexe c ON c.id = t.complexe_id
+     JOIN client cl ON cl.id = r.client_id
+WHERE r.status = $1 AND r.date >= $2 AND r.date <= $3
+ORDER BY r.date, r.heure_debut, r.id
+LIMIT 51;
+
+PREPARE admin_client(bigint) AS
+SELECT r.id, r.status, r.date, r.heure_debut, r.heure_fin, r.duree, t.id, t.nom, t.prix_terrain, c.nom,
+       cl.id, cl.nom, cl.prenom, cl.email, cl.num_tele
+FROM reservation r JOIN terrain t ON t.id = r.terrain_id JOIN complexe c ON c.id = t.complexe_id
+     JOIN client cl ON cl.id = r.client_id
+WHERE r.client_id = $1
+ORDER BY r.date, r.heure_debut, r.id
+LIMIT 51;
+
+-- 1. Vue du jour d'un terrain (OwnerService.getReservations)
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE catch_all(18, 86, NULL, '2025-06-15', '2025-06-15', NULL, NULL, NULL);
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE owner_terrain_day(18, 86, '2025-06-15');
+
+-- 2. Vue du jour de tout le complexe
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE catch_all(18, NULL, NULL, '2025-06-15', '2025-06-15', NULL, NULL, NULL);
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE owner_day(18, '2025-06-15');
+
+-- 3. Admin : réservations annulées d'un mois
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE catch_all(NULL, NULL, NULL, '2025-03-01', '2025-03-31', 'ANNULEE', NULL, NULL);
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE admin_status_month('ANNULEE', '2025-03-01', '2025-03-31');
+
+-- 4. Admin : réservations d'un client
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE catch_all(NULL, NULL, 4242, NULL, NULL, NULL, NULL, NULL);
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE admin_client(4242);
+
+-- Index livrés avec le constructeur de requêtes (Reservation.@Table)
+CREATE INDEX ON reservation (terrain_id, date);
+CREATE INDEX ON reservation (status, date);
+ANALYZE reservation;
+DEALLOCATE ALL;
+
+PREPARE owner_terrain_day(bigint, bigint, date) AS
+SELECT r.id, r.status, r.date, r.heure_debut, r.heure_fin, r.duree, t.id, t.nom, t.prix_terrain, c.nom,
+       cl.id, cl.nom, cl.prenom, cl.email, cl.num_tele
+FROM reservation r JOIN terrain t ON t.id = r.terrain_id JOIN complexe c ON c.id = t.complexe_id
+     JOIN client cl ON cl.id = r.client_id
+WHERE t.complexe_id = $1 AND r.terrain_id = $2 AND r.date >= $3 AND r.date <= $3
+ORDER BY r.date, r.heure_debut, r.id;
+
+PREPARE owner_day(bigint, date) AS
+SELECT r.id, r.status, r.date, r.heure_debut, r.heure_fin, r.duree, t.id, t.nom, t.prix_terrain, c.nom,
+       cl.id, cl.nom, cl.prenom, cl.email, cl.num_tele
+FROM reservation r JOIN terrain t ON t.id = r.terrain_id JOIN complexe c ON c.id = t.complexe_id
+     JOIN client cl ON cl.id = r.client_id
+WHERE t.complexe_id = $1 AND r.date >= $2 AND r.date <= $2
+ORDER BY r.date, r.heure_debut, r.id;
+
+PREPARE admin_status_month(varchar, date, date) AS
+SELECT r.id, r.status, r.date, r.heure_debut, r.heure_fin, r.duree, t.id, t.nom, t.prix_terrain, c.nom,
+       cl.id, cl.nom, cl.prenom, cl.email, cl.num_tele
+FROM reservation r JOIN terrain t ON t.id = r.terrain_id JOIN complexe c ON c.id = t.complexe_id
+     JOIN client cl ON cl.id = r.client_id
+WHERE r.status = $1 AND r.date >= $2 AND r.date <= $3
+ORDER BY r.date, r.heure_debut, r.id
+LIMIT 51;
+
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE owner_terrain_day(18, 86, '2025-06-15');
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE owner_day(18, '2025-06-15');
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE admin_status_month('ANNULEE', '2025-03-01', '2025-03-31');
+
+DROP SCHEMA bench CASCADE;
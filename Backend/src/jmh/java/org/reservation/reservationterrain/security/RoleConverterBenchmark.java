@@ -0,0 +1,66 @@
+package org.reservation.reservationterrain.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction des rôles Keycloak, faite à chaque requête authentifiée. Un
+ * token Keycloak porte 4 rôles de realm par défaut (dont CLIENT ou OWNER) ;
+ * 20 couvre un compte avec des rôles supplémentaires.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoleConverterBenchmark {
+
+    @Param({ "4", "20" })
+    public int roles;
+
+    private final KeycloakRealmRoleConverter converter = new KeycloakRealmRoleConverter();
+    private Jwt jwt;
+
+    @Setup(Level.Trial)
+    public void load() {
+        List<String> names = new ArrayList<>(List.of("default-roles-reservation-realm", "offline_access",
+                "uma_authorization", "CLIENT"));
+        for (int i = names.size(); i < roles; i++) {
+            names.add("role-" + i);
+        }
+        Instant now = Instant.now();
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("0b6f4c1e-3d2a-4f5b-9c8d-7e6f5a4b3c2d")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .claim("realm_access", Map.of("roles", names))
+                .claim("email", "client@example.com")
+                .build();
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convert() {
+        return converter.convert(jwt);
+    }
+}
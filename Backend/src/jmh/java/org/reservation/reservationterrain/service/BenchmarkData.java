@@ -0,0 +1,293 @@
+package org.reservation.reservationterrain.service;
+
+import org.reservation.reservationterrain.dto.ComplexeResponse;
+import org.reservation.reservationterrain.dto.TerrainResponseDTO;
+import org.reservation.reservationterrain.model.Client;
+import org.reservation.reservationterrain.model.Complexe;
+import org.reservation.reservationterrain.model.Reservation;
+import org.reservation.reservationterrain.model.Terrain;
+import org.reservation.reservationterrain.repository.ReservationRepository;
+import org.reservation.reservationterrain.repository.TerrainRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Données générées pour les benchmarks, toujours identiques d'une exécution
+ * à l'autre (graine fixe) : des complexes de 10 terrains ouverts de 8h à 22h,
+ * des prix et des statuts répartis comme en production.
+ */
+final class BenchmarkData {
+
+    static final int TERRAINS_PER_COMPLEXE = 10;
+    static final int OPENING = 8;
+    static final int CLOSING = 22;
+    static final String[] STATUSES = { "CONFIRMEE", "CONFIRMEE", "VALIDEE", "VALIDEE", "VALIDEE", "ANNULEE" };
+    static final String[] PRICES = { "150", "200", "250", "300", "350.5", "400" };
+    static final String[] VILLES = { "Casablanca", "Rabat", "Marrakech", "Tanger", "Fès", "Agadir" };
+    // journées de l'index jamais expirées pendant une mesure
+    static final long DAY_TTL_SECONDS = 3600;
+
+    private BenchmarkData() {
+    }
+
+    static SplittableRandom random() {
+        return new SplittableRandom(42);
+    }
+
+    /** Réservation telle que lue par les requêtes de listing (projection). */
+    record Row(Long id, String status, LocalDate date, LocalTime heureDebut, LocalTime heureFin, int duree,
+            Long terrainId, String terrainNom, String prixTerrain, String complexNom, Long clientId,
+            String clientNom, String clientPrenom, String clientEmail, String clientNumTele)
+            implements ReservationRepository.ListView {
+
+        // @formatter:off
+        @Override public Long getId() { return id; }
+        @Override public String getStatus() { return status; }
+        @Override public LocalDate getDate() { return date; }
+        @Override public LocalTime getHeureDebut() { return heureDebut; }
+        @Override public LocalTime getHeureFin() { return heureFin; }
+        @Override public int getDuree() { return duree; }
+        @Override public Long getTerrainId() { return terrainId; }
+        @Override public String getTerrainNom() { return terrainNom; }
+        @Override public String getPrixTerrain() { return prixTerrain; }
+        @Override public String getComplexNom() { return complexNom; }
+        @Override public Long getClientId() { return clientId; }
+        @Override public String getClientNom() { return clientNom; }
+        @Override public String getClientPrenom() { return clientPrenom; }
+        @Override public String getClientEmail() { return clientEmail; }
+        @Override public String getClientNumTele() { return clientNumTele; }
+        // @formatter:on
+    }
+
+    record Slot(Long id, Long terrainId, LocalDate date, LocalTime heureDebut, LocalTime heureFin, String status)
+            implements ReservationRepository.SlotView {
+
+        // @formatter:off
+        @Override public Long getId() { return id; }
+        @Override public Long getTerrainId() { return terrainId; }
+        @Override public LocalDate getDate() { return date; }
+        @Override public LocalTime getHeureDebut() { return heureDebut; }
+        @Override public LocalTime getHeureFin() { return heureFin; }
+        @Override public String getStatus() { return status; }
+        // @formatter:on
+    }
+
+    record Schedule(Long id, int heureOuverture, int heureFermeture, int dureeCreneau)
+            implements TerrainRepository.ScheduleView {
+
+        // @formatter:off
+        @Override public Long getId() { return id; }
+        @Override public int getHeureOuverture() { return heureOuverture; }
+        @Override public int getHeureFermeture() { return heureFermeture; }
+        @Override public int getDureeCreneau() { return dureeCreneau; }
+        // @formatter:on
+    }
+
+    record SearchRow(Long id, String nom, String prixTerrain, int heureOuverture, int heureFermeture,
+            int dureeCreneau, Long complexeId, String complexeNom, String ville, String adress)
+            implements TerrainRepository.SearchView {
+
+        // @formatter:off
+        @Override public Long getId() { return id; }
+        @Override public String getNom() { return nom; }
+        @Override public String getPrixTerrain() { return prixTerrain; }
+        @Override public int getHeureOuverture() { return heureOuverture; }
+        @Override public int getHeureFermeture() { return heureFermeture; }
+        @Override public int getDureeCreneau() { return dureeCreneau; }
+        @Override public Long getComplexeId() { return complexeId; }
+        @Override public String getComplexeNom() { return complexeNom; }
+        @Override public String getVille() { return ville; }
+        @Override public String getAdress() { return adress; }
+        // @formatter:on
+    }
+
+    static List<Row> rows(int count) {
+        SplittableRandom random = random();
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        List<Row> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int hour = random.nextInt(OPENING, CLOSING);
+            long terrainId = random.nextInt(1, 1001);
+            rows.add(new Row((long) i + 1, STATUSES[random.nextInt(STATUSES.length)],
+                    start.plusDays(random.nextInt(365)), LocalTime.of(hour, 0), LocalTime.of(hour + 1, 0), 60,
+                    terrainId, "Terrain " + terrainId, PRICES[random.nextInt(PRICES.length)],
+                    "Complexe " + terrainId / TERRAINS_PER_COMPLEXE, (long) random.nextInt(1, 50_001),
+                    "Nom" + i, i % 7 == 0 ? null : "Prenom" + i, "client" + i + "@example.com",
+                    "06" + (10_000_000 + i)));
+        }
+        return rows;
+    }
+
+    /** Entités chargées comme dans createReservation (terrain, complexe et client déjà en session). */
+    static List<Reservation> reservations(int count) {
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (Row row : rows(count)) {
+            Complexe complexe = new Complexe();
+            complexe.setId(row.terrainId() / TERRAINS_PER_COMPLEXE);
+            complexe.setNom(row.complexNom());
+            Terrain terrain = new Terrain();
+            terrain.setId(row.terrainId());
+            terrain.setNom(row.terrainNom());
+            terrain.setPrixTerrain(row.prixTerrain());
+            terrain.setComplexe(complexe);
+            Client client = new Client();
+            client.setId(row.clientId());
+            client.setNom(row.clientNom());
+            client.setPrenom(row.clientPrenom());
+            client.setEmail(row.clientEmail());
+            Reservation reservation = new Reservation();
+            reservation.setId(row.id());
+            reservation.setStatus(row.status());
+            reservation.setDate(row.date());
+            reservation.setHeureDebut(row.heureDebut());
+            reservation.setHeureFin(row.heureFin());
+            reservation.setDuree(row.duree());
+            reservation.setTerrain(terrain);
+            reservation.setClient(client);
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+
+    /** Catalogue public : {@code terrains} terrains répartis en complexes de 10. */
+    static List<ComplexeResponse> catalog(int terrains) {
+        SplittableRandom random = random();
+        List<ComplexeResponse> complexes = new ArrayList<>();
+        for (int t = 0; t < terrains; t++) {
+            if (t % TERRAINS_PER_COMPLEXE == 0) {
+                long id = complexes.size() + 1;
+                ComplexeResponse complexe = new ComplexeResponse();
+                complexe.setId(id);
+                complexe.setNom("Complexe " + id);
+                complexe.setVille(VILLES[random.nextInt(VILLES.length)]);
+                complexe.setAdress(id + " boulevard Mohammed V");
+                ComplexeResponse.OwnerSummary owner = new ComplexeResponse.OwnerSummary();
+                owner.setId(id);
+                owner.setNom("Owner" + id);
+                owner.setPrenom("Prenom" + id);
+                owner.setEmail("owner" + id + "@example.com");
+                owner.setNumTele("06" + (20_000_000 + id));
+                complexe.setOwner(owner);
+                complexe.setTerrains(new ArrayList<>());
+                complexes.add(complexe);
+            }
+            TerrainResponseDTO terrain = new TerrainResponseDTO();
+            terrain.setId(t + 1);
+            terrain.setNom("Terrain " + (t + 1));
+            terrain.setPrixTerrain(PRICES[random.nextInt(PRICES.length)]);
+            terrain.setStatus(random.nextInt(10) == 0 ? "FERME" : "OUVERT");
+            terrain.setHeureOuverture(OPENING);
+            terrain.setHeureFermeture(CLOSING);
+            terrain.setDureeCreneau(60);
+            terrain.setPhoto("http://localhost:8080/api/images/" + Long.toHexString(random.nextLong()));
+            complexes.get(complexes.size() - 1).getTerrains().add(terrain);
+        }
+        return complexes;
+    }
+
+    /** Terrains OUVERT tels que lus par la recherche, en complexes de 10 répartis sur {@link #VILLES}. */
+    static List<TerrainRepository.SearchView> openTerrains(int terrains) {
+        SplittableRandom random = random();
+        List<TerrainRepository.SearchView> open = new ArrayList<>(terrains);
+        String ville = null;
+        for (int t = 0; t < terrains; t++) {
+            long complexeId = t / TERRAINS_PER_COMPLEXE + 1;
+            if (t % TERRAINS_PER_COMPLEXE == 0) {
+                ville = VILLES[random.nextInt(VILLES.length)];
+            }
+            open.add(new SearchRow((long) t + 1, "Terrain " + (t + 1), PRICES[random.nextInt(PRICES.length)],
+                    OPENING, CLOSING, 60, complexeId, "Complexe " + complexeId, ville,
+                    complexeId + " boulevard Mohammed V"));
+        }
+        return open;
+    }
+
+    /**
+     * Réservations actives de {@code days} jours, {@code perDay} heures
+     * distinctes par terrain. Un terrain sur dix a une réservation hors
+     * grille (9h30-10h30), ce qui force le contrôle exact sur la liste.
+     */
+    static Map<LocalDate, List<ReservationRepository.SlotView>> slots(int terrains, LocalDate firstDay, int days,
+            int perDay) {
+        SplittableRandom random = random();
+        int slotCount = CLOSING - OPENING;
+        List<ReservationRepository.SlotView> slots = new ArrayList<>(terrains * days * perDay);
+        long id = 1;
+        for (long terrainId = 1; terrainId <= terrains; terrainId++) {
+            for (int d = 0; d < days; d++) {
+                LocalDate date = firstDay.plusDays(d);
+                boolean offGrid = terrainId % 10 == 0;
+                if (offGrid) {
+                    slots.add(new Slot(id++, terrainId, date, LocalTime.of(9, 30), LocalTime.of(10, 30),
+                            "CONFIRMEE"));
+                }
+                long taken = 0;
+                for (int b = offGrid ? 1 : 0; b < perDay; b++) {
+                    int hour;
+                    do {
+                        hour = random.nextInt(slotCount);
+                    } while ((taken & (1L << hour)) != 0 || (offGrid && (hour == 1 || hour == 2)));
+                    taken |= 1L << hour;
+                    LocalTime debut = LocalTime.of(OPENING + hour, 0);
+                    slots.add(new Slot(id++, terrainId, date, debut, debut.plusHours(1),
+                            random.nextInt(5) == 0 ? "VALIDEE" : "CONFIRMEE"));
+                }
+            }
+        }
+        return slots.stream().collect(Collectors.groupingBy(ReservationRepository.SlotView::getDate));
+    }
+
+    /** Sert findActiveSlotsForTerrainsOn depuis {@link #slots}. */
+    static ReservationRepository slotRepository(Map<LocalDate, List<ReservationRepository.SlotView>> byDay) {
+        return repository(ReservationRepository.class, (name, args) -> {
+            if (name.equals("findActiveSlotsForTerrainsOn")) {
+                Set<?> ids = new HashSet<>((Collection<?>) args[0]);
+                return byDay.getOrDefault((LocalDate) args[1], List.of()).stream()
+                        .filter(s -> ids.contains(s.getTerrainId()))
+                        .toList();
+            }
+            return null;
+        });
+    }
+
+    /** Sert findSchedulesByIdIn (grille 8h-22h, créneaux d'une heure) et findOpenForSearch. */
+    static TerrainRepository terrainRepository(List<TerrainRepository.SearchView> open) {
+        return repository(TerrainRepository.class, (name, args) -> {
+            if (name.equals("findSchedulesByIdIn")) {
+                return ((Collection<?>) args[0]).stream()
+                        .map(id -> new Schedule((Long) id, OPENING, CLOSING, 60))
+                        .toList();
+            }
+            if (name.equals("findOpenForSearch")) {
+                return open;
+            }
+            return null;
+        });
+    }
+
+    interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    // Seules les lectures servies par le handler sont disponibles
+    static <T> T repository(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    Object result = handler.handle(method.getName(), args);
+                    if (result == null) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return result;
+                }));
+    }
+}
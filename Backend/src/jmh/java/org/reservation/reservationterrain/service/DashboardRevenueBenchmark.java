@@ -0,0 +1,84 @@
+package org.reservation.reservationterrain.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrégation du tableau de bord owner (réservations, en attente, chiffre
+ * d'affaires) avec les règles de ComplexeStatsService.Contribution.
+ *
+ * getDashboardStats lit aujourd'hui des compteurs tenus par incréments ; ce
+ * benchmark mesure le calcul qu'ils remplacent et que chaque incrément
+ * applique (statut compté ou non, prix texte converti), sur un million de
+ * réservations réparties entre les complexes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class DashboardRevenueBenchmark {
+
+    @Param({ "1000000" })
+    public int reservations;
+
+    @Param({ "10", "1000", "10000" })
+    public int terrains;
+
+    private ComplexeStatsService.Contribution[] contributions;
+    private int complexes;
+
+    @Setup(Level.Trial)
+    public void load() {
+        complexes = Math.max(1, terrains / BenchmarkData.TERRAINS_PER_COMPLEXE);
+        SplittableRandom random = BenchmarkData.random();
+        contributions = new ComplexeStatsService.Contribution[reservations];
+        for (int i = 0; i < reservations; i++) {
+            contributions[i] = new ComplexeStatsService.Contribution((long) random.nextInt(complexes),
+                    BenchmarkData.STATUSES[random.nextInt(BenchmarkData.STATUSES.length)],
+                    BenchmarkData.PRICES[random.nextInt(BenchmarkData.PRICES.length)]);
+        }
+    }
+
+    /** Totaux de tous les complexes en un passage ; les trois tableaux sont consommés. */
+    @Benchmark
+    public void aggregateAll(Blackhole blackhole) {
+        long[] total = new long[complexes];
+        long[] pending = new long[complexes];
+        double[] revenue = new double[complexes];
+        for (ComplexeStatsService.Contribution c : contributions) {
+            int complexe = c.complexeId().intValue();
+            total[complexe]++;
+            pending[complexe] += c.pending();
+            revenue[complexe] += c.revenue();
+        }
+        blackhole.consume(total);
+        blackhole.consume(pending);
+        blackhole.consume(revenue);
+    }
+
+    /** Chiffre d'affaires seul, comme l'ancienne boucle du tableau de bord. */
+    @Benchmark
+    public double revenueOnly() {
+        double revenue = 0.0;
+        for (ComplexeStatsService.Contribution c : contributions) {
+            revenue += c.revenue();
+        }
+        return revenue;
+    }
+}
@@ -0,0 +1,78 @@
+package org.reservation.reservationterrain.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reservation.reservationterrain.dto.ReservationDTO;
+import org.reservation.reservationterrain.dto.ReservationResponse;
+import org.reservation.reservationterrain.model.Reservation;
+import org.reservation.reservationterrain.repository.ReservationRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion des réservations en DTO : une page de listing (200 lignes, la
+ * taille maximale) et un gros volume (10 000, export ou vue semaine d'un
+ * grand complexe).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({ "200", "10000" })
+    public int rows;
+
+    private List<ReservationRepository.ListView> views;
+    private List<Reservation> entities;
+
+    @Setup(Level.Trial)
+    public void load() {
+        views = new ArrayList<>(BenchmarkData.rows(rows));
+        entities = BenchmarkData.reservations(rows);
+    }
+
+    /** ReservationService.toResponse sur une entité (création, modification). */
+    @Benchmark
+    public List<ReservationResponse> reservationResponseFromEntity() {
+        List<ReservationResponse> out = new ArrayList<>(entities.size());
+        for (Reservation reservation : entities) {
+            out.add(ReservationService.toResponse(reservation));
+        }
+        return out;
+    }
+
+    /** ReservationService.toResponse sur une projection (pages, vue semaine). */
+    @Benchmark
+    public List<ReservationResponse> reservationResponseFromView() {
+        List<ReservationResponse> out = new ArrayList<>(views.size());
+        for (ReservationRepository.ListView view : views) {
+            out.add(ReservationService.toResponse(view));
+        }
+        return out;
+    }
+
+    /** OwnerService.toReservationDTO (réservations d'un jour, tableau de bord). */
+    @Benchmark
+    public List<ReservationDTO> ownerReservationDto() {
+        List<ReservationDTO> out = new ArrayList<>(views.size());
+        for (ReservationRepository.ListView view : views) {
+            out.add(OwnerService.toReservationDTO(view));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,104 @@
+package org.reservation.reservationterrain.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reservation.reservationterrain.repository.ReservationRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Détection de chevauchement dans l'index des créneaux (étape « overlap » de
+ * createReservation et recherche de terrain libre).
+ *
+ * L'index est chargé pour 14 jours avec 7 réservations d'une heure par
+ * terrain et par jour, soit près d'un million de réservations à 10 000
+ * terrains. Un terrain sur dix a une réservation hors grille (9h30-10h30),
+ * ce qui force le contrôle exact sur la liste au lieu du bitmap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class SlotAvailabilityBenchmark {
+
+    private static final int DAYS = 14;
+    private static final int BOOKINGS_PER_DAY = 7;
+    private static final int QUERIES = 1 << 12;
+
+    @Param({ "10", "1000", "10000" })
+    public int terrains;
+
+    private SlotAvailabilityIndex index;
+    // dans la fenêtre gardée par l'index
+    private final LocalDate firstDay = LocalDate.now();
+    private long[] queryTerrains;
+    private LocalDate[] queryDates;
+    private LocalTime[] queryStarts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load() {
+        Map<LocalDate, List<ReservationRepository.SlotView>> slotsByDay = BenchmarkData.slots(terrains, firstDay,
+                DAYS, BOOKINGS_PER_DAY);
+        index = new SlotAvailabilityIndex(BenchmarkData.slotRepository(slotsByDay),
+                BenchmarkData.terrainRepository(List.of()), DAYS, DAYS, BenchmarkData.DAY_TTL_SECONDS);
+        List<Long> ids = new ArrayList<>(terrains);
+        for (long id = 1; id <= terrains; id++) {
+            ids.add(id);
+        }
+        for (int d = 0; d < DAYS; d++) {
+            index.ensureLoaded(ids, firstDay.plusDays(d));
+        }
+
+        SplittableRandom random = BenchmarkData.random();
+        queryTerrains = new long[QUERIES];
+        queryDates = new LocalDate[QUERIES];
+        queryStarts = new LocalTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryTerrains[i] = random.nextInt(1, terrains + 1);
+            queryDates[i] = firstDay.plusDays(random.nextInt(DAYS));
+            queryStarts[i] = LocalTime.of(random.nextInt(BenchmarkData.OPENING, BenchmarkData.CLOSING - 1), 0);
+        }
+    }
+
+    /** Demande alignée sur la grille, comme celles du calendrier. */
+    @Benchmark
+    public boolean knownTaken() {
+        int i = next++ & (QUERIES - 1);
+        LocalTime start = queryStarts[i];
+        return index.isKnownTaken(queryTerrains[i], queryDates[i], start, start.plusHours(1), null);
+    }
+
+    /** Demande hors grille : parcours de la liste triée des réservations du jour. */
+    @Benchmark
+    public boolean offGrid() {
+        int i = next++ & (QUERIES - 1);
+        LocalTime start = queryStarts[i].plusMinutes(15);
+        return index.isKnownTaken(queryTerrains[i], queryDates[i], start, start.plusMinutes(90), null);
+    }
+
+    /** Débuts libres d'une soirée (recherche par ville, un terrain). */
+    @Benchmark
+    public List<LocalTime> freeStarts() {
+        int i = next++ & (QUERIES - 1);
+        return index.freeStarts(queryTerrains[i], queryDates[i], LocalTime.of(17, 0), LocalTime.of(22, 0), 60);
+    }
+}
@@ -0,0 +1,100 @@
+package org.reservation.reservationterrain.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reservation.reservationterrain.dto.TerrainSearchResult;
+import org.reservation.reservationterrain.repository.ReservationRepository;
+import org.reservation.reservationterrain.repository.TerrainRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche d'un terrain libre dans une ville (GET /api/terrains/search),
+ * index ville et journées déjà chargés : filtrage des créneaux, tri par
+ * heure puis prix et construction des résultats.
+ *
+ * En SampleTime pour lire la distribution (p50, p99, p99.9) et pas seulement
+ * la moyenne : une ville à 10 000 terrains en compte environ 1 700.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class TerrainSearchBenchmark {
+
+    private static final int DAYS = 14;
+    private static final int BOOKINGS_PER_DAY = 7;
+    private static final int QUERIES = 1 << 10;
+    private static final int LIMIT = 50;
+
+    @Param({ "10", "100", "1000", "10000" })
+    public int terrains;
+
+    private TerrainSearchIndex searchIndex;
+    // dans la fenêtre gardée par l'index
+    private final LocalDate firstDay = LocalDate.now();
+    private String[] queryVilles;
+    private LocalDate[] queryDates;
+    private LocalTime[] queryFrom;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load() {
+        List<TerrainRepository.SearchView> open = BenchmarkData.openTerrains(terrains);
+        Map<LocalDate, List<ReservationRepository.SlotView>> slotsByDay = BenchmarkData.slots(terrains, firstDay,
+                DAYS, BOOKINGS_PER_DAY);
+        TerrainRepository terrainRepository = BenchmarkData.terrainRepository(open);
+        SlotAvailabilityIndex availabilityIndex = new SlotAvailabilityIndex(
+                BenchmarkData.slotRepository(slotsByDay), terrainRepository, DAYS, DAYS, BenchmarkData.DAY_TTL_SECONDS);
+        List<Long> ids = open.stream().map(TerrainRepository.SearchView::getId).toList();
+        for (int d = 0; d < DAYS; d++) {
+            availabilityIndex.ensureLoaded(ids, firstDay.plusDays(d));
+        }
+        searchIndex = new TerrainSearchIndex(terrainRepository, availabilityIndex);
+
+        SplittableRandom random = BenchmarkData.random();
+        queryVilles = new String[QUERIES];
+        queryDates = new LocalDate[QUERIES];
+        queryFrom = new LocalTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryVilles[i] = BenchmarkData.VILLES[random.nextInt(BenchmarkData.VILLES.length)];
+            queryDates[i] = firstDay.plusDays(random.nextInt(DAYS));
+            queryFrom[i] = LocalTime.of(random.nextInt(BenchmarkData.OPENING, BenchmarkData.CLOSING - 3), 0);
+        }
+        // index ville construit hors mesure
+        searchIndex.search(queryVilles[0], queryDates[0], queryFrom[0], queryFrom[0].plusHours(1), 60, LIMIT);
+    }
+
+    /** Créneau d'une heure à une heure précise (« demain à 20h »). */
+    @Benchmark
+    public List<TerrainSearchResult> exactHour() {
+        int i = next++ & (QUERIES - 1);
+        return searchIndex.search(queryVilles[i], queryDates[i], queryFrom[i], queryFrom[i].plusHours(1), 60,
+                LIMIT);
+    }
+
+    /** Créneau d'une heure dans une soirée : plusieurs débuts possibles par terrain. */
+    @Benchmark
+    public List<TerrainSearchResult> evening() {
+        int i = next++ & (QUERIES - 1);
+        return searchIndex.search(queryVilles[i], queryDates[i], LocalTime.of(17, 0), LocalTime.of(22, 0), 60,
+                LIMIT);
+    }
+}
@@ -0,0 +1,276 @@
+package org.reservation.reservationterrain.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keycloak simulé pour le test de charge : un seul realm, une clé RSA
+ * générée au démarrage et juste assez d'API pour l'application.
+ *
+ * <ul>
+ * <li>{@code /realms/{realm}/.well-known/openid-configuration} et {@code /certs} (JWKS) ;</li>
+ * <li>{@code /realms/{realm}/protocol/openid-connect/token} : grant password, un jeton signé
+ * pour tout utilisateur enregistré par {@link #register} (et pour le compte admin) ;</li>
+ * <li>{@code /admin/realms/{realm}/users} : recherche par email, création, lecture et mise à
+ * jour ; les affectations de rôles et les réinitialisations de mot de passe sont acceptées
+ * sans effet.</li>
+ * </ul>
+ *
+ * Chaque appel est compté par endpoint et peut être ralenti de {@code latencyMs}
+ * pour observer l'application face à un Keycloak lent.
+ */
+final class KeycloakStub implements AutoCloseable {
+
+    static final String ADMIN_USERNAME = "admin";
+    static final String PASSWORD = "loadtest";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String realm;
+    private final long latencyMs;
+    private final RSAKey key;
+    private final NimbusJwtEncoder encoder;
+    private final HttpServer server;
+    private final String baseUrl;
+
+    // email -> utilisateur Keycloak
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+
+    record User(String id, String email, String nom, String prenom, String role) {
+    }
+
+    KeycloakStub(String realm, long latencyMs) throws IOException, JOSEException {
+        this.realm = realm;
+        this.latencyMs = latencyMs;
+        this.key = new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+        this.encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String serverUrl() {
+        return baseUrl;
+    }
+
+    String issuer() {
+        return baseUrl + "/realms/" + realm;
+    }
+
+    String jwkSetUri() {
+        return issuer() + "/protocol/openid-connect/certs";
+    }
+
+    void register(User user) {
+        users.put(user.email(), user);
+    }
+
+    /** Jeton d'accès tel que Keycloak l'émet pour {@code user} (rôles dans realm_access). */
+    String issue(User user, Duration ttl) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(issuer())
+                .subject(user.id())
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim("azp", "admin-cli")
+                .claim("typ", "Bearer")
+                .claim("email", user.email())
+                .claim("preferred_username", user.email())
+                .claim("family_name", user.nom())
+                .claim("given_name", user.prenom())
+                .claim("realm_access", Map.of("roles", List.of(user.role())))
+                .build();
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.RS256).keyId(key.getKeyID()).build();
+        return encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    /** Nombre d'appels reçus par endpoint, triés par nom. */
+    Map<String, Long> calls() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        calls.forEach((endpoint, count) -> snapshot.put(endpoint, count.sum()));
+        return snapshot;
+    }
+
+    void resetCalls() {
+        calls.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    // ==========================================
+    // ROUTAGE
+    // ==========================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            String realmPath = "/realms/" + realm;
+            String adminPath = "/admin/realms/" + realm + "/users";
+
+            if (path.equals(realmPath + "/.well-known/openid-configuration")) {
+                count("discovery");
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("issuer", issuer());
+                body.put("jwks_uri", jwkSetUri());
+                body.put("token_endpoint", issuer() + "/protocol/openid-connect/token");
+                body.put("subject_types_supported", List.of("public"));
+                body.put("id_token_signing_alg_values_supported", List.of("RS256"));
+                json(exchange, 200, body);
+            } else if (path.equals(realmPath + "/protocol/openid-connect/certs")) {
+                count("jwks");
+                json(exchange, 200, new JWKSet(key.toPublicJWK()).toJSONObject());
+            } else if (path.endsWith("/protocol/openid-connect/token") && method.equals("POST")) {
+                count("token");
+                token(exchange);
+            } else if (path.equals(adminPath) && method.equals("GET")) {
+                count("admin.users.search");
+                User user = users.get(query(exchange).getOrDefault("email", ""));
+                json(exchange, 200, user == null ? List.of() : List.of(representation(user)));
+            } else if (path.equals(adminPath) && method.equals("POST")) {
+                count("admin.users.create");
+                Map<?, ?> body = mapper.readValue(exchange.getRequestBody(), Map.class);
+                User user = new User(UUID.randomUUID().toString(), (String) body.get("email"),
+                        (String) body.get("lastName"), (String) body.get("firstName"), "CLIENT");
+                register(user);
+                exchange.getResponseHeaders().set("Location", baseUrl + adminPath + "/" + user.id());
+                exchange.sendResponseHeaders(201, -1);
+            } else if (path.startsWith(adminPath + "/")) {
+                admin(exchange, path.substring(adminPath.length() + 1), method);
+            } else {
+                count("other");
+                exchange.sendResponseHeaders(404, -1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        Map<String, String> form = parse(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        String username = form.getOrDefault("username", "");
+        User user = ADMIN_USERNAME.equals(username)
+                ? new User("admin", "admin@loadtest.local", "Admin", "Admin", "ADMIN")
+                : users.get(username);
+        if (user == null || !PASSWORD.equals(form.get("password"))) {
+            json(exchange, 401, Map.of("error", "invalid_grant", "error_description", "Invalid user credentials"));
+            return;
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("access_token", issue(user, Duration.ofMinutes(5)));
+        body.put("expires_in", 300);
+        body.put("refresh_token", UUID.randomUUID().toString());
+        body.put("token_type", "Bearer");
+        json(exchange, 200, body);
+    }
+
+    private void admin(HttpExchange exchange, String rest, String method) throws IOException {
+        String id = rest.contains("/") ? rest.substring(0, rest.indexOf('/')) : rest;
+        if (rest.equals(id)) {
+            User user = users.values().stream().filter(u -> u.id().equals(id)).findFirst().orElse(null);
+            if (method.equals("GET")) {
+                count("admin.users.get");
+                if (user == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    json(exchange, 200, representation(user));
+                }
+                return;
+            }
+            count("admin.users.update");
+        } else if (rest.endsWith("/reset-password")) {
+            count("admin.users.reset-password");
+        } else if (rest.contains("/role-mappings")) {
+            count("admin.roles");
+            if (method.equals("GET")) {
+                json(exchange, 200, List.of());
+                return;
+            }
+        } else {
+            count("other");
+        }
+        exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private Map<String, Object> representation(User user) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", user.id());
+        body.put("username", user.email());
+        body.put("email", user.email());
+        body.put("firstName", user.prenom());
+        body.put("lastName", user.nom());
+        body.put("enabled", true);
+        body.put("emailVerified", true);
+        return body;
+    }
+
+    // ==========================================
+    // UTILITAIRES HTTP
+    // ==========================================
+
+    private void count(String endpoint) {
+        calls.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+    }
+
+    private void json(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        String raw = exchange.getRequestURI().getRawQuery();
+        return raw == null ? Map.of() : parse(raw);
+    }
+
+    private static Map<String, String> parse(String encoded) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                values.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return values;
+    }
+}
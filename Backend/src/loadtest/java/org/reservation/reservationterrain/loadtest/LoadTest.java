@@ -0,0 +1,303 @@
+package org.reservation.reservationterrain.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reservation.reservationterrain.ReservationTerrainApplication;
+import org.reservation.reservationterrain.service.CatalogChangedEvent;
+import org.reservation.reservationterrain.service.SlotAvailabilityIndex;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test de charge dans la JVM : démarre ReservationTerrainApplication sur un
+ * port libre, contre PostgreSQL (embarqué par défaut) et {@link KeycloakStub},
+ * crée un jeu de données puis fait tourner {@code concurrency} utilisateurs
+ * virtuels qui tirent chacun leur prochain scénario selon le mix.
+ *
+ * Modèle fermé : chaque utilisateur attend la réponse avant d'envoyer la
+ * requête suivante. Le débit mesuré est donc celui que l'application tient à
+ * cette concurrence, et les latences ne comptent pas l'attente qu'aurait
+ * subie un trafic à débit imposé.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="duration=120 concurrency=128"
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="jdbc-url=jdbc:postgresql://localhost:5432/loadtest password=root"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final String REALM = "loadtest";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    // Part des réservations sur les terrains très demandés, le reste est réparti sur tous les terrains
+    private static final int HOT_BOOKING_PERCENT = 80;
+
+    private final LoadTestSettings settings;
+    private final LoadTestData data;
+    private final String baseUrl;
+    private final List<String> clientTokens = new ArrayList<>();
+    private final List<String> ownerTokens = new ArrayList<>();
+    private final Scenario[] scenarios;
+    private final int[] cumulativeWeights;
+    private final HttpClient http;
+
+    private LoadTest(LoadTestSettings settings, LoadTestData data, KeycloakStub keycloak, String baseUrl,
+            ExecutorService executor) {
+        this.settings = settings;
+        this.data = data;
+        this.baseUrl = baseUrl;
+        Duration ttl = LoadTestData.tokenTtl(settings);
+        data.clients.forEach(c -> clientTokens.add(keycloak.issue(c, ttl)));
+        data.owners.forEach(o -> ownerTokens.add(keycloak.issue(o, ttl)));
+        this.scenarios = settings.mix().keySet().toArray(Scenario[]::new);
+        this.cumulativeWeights = new int[scenarios.length];
+        int sum = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            sum += settings.mix().get(scenarios[i]);
+            cumulativeWeights[i] = sum;
+        }
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        // Pas de redémarrage à chaud : devtools est sur le classpath de test
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        EmbeddedPostgres embedded = null;
+        String jdbcUrl = settings.jdbcUrl();
+        String username = settings.username();
+        String password = settings.password();
+        if (jdbcUrl.isEmpty()) {
+            embedded = EmbeddedPostgres.builder().start();
+            jdbcUrl = embedded.getJdbcUrl("postgres", "postgres");
+            username = "postgres";
+            password = "";
+            System.out.println("Embedded PostgreSQL started on port " + embedded.getPort());
+        }
+
+        try (KeycloakStub keycloak = new KeycloakStub(REALM, settings.keycloakLatencyMs());
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Les arguments de ligne de commande passent devant application.properties
+            List<String> bootArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.datasource.url=" + jdbcUrl,
+                    "--spring.datasource.username=" + username,
+                    "--spring.datasource.password=" + password,
+                    "--spring.jpa.hibernate.ddl-auto=update",
+                    "--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + keycloak.jwkSetUri(),
+                    "--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + keycloak.issuer(),
+                    "--keycloak.server-url=" + keycloak.serverUrl(),
+                    "--keycloak.realm=" + REALM,
+                    "--keycloak.admin-realm=master",
+                    "--keycloak.client-id=admin-cli",
+                    "--keycloak.username=" + KeycloakStub.ADMIN_USERNAME,
+                    "--keycloak.password=" + KeycloakStub.PASSWORD,
+                    "--logging.level.root=WARN",
+                    "--logging.level.org.springframework.security=WARN"));
+            bootArgs.addAll(settings.springArgs());
+
+            try (ConfigurableApplicationContext context = SpringApplication.run(ReservationTerrainApplication.class,
+                    bootArgs.toArray(String[]::new))) {
+                JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+                long seedStart = System.nanoTime();
+                LoadTestData data = LoadTestData.seed(jdbc, keycloak, settings);
+                // Données insérées hors de l'application : on remet caches et index dans l'état d'un démarrage
+                context.getBean(EntityManagerFactory.class).getCache().evictAll();
+                context.publishEvent(new CatalogChangedEvent("loadtest"));
+                context.getBean(SlotAvailabilityIndex.class).preload();
+                System.out.printf("Seeded run %s: %d terrains, %d clients, %d owners, %d reservations in %d ms%n",
+                        data.runId, data.terrainIds.size(), data.clients.size(), data.owners.size(),
+                        data.reservations, (System.nanoTime() - seedStart) / 1_000_000);
+
+                try {
+                    String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+                    LoadTest test = new LoadTest(settings, data, keycloak, baseUrl, executor);
+                    keycloak.resetCalls();
+                    test.run(executor, keycloak);
+                    printSecondLevelCache(context.getBean(MeterRegistry.class));
+                    printPinnedThreads(context.getBean(MeterRegistry.class));
+                } finally {
+                    if (embedded == null && settings.cleanup()) {
+                        data.cleanup(jdbc);
+                        System.out.println("Removed rows of run " + data.runId);
+                    }
+                }
+            }
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    private void run(ExecutorService executor, KeycloakStub keycloak) throws InterruptedException {
+        Map<Scenario, ScenarioStats> stats = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : scenarios) {
+            stats.put(scenario, new ScenarioStats());
+        }
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(settings.warmupSeconds()).toNanos();
+        long end = measureFrom + Duration.ofSeconds(settings.durationSeconds()).toNanos();
+        System.out.printf("Running %d users for %ds (+%ds warm-up), mix %s%n", settings.concurrency(),
+                settings.durationSeconds(), settings.warmupSeconds(), settings.mix());
+
+        SplittableRandom root = new SplittableRandom(7);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < settings.concurrency(); i++) {
+            SplittableRandom random = root.split();
+            workers.add(executor.submit(() -> {
+                while (System.nanoTime() < end) {
+                    Scenario scenario = pick(random);
+                    HttpRequest request = request(scenario, random);
+                    long sent = System.nanoTime();
+                    int status = send(request);
+                    long received = System.nanoTime();
+                    if (sent >= measureFrom && received <= end) {
+                        stats.get(scenario).record(received - sent, status);
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Load test worker failed", e.getCause());
+            }
+        }
+
+        ScenarioStats.print(stats, settings.durationSeconds());
+        System.out.println("\nKeycloak stub calls (warm-up included): " + keycloak.calls());
+    }
+
+    // Taux de succès par région du cache de second niveau (JCacheMetrics, chargement des données inclus)
+    private static void printSecondLevelCache(MeterRegistry registry) {
+        Map<String, double[]> regions = new TreeMap<>();
+        for (Meter meter : registry.find("cache.gets").meters()) {
+            String region = meter.getId().getTag("cache");
+            String result = meter.getId().getTag("result");
+            if (region == null || !region.startsWith("org.reservation") && !region.startsWith("default-")) {
+                continue;
+            }
+            double value = meter.measure().iterator().next().getValue();
+            double[] counts = regions.computeIfAbsent(region, r -> new double[2]);
+            counts["hit".equals(result) ? 0 : 1] += value;
+        }
+        System.out.println("\nSecond-level cache (hits / misses):");
+        regions.forEach((region, counts) -> System.out.printf("  %-34s %8.0f %8.0f  %5.1f%%%n",
+                region.replace("org.reservation.reservationterrain.model.", ""), counts[0], counts[1],
+                counts[0] + counts[1] == 0 ? 0 : 100 * counts[0] / (counts[0] + counts[1])));
+    }
+
+    // Threads virtuels épinglés pendant le run (VirtualThreadMetrics, événements JFR)
+    private static void printPinnedThreads(MeterRegistry registry) {
+        Timer pinned = registry.find("jvm.threads.virtual.pinned").timer();
+        if (pinned == null) {
+            System.out.println("\nVirtual thread pinning: not measured");
+            return;
+        }
+        System.out.printf("%nVirtual thread pinning: %d events, %.1f ms total%n", pinned.count(),
+                pinned.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    private Scenario pick(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return scenarios[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private HttpRequest request(Scenario scenario, SplittableRandom random) {
+        LocalDate today = LocalDate.now();
+        return switch (scenario) {
+            case CATALOG -> get("/api/complexes", null);
+            case AVAILABILITY -> {
+                Long terrainId = data.terrainIds.get(random.nextInt(data.terrainIds.size()));
+                LocalDate from = today.plusDays(random.nextInt(settings.bookingDays()));
+                yield get("/api/terrains/" + terrainId + "/availability?from=" + from + "&to=" + from.plusDays(6),
+                        null);
+            }
+            case CALENDAR -> {
+                Long terrainId = data.terrainIds.get(random.nextInt(data.terrainIds.size()));
+                yield get("/api/terrains/" + terrainId + "/reservations?date="
+                        + today.plusDays(random.nextInt(settings.bookingDays())), null);
+            }
+            case BOOKING -> {
+                int index = random.nextInt(100) < HOT_BOOKING_PERCENT
+                        ? random.nextInt(settings.hotTerrains())
+                        : random.nextInt(data.terrainIds.size());
+                int hour = random.nextInt(LoadTestData.OPENING, LoadTestData.CLOSING);
+                String body = String.format(
+                        "{\"terrainId\":%d,\"date\":\"%s\",\"heureDebut\":\"%02d:00\",\"heureFin\":\"%02d:00\"}",
+                        data.terrainIds.get(index), today.plusDays(1 + random.nextInt(settings.bookingDays())),
+                        hour, hour + 1);
+                yield post("/api/reservations", body, clientTokens.get(random.nextInt(clientTokens.size())));
+            }
+            case DASHBOARD -> get("/api/owners/dashboard-stats", ownerTokens.get(random.nextInt(ownerTokens.size())));
+            case LOGIN -> {
+                KeycloakStub.User client = data.clients.get(random.nextInt(data.clients.size()));
+                yield post("/auth/client/login", "{\"email\":\"" + client.email() + "\",\"password\":\""
+                        + KeycloakStub.PASSWORD + "\"}", null);
+            }
+        };
+    }
+
+    private HttpRequest get(String path, String token) {
+        return builder(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String json, String token) {
+        return builder(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.reservation.reservationterrain.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Jeu de données du test de charge, inséré en JDBC après le démarrage de
+ * l'application (le schéma vient de ddl-auto et des migrations au
+ * démarrage). Emails et identifiants Keycloak portent l'identifiant de
+ * l'exécution : plusieurs exécutions peuvent partager une base, et
+ * {@link #cleanup} ne touche qu'aux lignes de celle-ci.
+ */
+final class LoadTestData {
+
+    static final int TERRAINS_PER_COMPLEXE = 10;
+    static final int OPENING = 8;
+    static final int CLOSING = 22;
+    private static final String[] VILLES = { "Casablanca", "Rabat", "Marrakech", "Tanger", "Fès", "Agadir" };
+    private static final String[] PRICES = { "150", "200", "250", "300", "350.5", "400" };
+
+    final String runId;
+    final List<Long> terrainIds = new ArrayList<>();
+    final List<Long> complexeIds = new ArrayList<>();
+    final List<Long> ownerIds = new ArrayList<>();
+    final List<Long> clientIds = new ArrayList<>();
+    final List<KeycloakStub.User> owners = new ArrayList<>();
+    final List<KeycloakStub.User> clients = new ArrayList<>();
+    int reservations;
+
+    private LoadTestData(String runId) {
+        this.runId = runId;
+    }
+
+    static LoadTestData seed(JdbcTemplate jdbc, KeycloakStub keycloak, LoadTestSettings settings) {
+        LoadTestData data = new LoadTestData(Long.toString(System.currentTimeMillis(), 36));
+        SplittableRandom random = new SplittableRandom(42);
+
+        int complexes = (settings.terrains() + TERRAINS_PER_COMPLEXE - 1) / TERRAINS_PER_COMPLEXE;
+        for (int c = 0; c < complexes; c++) {
+            KeycloakStub.User owner = data.user("owner", c, "OWNER");
+            Long ownerId = jdbc.queryForObject("INSERT INTO owner (keycloak_id, email, nom, prenom, role, nom_complexe) "
+                    + "VALUES (?, ?, ?, ?, 'OWNER', ?) RETURNING id", Long.class,
+                    owner.id(), owner.email(), owner.nom(), owner.prenom(), "Complexe " + data.runId + "-" + c);
+            Long complexeId = jdbc.queryForObject("INSERT INTO complexe (nom, ville, adress, owner_id) "
+                    + "VALUES (?, ?, ?, ?) RETURNING id", Long.class,
+                    "Complexe " + data.runId + "-" + c, VILLES[c % VILLES.length], c + " boulevard Mohammed V",
+                    ownerId);
+            keycloak.register(owner);
+            data.owners.add(owner);
+            data.ownerIds.add(ownerId);
+            data.complexeIds.add(complexeId);
+            for (int t = c * TERRAINS_PER_COMPLEXE; t < Math.min(settings.terrains(), (c + 1) * TERRAINS_PER_COMPLEXE); t++) {
+                data.terrainIds.add(jdbc.queryForObject("INSERT INTO terrain (nom, prix_terrain, status, "
+                        + "heure_ouverture, heure_fermeture, duree_creneau, complexe_id) "
+                        + "VALUES (?, ?, 'OUVERT', ?, ?, 60, ?) RETURNING id", Long.class,
+                        "Terrain " + (t + 1), PRICES[random.nextInt(PRICES.length)], OPENING, CLOSING, complexeId));
+            }
+        }
+
+        List<Object[]> clientRows = new ArrayList<>(settings.clients());
+        for (int i = 0; i < settings.clients(); i++) {
+            KeycloakStub.User client = data.user("client", i, "CLIENT");
+            keycloak.register(client);
+            data.clients.add(client);
+            clientRows.add(new Object[] { client.id(), client.email(), client.nom(), client.prenom() });
+        }
+        jdbc.batchUpdate("INSERT INTO client (keycloak_id, email, nom, prenom, role) VALUES (?, ?, ?, ?, 'CLIENT')",
+                clientRows);
+        data.clientIds.addAll(jdbc.queryForList("SELECT id FROM client WHERE keycloak_id LIKE ? ORDER BY id",
+                Long.class, data.prefix() + "%"));
+
+        data.seedReservations(jdbc, settings, random);
+        return data;
+    }
+
+    /**
+     * Historique passé (VALIDEE, quelques ANNULEE) et réservations à venir
+     * (CONFIRMEE) : {@code bookingsPerDay} créneaux distincts par terrain et
+     * par jour, jamais en conflit avec la contrainte d'exclusion.
+     */
+    private void seedReservations(JdbcTemplate jdbc, LoadTestSettings settings, SplittableRandom random) {
+        LocalDate today = LocalDate.now();
+        int perDay = Math.min(settings.bookingsPerDay(), CLOSING - OPENING);
+        List<Object[]> rows = new ArrayList<>();
+        for (int day = -settings.historyDays(); day < settings.bookingDays(); day++) {
+            LocalDate date = today.plusDays(day);
+            for (Long terrainId : terrainIds) {
+                for (int hour : random.ints(OPENING, CLOSING).distinct().limit(perDay).toArray()) {
+                    String status = day >= 0 ? "CONFIRMEE" : random.nextInt(10) == 0 ? "ANNULEE" : "VALIDEE";
+                    rows.add(new Object[] { status, date, LocalTime.of(hour, 0), LocalTime.of(hour + 1, 0),
+                            clientIds.get(random.nextInt(clientIds.size())), terrainId });
+                }
+            }
+        }
+        for (int from = 0; from < rows.size(); from += 5000) {
+            jdbc.batchUpdate("INSERT INTO reservation (status, date, heure_debut, heure_fin, duree, client_id, "
+                    + "terrain_id) VALUES (?, ?, ?, ?, 60, ?, ?)", rows.subList(from, Math.min(rows.size(), from + 5000)));
+        }
+        reservations = rows.size();
+    }
+
+    /** Supprime les lignes de cette exécution, réservations créées pendant le test comprises. */
+    void cleanup(JdbcTemplate jdbc) {
+        Long[] terrains = terrainIds.toArray(Long[]::new);
+        Long[] complexes = complexeIds.toArray(Long[]::new);
+        jdbc.update("DELETE FROM reservation WHERE terrain_id = ANY(?) OR client_id = ANY(?)", terrains,
+                clientIds.toArray(Long[]::new));
+        jdbc.update("DELETE FROM complexe_stats WHERE complexe_id = ANY(?)", (Object) complexes);
+        jdbc.update("DELETE FROM terrain WHERE id = ANY(?)", (Object) terrains);
+        jdbc.update("DELETE FROM complexe WHERE id = ANY(?)", (Object) complexes);
+        jdbc.update("DELETE FROM owner WHERE id = ANY(?)", (Object) ownerIds.toArray(Long[]::new));
+        jdbc.update("DELETE FROM client WHERE keycloak_id LIKE ?", prefix() + "%");
+    }
+
+    /** Durée de vie des jetons : toute la durée du test, chauffe comprise. */
+    static Duration tokenTtl(LoadTestSettings settings) {
+        return Duration.ofSeconds(settings.warmupSeconds() + settings.durationSeconds()).plusMinutes(10);
+    }
+
+    private KeycloakStub.User user(String kind, int index, String role) {
+        String id = prefix() + kind + "-" + index;
+        return new KeycloakStub.User(id, id + "@loadtest.local", "Nom" + index, "Prenom" + index, role);
+    }
+
+    private String prefix() {
+        return "lt-" + runId + "-";
+    }
+}
@@ -0,0 +1,122 @@
+package org.reservation.reservationterrain.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Paramètres du test de charge, passés en {@code clé=valeur} ; les arguments
+ * commençant par {@code --} sont transmis tels quels à Spring Boot (par
+ * exemple {@code --spring.datasource.hikari.maximum-pool-size=20}).
+ *
+ * @param durationSeconds   durée de la mesure
+ * @param warmupSeconds     chauffe avant la mesure (JIT, caches, pool), non comptée
+ * @param concurrency       utilisateurs simultanés, chacun enchaîne ses requêtes sans pause
+ * @param mix               poids relatif de chaque scénario
+ * @param terrains          terrains créés (complexes de 10 terrains, un owner par complexe)
+ * @param clients           clients créés, chacun avec son jeton
+ * @param hotTerrains       terrains très demandés où se concentrent les réservations
+ * @param historyDays       jours passés remplis de réservations (revenus des dashboards)
+ * @param bookingDays       jours à venir ouverts à la réservation
+ * @param bookingsPerDay    réservations existantes par terrain et par jour
+ * @param jdbcUrl           base à utiliser ; vide : PostgreSQL embarqué, jeté en fin de test
+ * @param username          utilisateur de {@code jdbcUrl}
+ * @param password          mot de passe de {@code jdbcUrl}
+ * @param keycloakLatencyMs latence ajoutée à chaque appel du Keycloak simulé
+ * @param cleanup           supprimer les données créées à la fin (base externe uniquement)
+ * @param springArgs        arguments transmis à Spring Boot
+ */
+record LoadTestSettings(int durationSeconds, int warmupSeconds, int concurrency, Map<Scenario, Integer> mix,
+        int terrains, int clients, int hotTerrains, int historyDays, int bookingDays, int bookingsPerDay,
+        String jdbcUrl, String username, String password, long keycloakLatencyMs, boolean cleanup,
+        List<String> springArgs) {
+
+    static final String DEFAULT_MIX = "catalog:40,availability:35,booking:15,dashboard:10";
+
+    static LoadTestSettings parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            if (arg.startsWith("--")) {
+                springArgs.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Argument attendu sous la forme clé=valeur: " + arg);
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestSettings settings = new LoadTestSettings(
+                intValue(values, "duration", 60),
+                intValue(values, "warmup", 15),
+                intValue(values, "concurrency", 64),
+                mix(values.getOrDefault("mix", DEFAULT_MIX)),
+                intValue(values, "terrains", 200),
+                intValue(values, "clients", 2000),
+                intValue(values, "hot-terrains", 5),
+                intValue(values, "history-days", 30),
+                intValue(values, "booking-days", 7),
+                intValue(values, "bookings-per-day", 4),
+                values.getOrDefault("jdbc-url", ""),
+                values.getOrDefault("username", "postgres"),
+                values.getOrDefault("password", ""),
+                intValue(values, "keycloak-latency-ms", 0),
+                Boolean.parseBoolean(values.getOrDefault("cleanup", "true")),
+                List.copyOf(springArgs));
+        values.keySet().removeAll(List.of("duration", "warmup", "concurrency", "mix", "terrains", "clients",
+                "hot-terrains", "history-days", "booking-days", "bookings-per-day", "jdbc-url", "username",
+                "password", "keycloak-latency-ms", "cleanup"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Paramètres inconnus: " + values.keySet());
+        }
+        if (settings.terrains() < 1 || settings.clients() < 1 || settings.concurrency() < 1
+                || settings.durationSeconds() < 1 || settings.bookingDays() < 1) {
+            throw new IllegalArgumentException(
+                    "duration, concurrency, terrains, clients et booking-days doivent être positifs");
+        }
+        if (settings.hotTerrains() < 1 || settings.hotTerrains() > settings.terrains()) {
+            throw new IllegalArgumentException("hot-terrains doit être entre 1 et terrains");
+        }
+        return settings;
+    }
+
+    /** Format {@code scénario:poids,...}, par exemple {@value #DEFAULT_MIX}. */
+    private static Map<Scenario, Integer> mix(String value) {
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrée de mix invalide: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Poids négatif dans le mix: " + entry);
+            }
+            if (weight > 0) {
+                mix.put(Scenario.byName(parts[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Le mix ne contient aucun scénario");
+        }
+        return mix;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valeur entière attendue pour " + key + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.reservation.reservationterrain.loadtest;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Parcours simulés. Les poids par défaut sont ceux de {@link LoadTestSettings#DEFAULT_MIX} ;
+ * LOGIN n'y figure pas : il mesure surtout l'aller-retour vers Keycloak.
+ */
+enum Scenario {
+
+    /** Catalogue public des complexes ({@code GET /api/complexes}), sans jeton. */
+    CATALOG("catalog"),
+    /** Créneaux libres d'un terrain sur une semaine, sans jeton. */
+    AVAILABILITY("availability"),
+    /** Réservations d'un terrain pour une journée (calendrier public), sans jeton. */
+    CALENDAR("calendar"),
+    /** Réservation d'une heure, surtout sur les terrains très demandés : beaucoup de 409 attendus. */
+    BOOKING("booking"),
+    /** Tableau de bord d'un owner. */
+    DASHBOARD("dashboard"),
+    /** Connexion d'un client ({@code POST /auth/client/login}), relayée au Keycloak simulé. */
+    LOGIN("login");
+
+    final String label;
+
+    Scenario(String label) {
+        this.label = label;
+    }
+
+    static Scenario byName(String name) {
+        return Arrays.stream(values())
+                .filter(s -> s.label.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Scénario inconnu: " + name + " (attendu: "
+                        + Arrays.stream(values()).map(s -> s.label).collect(Collectors.joining(", ")) + ")"));
+    }
+}
@@ -0,0 +1,77 @@
+package org.reservation.reservationterrain.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Résultats d'un scénario pendant la fenêtre de mesure : latences en
+ * microsecondes (HdrHistogram, 3 chiffres significatifs) et issues par
+ * classe de statut. 304 compte comme un succès (ETag des disponibilités).
+ */
+final class ScenarioStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    final LongAdder ok = new LongAdder();
+    final LongAdder conflicts = new LongAdder();
+    final LongAdder clientErrors = new LongAdder();
+    final LongAdder errors = new LongAdder();
+
+    void record(long nanos, int status) {
+        latency.recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        if (status == 409) {
+            conflicts.increment();
+        } else if (status >= 200 && status < 400) {
+            ok.increment();
+        } else if (status >= 400 && status < 500) {
+            clientErrors.increment();
+        } else {
+            // 5xx, ou -1 quand la requête n'a pas abouti (timeout, connexion refusée)
+            errors.increment();
+        }
+    }
+
+    long requests() {
+        return latency.getTotalCount();
+    }
+
+    static void print(Map<Scenario, ScenarioStats> stats, double seconds) {
+        System.out.printf("%n%-13s %9s %9s %8s %8s %8s %8s %8s %7s %7s %7s%n", "Scenario", "Requests", "Req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "409 %", "4xx %", "err %");
+        Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+        long conflicts = 0;
+        long clientErrors = 0;
+        long errors = 0;
+        for (Map.Entry<Scenario, ScenarioStats> entry : stats.entrySet()) {
+            ScenarioStats s = entry.getValue();
+            row(entry.getKey().label, s.latency, s.conflicts.sum(), s.clientErrors.sum(), s.errors.sum(), seconds);
+            total.add(s.latency);
+            conflicts += s.conflicts.sum();
+            clientErrors += s.clientErrors.sum();
+            errors += s.errors.sum();
+        }
+        row("total", total, conflicts, clientErrors, errors, seconds);
+    }
+
+    private static void row(String label, Histogram h, long conflicts, long clientErrors, long errors,
+            double seconds) {
+        long count = h.getTotalCount();
+        System.out.printf("%-13s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %7.2f %7.2f %7.2f%n", label, count,
+                count / seconds, millis(h, 50), millis(h, 90), millis(h, 99), millis(h, 99.9),
+                h.getMaxValue() / 1000.0, percent(conflicts, count), percent(clientErrors, count),
+                percent(errors, count));
+    }
+
+    private static double millis(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static double percent(long part, long count) {
+        return count == 0 ? 0 : 100.0 * part / count;
+    }
+}
@@ -0,0 +1,25 @@
+package org.reservation.reservationterrain.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Délai des réponses asynchrones (export en streaming) : celui du conteneur
+ * (30 s sous Tomcat) coupe un export d'une année complète.
+ */
+@Configuration
+public class AsyncRequestConfig implements WebMvcConfigurer {
+
+    private final long timeoutMs;
+
+    public AsyncRequestConfig(@Value("${reservation.export.timeout-ms:600000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+}
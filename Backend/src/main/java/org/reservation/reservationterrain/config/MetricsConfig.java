@@ -0,0 +1,148 @@
+package org.reservation.reservationterrain.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.hibernate.cfg.AvailableSettings;
+import org.reservation.reservationterrain.security.CachingJwtDecoder;
+import org.reservation.reservationterrain.service.ClientIdentityResolver;
+import org.reservation.reservationterrain.service.ComplexeCatalogCache;
+import org.reservation.reservationterrain.service.KeycloakCalls;
+import org.reservation.reservationterrain.service.TerrainDayLockManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+import javax.cache.CacheManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métriques exposées par Actuator au format Prometheus ({@code /actuator/prometheus}).
+ *
+ * Les valeurs par défaut (endpoints exposés, buckets des timers) sont dans
+ * metrics.properties et peuvent être redéfinies dans application.properties.
+ * Hikari (hikaricp.connections.*, dont pending pour la saturation du pool)
+ * et les requêtes HTTP (http.server.requests) sont fournis par Spring Boot ;
+ * on ajoute ici les verrous de réservation, les taux de succès des caches, le
+ * nombre de requêtes SQL par requête HTTP, le retard du réplica et l'état du
+ * client Keycloak (pool de l'API d'administration, appels en cours,
+ * disjoncteur ; le pool de l'endpoint token est publié par Reactor Netty).
+ * Les timers de réservation et de Keycloak sont dans ReservationController,
+ * ReservationService et KeycloakCalls.
+ *
+ * Aucune étiquette ne porte un identifiant, une URL réelle ou un email : le
+ * nombre de séries reste fixé par le code.
+ */
+@Configuration
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounting() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCountingInspector());
+    }
+
+    @Bean
+    public StatementsPerRequestFilter statementsPerRequestFilter(MeterRegistry registry) {
+        return new StatementsPerRequestFilter(registry);
+    }
+
+    @Bean
+    public MeterFilter statementsPerRequestUriLimit(
+            @Value("${management.metrics.web.server.max-uri-tags:100}") int maxUriTags) {
+        // Même garde-fou que http.server.requests si une route venait à produire des motifs variables
+        return MeterFilter.maximumAllowableTags(StatementsPerRequestFilter.METRIC, "uri", maxUriTags,
+                MeterFilter.deny());
+    }
+
+    @Bean
+    public MeterBinder terrainLockMetrics(TerrainDayLockManager locks) {
+        return registry -> {
+            FunctionCounter.builder("reservation.locks.acquisitions", locks, TerrainDayLockManager::getAcquisitions)
+                    .description("Verrous (terrain, jour) demandés")
+                    .register(registry);
+            FunctionCounter.builder("reservation.locks.timeouts", locks, TerrainDayLockManager::getTimeouts)
+                    .description("Verrous non obtenus dans le délai (réservation refusée en 409)")
+                    .register(registry);
+            FunctionTimer.builder("reservation.locks.wait", locks,
+                    TerrainDayLockManager::getContended, TerrainDayLockManager::getWaitNanos, TimeUnit.NANOSECONDS)
+                    .description("Attente des verrous déjà tenus par une autre réservation")
+                    .register(registry);
+            Gauge.builder("reservation.locks.active", locks, TerrainDayLockManager::getActiveStripes)
+                    .description("Verrous (terrain, jour) actuellement tenus ou attendus")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder cacheMetrics(ClientIdentityResolver identityResolver, ComplexeCatalogCache catalogCache,
+            CacheManager hibernateCacheManager, CachingJwtDecoder jwtDecoder) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, jwtDecoder.getCache(), "jwt.verified");
+            CaffeineCacheMetrics.monitor(registry, identityResolver.getClientIdCache(), "identity.client-ids");
+            CaffeineCacheMetrics.monitor(registry, identityResolver.getKeycloakIdCache(), "identity.keycloak-ids");
+            // Régions du cache de second niveau (une par entité ou collection, plus le cache de requêtes)
+            for (String region : hibernateCacheManager.getCacheNames()) {
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(region));
+            }
+            FunctionCounter.builder("cache.gets", catalogCache, ComplexeCatalogCache::getHits)
+                    .tags("cache", "complexe-catalog", "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", catalogCache, ComplexeCatalogCache::getMisses)
+                    .tags("cache", "complexe-catalog", "result", "miss")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder keycloakClientMetrics(PoolingHttpClientConnectionManager keycloakConnectionManager,
+            KeycloakCalls keycloakCalls) {
+        return registry -> {
+            Gauge.builder("keycloak.http.connections", keycloakConnectionManager, m -> m.getTotalStats().getLeased())
+                    .tag("state", "leased")
+                    .register(registry);
+            Gauge.builder("keycloak.http.connections", keycloakConnectionManager,
+                    m -> m.getTotalStats().getAvailable())
+                    .tag("state", "idle")
+                    .register(registry);
+            Gauge.builder("keycloak.http.connections.pending", keycloakConnectionManager,
+                    m -> m.getTotalStats().getPending())
+                    .description("Appels en attente d'une connexion du pool de l'API d'administration Keycloak")
+                    .register(registry);
+            Gauge.builder("keycloak.http.connections.max", keycloakConnectionManager, m -> m.getMaxTotal())
+                    .register(registry);
+            for (String api : new String[] { KeycloakCalls.TOKEN, KeycloakCalls.ADMIN }) {
+                Gauge.builder("keycloak.requests.active", keycloakCalls, c -> c.getInFlight(api))
+                        .description("Appels Keycloak en cours (bornés par le bulkhead de l'API)")
+                        .tag("api", api)
+                        .register(registry);
+            }
+            Gauge.builder("keycloak.circuit.state", keycloakCalls, KeycloakCalls::getCircuitState)
+                    .description("Disjoncteur Keycloak : 0 fermé, 1 ouvert, 2 mi-ouvert")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder replicaLagMetrics(ObjectProvider<ReplicaLagMonitor> monitor) {
+        return registry -> monitor.ifAvailable(m -> {
+            Gauge.builder("datasource.replica.lag", m,
+                    r -> r.getLagMillis() == Long.MAX_VALUE ? Double.NaN : r.getLagMillis())
+                    .description("Retard du réplica en lecture (NaN s'il est injoignable)")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("datasource.replica.usable", m, r -> r.isUsable() ? 1 : 0)
+                    .description("1 si les lectures des services partent sur le réplica")
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package org.reservation.reservationterrain.config;
+
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Limites des uploads multipart (photos des terrains).
+ *
+ * La taille maximale suit celle du stockage d'images (1 Mo par défaut chez
+ * Spring Boot, trop peu pour une photo), et chaque partie est écrite sur
+ * disque par Tomcat dès le premier octet : plusieurs uploads simultanés ne
+ * pèsent pas sur le tas.
+ */
+@Configuration
+public class MultipartUploadConfig {
+
+    // marge pour les en-têtes et les autres champs du formulaire
+    private static final long REQUEST_OVERHEAD_BYTES = 64 * 1024;
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(
+            @Value("${storage.images.max-bytes:5242880}") long maxBytes) {
+        MultipartConfigFactory factory = new MultipartConfigFactory();
+        factory.setMaxFileSize(DataSize.ofBytes(maxBytes));
+        factory.setMaxRequestSize(DataSize.ofBytes(maxBytes + REQUEST_OVERHEAD_BYTES));
+        factory.setFileSizeThreshold(DataSize.ofBytes(0));
+        return factory.createMultipartConfig();
+    }
+}
@@ -0,0 +1,21 @@
+package org.reservation.reservationterrain.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * La table reservation est partitionnée (voir ReservationPartitionService).
+ * Par défaut Hibernate (ddl-auto=update) ne lit ni les colonnes ni les index
+ * ni les clés étrangères d'une table partitionnée, et tenterait de les
+ * recréer à chaque démarrage.
+ */
+@Configuration
+public class PartitionedSchemaConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer partitionedTablesAreTables() {
+        return properties -> properties.put(AvailableSettings.EXTRA_PHYSICAL_TABLE_TYPES, "PARTITIONED TABLE");
+    }
+}
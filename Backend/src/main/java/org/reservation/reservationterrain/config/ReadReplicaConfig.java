@@ -0,0 +1,86 @@
+package org.reservation.reservationterrain.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Réplica en lecture, activé dès que {@code datasource.replica.url} est
+ * renseigné ; sans cette propriété, la DataSource reste celle de Spring Boot.
+ *
+ * Le primaire garde la configuration spring.datasource.* (et
+ * spring.datasource.hikari.*), le réplica a son propre pool
+ * (datasource.replica.hikari.*) et reprend l'utilisateur et le mot de passe
+ * du primaire s'ils ne sont pas précisés. Pour essayer en local sans
+ * réplication, il suffit de pointer datasource.replica.url sur une autre base
+ * PostgreSQL, ou sur la même.
+ *
+ * Les méthodes @Transactional(readOnly = true) des services lisent sur le
+ * réplica (voir ReplicaRoutingDataSource et ReplicaLagMonitor). Le routage
+ * suppose que la session rend sa connexion à la fin de chaque transaction,
+ * ce que règle ThreadingConfig.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.replica.url")
+public class ReadReplicaConfig {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("primary");
+        return pool;
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaPool(DataSourceProperties primary,
+            @Value("${datasource.replica.url}") String url,
+            @Value("${datasource.replica.username:}") String username,
+            @Value("${datasource.replica.password:}") String password) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(StringUtils.hasText(username) ? username : primary.determineUsername())
+                .password(StringUtils.hasText(password) ? password : primary.determinePassword())
+                .build();
+        pool.setPoolName("replica");
+        pool.setReadOnly(true);
+        // Réplica arrêté : on bascule vite sur le primaire, et l'application démarre quand même
+        pool.setConnectionTimeout(1000);
+        pool.setInitializationFailTimeout(-1);
+        return pool;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryPool") DataSource primaryPool,
+            @Qualifier("replicaPool") DataSource replicaPool,
+            @Value("${datasource.replica.max-lag-ms:2000}") long maxLagMillis) {
+        return new ReplicaLagMonitor(primaryPool, replicaPool, maxLagMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryPool") DataSource primaryPool,
+            @Qualifier("replicaPool") DataSource replicaPool, ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryPool, replicaPool, replicaLagMonitor));
+    }
+
+    @Bean
+    public ReplicaReadCacheMode replicaReadCacheMode(EntityManagerFactory entityManagerFactory) {
+        return new ReplicaReadCacheMode(entityManagerFactory);
+    }
+}
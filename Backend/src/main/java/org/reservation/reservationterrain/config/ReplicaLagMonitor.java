@@ -0,0 +1,84 @@
+package org.reservation.reservationterrain.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Politique de fraîcheur du réplica.
+ *
+ * Vérifie périodiquement que le réplica répond et mesure son retard : s'il a
+ * rejoué tout le WAL écrit par le primaire au moment de la mesure, le retard
+ * est nul ; sinon c'est l'âge de la dernière transaction rejouée. Au-delà de
+ * {@code datasource.replica.max-lag-ms}, ou en cas d'erreur, les lectures
+ * repartent sur le primaire jusqu'à la mesure suivante. Une instance qui
+ * n'est pas en recovery (un second serveur indépendant, ou le primaire
+ * lui-même pour un essai en local) est considérée à jour.
+ *
+ * Une lecture routée peut donc avoir jusqu'à max-lag-ms + check-interval-ms
+ * de retard.
+ */
+public class ReplicaLagMonitor {
+
+    private static final long UNKNOWN = Long.MAX_VALUE;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    private volatile long lagMillis = UNKNOWN;
+    private volatile boolean available;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public boolean isUsable() {
+        return available && lagMillis <= maxLagMillis;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.check-interval-ms:1000}")
+    public void check() {
+        boolean wasUsable = isUsable();
+        try {
+            String primaryLsn = primary.queryForObject("SELECT pg_current_wal_lsn()::text", String.class);
+            Long lag = replica.queryForObject(
+                    "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_replay_lsn() >= ?::pg_lsn THEN 0 "
+                            + "ELSE (EXTRACT(EPOCH FROM clock_timestamp() - pg_last_xact_replay_timestamp()) "
+                            + "* 1000)::bigint END",
+                    Long.class, primaryLsn);
+            lagMillis = lag == null ? UNKNOWN : Math.max(lag, 0);
+            available = true;
+        } catch (Exception e) {
+            available = false;
+            lagMillis = UNKNOWN;
+            if (wasUsable) {
+                System.err.println("Read replica unavailable, reads go to the primary: " + e.getMessage());
+            }
+            return;
+        }
+        if (wasUsable != isUsable()) {
+            System.out.println(isUsable()
+                    ? "Read replica in use (lag " + lagMillis + " ms)"
+                    : "Read replica behind by " + describeLag() + ", reads go to the primary");
+        }
+    }
+
+    void markUnavailable(Exception e) {
+        if (available) {
+            available = false;
+            System.err.println("Read replica unavailable, reads go to the primary: " + e.getMessage());
+        }
+    }
+
+    private String describeLag() {
+        return lagMillis == UNKNOWN ? "an unknown delay" : lagMillis + " ms";
+    }
+}
@@ -0,0 +1,53 @@
+package org.reservation.reservationterrain.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Une lecture servie par le réplica peut être en retard : elle lit le cache
+ * de second niveau mais ne l'alimente pas (CacheStoreMode.BYPASS), sinon une
+ * valeur périmée y resterait jusqu'à la prochaine modification de l'entité.
+ * Le mode est posé comme propriété de l'EntityManager : c'est elle que find()
+ * et les requêtes consultent.
+ */
+public class ReplicaReadCacheMode implements TransactionExecutionListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ReplicaReadCacheMode(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null) {
+            apply(transaction, CacheStoreMode.BYPASS);
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        // Avec open-in-view, la session sert encore après la transaction
+        apply(transaction, CacheStoreMode.USE);
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        apply(transaction, CacheStoreMode.USE);
+    }
+
+    private void apply(TransactionExecution transaction, CacheStoreMode mode) {
+        if (!transaction.isNewTransaction()
+                || !ReplicaRoutingDataSource.isServiceRead(transaction.getTransactionName(), transaction.isReadOnly())) {
+            return;
+        }
+        if (TransactionSynchronizationManager.getResource(entityManagerFactory) instanceof EntityManagerHolder holder) {
+            holder.getEntityManager().setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, mode);
+        }
+    }
+}
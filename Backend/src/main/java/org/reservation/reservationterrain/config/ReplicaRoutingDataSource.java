@@ -0,0 +1,79 @@
+package org.reservation.reservationterrain.config;
+
+import org.reservation.reservationterrain.service.ReservationService;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Envoie les lectures des services vers le réplica, tout le reste vers le
+ * primaire.
+ *
+ * Une connexion va au réplica seulement si la transaction en cours est
+ * readOnly et a été ouverte par une méthode d'un service : les transactions
+ * readOnly que Spring Data ouvre pour chaque appel de repository (chargement
+ * des index en mémoire, cache du catalogue, résolution des clients) restent
+ * sur le primaire, leurs résultats étant gardés bien plus longtemps que le
+ * retard toléré. Si le réplica est en retard, injoignable ou refuse la
+ * connexion, la lecture part sur le primaire.
+ *
+ * Doit être enveloppé dans un LazyConnectionDataSourceProxy : la connexion
+ * n'est choisie qu'à la première requête SQL, une fois la transaction
+ * déclarée.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final String SERVICE_PACKAGE = ReservationService.class.getPackageName() + ".";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor monitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+    }
+
+    /**
+     * Vrai pour une transaction readOnly ouverte par un service.
+     */
+    static boolean isServiceRead(String transactionName, boolean readOnly) {
+        return readOnly && transactionName != null && transactionName.startsWith(SERVICE_PACKAGE);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!routesToReplica()) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            monitor.markUnavailable(e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!routesToReplica()) {
+            return primary.getConnection(username, password);
+        }
+        try {
+            return replica.getConnection(username, password);
+        } catch (SQLException e) {
+            monitor.markUnavailable(e);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    private boolean routesToReplica() {
+        return isServiceRead(TransactionSynchronizationManager.getCurrentTransactionName(),
+                TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+                && monitor.isUsable();
+    }
+}
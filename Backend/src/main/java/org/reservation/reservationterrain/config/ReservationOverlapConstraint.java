@@ -0,0 +1,94 @@
+package org.reservation.reservationterrain.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Interdit les doubles réservations directement dans PostgreSQL.
+ *
+ * Hibernate (ddl-auto=update) ne sait pas générer ces objets, on les ajoute
+ * donc au démarrage, de façon idempotente : une colonne générée
+ * {@code creneau tsrange} construite à partir de date/heure_debut/heure_fin,
+ * et une contrainte d'exclusion GiST par terrain qui ignore les réservations
+ * ANNULEE. Une violation remonte avec le SQLState 23P01.
+ *
+ * Une fois la table partitionnée (voir ReservationPartitionService), la
+ * contrainte est posée sur chaque partition : PostgreSQL ne l'accepte pas sur
+ * la table mère, et deux créneaux qui se chevauchent ont toujours la même
+ * date, donc la même partition.
+ *
+ * Si la contrainte ne peut pas être posée (chevauchements déjà en base,
+ * extension btree_gist refusée), {@link #isEnforced()} reste faux et
+ * ReservationService vérifie les chevauchements par requête, sous le verrou
+ * (terrain, jour).
+ */
+@Component
+public class ReservationOverlapConstraint {
+
+    public static final String CONSTRAINT_NAME = "reservation_no_overlap";
+    public static final String EXCLUSION_VIOLATION = "23P01";
+
+    private static final String EXCLUSION = "EXCLUDE USING gist (terrain_id WITH =, creneau WITH &&) "
+            + "WHERE (status <> 'ANNULEE')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean enforced;
+
+    public ReservationOverlapConstraint(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void ensureConstraint() {
+        List<String> statements = List.of(
+                // Needed to mix "=" on terrain_id with "&&" on the range in one GiST index
+                "CREATE EXTENSION IF NOT EXISTS btree_gist",
+                "ALTER TABLE reservation ADD COLUMN IF NOT EXISTS creneau tsrange "
+                        + "GENERATED ALWAYS AS (tsrange(date + heure_debut, date + heure_fin, '[)')) STORED",
+                "DO $$ BEGIN "
+                        + "IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = '" + CONSTRAINT_NAME + "') "
+                        + "AND (SELECT relkind FROM pg_class WHERE oid = 'reservation'::regclass) = 'r' THEN "
+                        + "ALTER TABLE reservation ADD CONSTRAINT " + CONSTRAINT_NAME + " " + EXCLUSION + "; "
+                        + "END IF; END $$");
+
+        for (String sql : statements) {
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (Exception e) {
+                // Existing overlapping rows or missing privileges: bookings fall back to an overlap query
+                System.err.println("Could not apply reservation overlap constraint, overlaps will be checked "
+                        + "by query under the terrain/day lock: " + e.getMessage());
+                enforced = false;
+                return;
+            }
+        }
+        // Table déjà partitionnée : la contrainte est portée par les partitions
+        Integer constraints = jdbcTemplate.queryForObject("SELECT count(*) FROM pg_constraint "
+                + "WHERE contype = 'x' AND conname LIKE '" + CONSTRAINT_NAME + "%'", Integer.class);
+        enforced = constraints != null && constraints > 0;
+        if (enforced) {
+            System.out.println("Reservation overlap constraint is in place: " + CONSTRAINT_NAME);
+        } else {
+            System.err.println("Reservation overlap constraint not found, overlaps will be checked by query "
+                    + "under the terrain/day lock");
+        }
+    }
+
+    /** Vrai si PostgreSQL refuse lui-même les chevauchements. */
+    public boolean isEnforced() {
+        return enforced;
+    }
+
+    /**
+     * Pose la contrainte sur une partition de reservation ; le nom commence
+     * par {@link #CONSTRAINT_NAME} pour que les violations soient reconnues
+     * de la même façon.
+     */
+    public void addToPartition(String partition, String suffix) {
+        jdbcTemplate.execute("ALTER TABLE " + partition + " ADD CONSTRAINT "
+                + CONSTRAINT_NAME + "_" + suffix + " " + EXCLUSION);
+    }
+}
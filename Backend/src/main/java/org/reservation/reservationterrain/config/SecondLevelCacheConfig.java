@@ -0,0 +1,87 @@
+package org.reservation.reservationterrain.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.reservation.reservationterrain.model.Complexe;
+import org.reservation.reservationterrain.model.Owner;
+import org.reservation.reservationterrain.model.Terrain;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Cache de second niveau Hibernate pour les entités lues à chaque requête et
+ * modifiées quelques fois par mois ({@link Terrain}, {@link Complexe} avec sa
+ * liste de terrains, et l'{@link Owner} chargé avec chaque complexe), et cache
+ * des requêtes marquées cacheables (terrains d'un complexe, complexe d'un owner).
+ *
+ * Les régions sont créées ici, bornées en taille et avec une durée de vie
+ * (filet de sécurité pour une modification faite directement en base) ;
+ * Hibernate refuse de démarrer si une région n'est pas déclarée, pour qu'aucun
+ * cache ne grossisse sans limite. Les statistiques JCache (hits / misses)
+ * sont activées sur chaque région.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // Noms imposés par Hibernate pour le cache de requêtes
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${jpa.cache.entity-max-size:10000}") long entityMaxSize,
+            @Value("${jpa.cache.query-max-size:2000}") long queryMaxSize,
+            @Value("${jpa.cache.ttl-minutes:60}") long ttlMinutes) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        Duration ttl = Duration.ofMinutes(ttlMinutes);
+        createRegion(cacheManager, Terrain.class.getName(), entityMaxSize, ttl);
+        createRegion(cacheManager, Complexe.class.getName(), entityMaxSize, ttl);
+        createRegion(cacheManager, Complexe.class.getName() + ".terrains", entityMaxSize, ttl);
+        createRegion(cacheManager, Owner.class.getName(), entityMaxSize, ttl);
+        createRegion(cacheManager, QUERY_RESULTS_REGION, queryMaxSize, ttl);
+        // Une entrée par table : ne doit jamais expirer avant les résultats qui en dépendent
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, 1000, null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheProperties(CacheManager hibernateCacheManager,
+            @Value("${jpa.cache.enabled:true}") boolean enabled) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Complexe.terrains est le côté inverse : sans cela, ajouter un terrain ne l'invaliderait pas
+            properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, enabled);
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxSize, Duration ttl) {
+        // Le CacheManager JCache est partagé dans le classloader (redémarrage devtools)
+        if (cacheManager.getCache(name) != null) {
+            cacheManager.destroyCache(name);
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        // Hibernate met en cache un état déjà désassemblé : inutile de le recopier à chaque accès
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        configuration.setManagementEnabled(true);
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -0,0 +1,34 @@
+package org.reservation.reservationterrain.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Compte les requêtes SQL préparées par Hibernate sur le thread courant,
+ * entre {@link #begin()} et {@link #end()} (voir StatementsPerRequestFilter).
+ * Hors d'une requête HTTP (tâches planifiées, génération asynchrone), rien
+ * n'est compté. Les requêtes passées directement par JdbcTemplate ne sont pas
+ * vues non plus.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    static void begin() {
+        COUNT.set(new int[1]);
+    }
+
+    static int end() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,47 @@
+package org.reservation.reservationterrain.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Nombre de requêtes SQL Hibernate par requête HTTP
+ * ({@code hibernate.statements.per.request}), étiqueté comme
+ * http.server.requests : méthode et route (le motif du mapping, jamais l'URL
+ * réelle), UNKNOWN si aucun contrôleur n'a été trouvé.
+ */
+public class StatementsPerRequestFilter extends OncePerRequestFilter {
+
+    static final String METRIC = "hibernate.statements.per.request";
+
+    private final MeterRegistry registry;
+
+    public StatementsPerRequestFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatementCountingInspector.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = StatementCountingInspector.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(METRIC)
+                    .description("Requêtes SQL préparées par Hibernate pendant une requête HTTP")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .register(registry)
+                    .record(statements);
+        }
+    }
+}
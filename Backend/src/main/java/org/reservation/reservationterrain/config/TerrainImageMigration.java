@@ -0,0 +1,73 @@
+package org.reservation.reservationterrain.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.reservation.reservationterrain.model.Terrain;
+import org.reservation.reservationterrain.service.CatalogChangedEvent;
+import org.reservation.reservationterrain.service.ImageStore;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sort les anciennes images base64 de la table terrain.
+ *
+ * Avant le stockage sur disque, l'image était dans la colonne
+ * {@code terrain.image} (jusqu'à 10 Mo par ligne). Au démarrage, chaque
+ * image encore présente est copiée dans {@link ImageStore}, sa clé est
+ * enregistrée dans {@code image_hash} et la colonne est vidée. Une ligne à
+ * la fois, pour ne jamais charger toutes les images en mémoire.
+ */
+@Component
+public class TerrainImageMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public TerrainImageMigration(JdbcTemplate jdbcTemplate, ImageStore imageStore,
+            ApplicationEventPublisher eventPublisher, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageStore = imageStore;
+        this.eventPublisher = eventPublisher;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        Integer legacyColumn = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.columns "
+                        + "WHERE table_name = 'terrain' AND column_name = 'image'",
+                Integer.class);
+        if (legacyColumn == null || legacyColumn == 0) {
+            return;
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM terrain WHERE image IS NOT NULL AND image_hash IS NULL", Long.class);
+        int moved = 0;
+        for (Long id : ids) {
+            String image = jdbcTemplate.queryForObject("SELECT image FROM terrain WHERE id = ?", String.class, id);
+            try {
+                String key = imageStore.storeFromClient(image);
+                jdbcTemplate.update("UPDATE terrain SET image_hash = ?, image = NULL WHERE id = ?", key, id);
+                moved++;
+            } catch (RuntimeException e) {
+                // external URL or corrupt data: left in place, the terrain just shows the default picture
+                System.err.println("Terrain " + id + ": image not migrated: " + e.getMessage());
+            }
+        }
+        if (!ids.isEmpty()) {
+            System.out.println("Terrain images moved to the image store: " + moved + "/" + ids.size());
+        }
+        if (moved > 0) {
+            // UPDATE en JDBC, hors d'Hibernate : les terrains en cache de second niveau sont périmés
+            entityManagerFactory.getCache().evict(Terrain.class);
+            eventPublisher.publishEvent(new CatalogChangedEvent("terrain"));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.reservation.reservationterrain.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Exécution sur threads virtuels (Java 21) : requêtes Tomcat, réponses
+ * asynchrones (export) et tâches @Scheduled. Un appel Keycloak lent ne
+ * bloque plus qu'un thread virtuel au lieu d'épuiser le pool de Tomcat.
+ *
+ * Sans pool de threads pour la borner, la concurrence JDBC l'est par Hikari :
+ * les valeurs par défaut de threads.properties (redéfinissables dans
+ * application.properties, {@code spring.threads.virtual.enabled=false} pour
+ * revenir aux threads classiques) raccourcissent l'attente d'une connexion et
+ * limitent les exports simultanés, qui gardent chacun une connexion.
+ *
+ * Les threads virtuels épinglés à leur porteur (synchronized autour d'une
+ * entrée/sortie) sont mesurés par {@code jvm.threads.virtual.pinned} ;
+ * {@code -Djdk.tracePinnedThreads=short} donne la pile en développement.
+ */
+@Configuration
+@PropertySource("classpath:threads.properties")
+public class ThreadingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        // Par défaut la session garde sa connexion jusqu'à la fin de la requête (open-in-view) :
+        // elle resterait prise pendant les appels Keycloak qui suivent une lecture, et une
+        // écriture après une lecture routée partirait sur le réplica (ReadReplicaConfig)
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
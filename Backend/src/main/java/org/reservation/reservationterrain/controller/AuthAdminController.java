@@ -4,6 +4,7 @@ import org.reservation.reservationterrain.dto.AdminLoginDTO;
 import org.reservation.reservationterrain.dto.TokenResponse;
 import org.reservation.reservationterrain.service.AdminLoginService;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 @RestController // ✅ CRITICAL: Add this
 @RequestMapping("/admin")
@@ -16,7 +17,7 @@ public class AuthAdminController {
     }
 
     @PostMapping("/login") // ✅ This matches POST /admin/login
-    public TokenResponse login(@RequestBody AdminLoginDTO adminLoginDTO) {
+    public Mono<TokenResponse> login(@RequestBody AdminLoginDTO adminLoginDTO) {
         return adminLoginService.login(adminLoginDTO);
     }
 }
@@ -10,6 +10,7 @@ import org.reservation.reservationterrain.service.ClientSignupService;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/auth/client")
@@ -32,14 +33,14 @@ public class AuthClientController {
         return clientSignupService.signup(request);
     }
 
+    // Réponse asynchrone : aucun thread n'attend Keycloak pendant le login
     @PostMapping("/login")
-    public TokenResponse login(@RequestBody ClientLoginRequest request) {
+    public Mono<TokenResponse> login(@RequestBody ClientLoginRequest request) {
         return clientLoginService.login(request);
     }
 
     @GetMapping("/me")
     public Client getCurrentUser(@AuthenticationPrincipal Jwt jwt) {
-        String email = jwt.getClaimAsString("email");
-        return clientService.getByEmail(email);
+        return clientService.getCurrentClient(jwt);
     }
 }
@@ -1,8 +1,14 @@
 package org.reservation.reservationterrain.controller;
 
 import org.reservation.reservationterrain.dto.ComplexeResponse;
+import org.reservation.reservationterrain.service.ComplexeCatalogCache;
 import org.reservation.reservationterrain.service.ComplexeService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.reservation.reservationterrain.dto.TerrainResponseDTO;
 import org.reservation.reservationterrain.service.TerrainService;
 import java.util.List;
@@ -14,15 +20,34 @@ public class ComplexeController {
 
     private final ComplexeService complexeService;
     private final TerrainService terrainService;
+    private final ComplexeCatalogCache catalogCache;
 
-    public ComplexeController(ComplexeService complexeService, TerrainService terrainService) {
+    public ComplexeController(ComplexeService complexeService, TerrainService terrainService,
+            ComplexeCatalogCache catalogCache) {
         this.complexeService = complexeService;
         this.terrainService = terrainService;
+        this.catalogCache = catalogCache;
     }
 
     @GetMapping
-    public List<ComplexeResponse> getAllComplexes() {
-        return complexeService.getAllComplexes();
+    public ResponseEntity<byte[]> getAllComplexes(WebRequest webRequest,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ComplexeCatalogCache.Snapshot catalog = catalogCache.get();
+        if (webRequest.checkNotModified(catalog.etag())) {
+            return null;
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        // Revalidated on each visit: a 304 costs no query and no serialization
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(catalog.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(catalog.gzip());
+        }
+        return response.body(catalog.json());
     }
 
     @GetMapping("/count")
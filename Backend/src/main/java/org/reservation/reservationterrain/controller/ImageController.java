@@ -0,0 +1,99 @@
+package org.reservation.reservationterrain.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.reservation.reservationterrain.service.ImageStore;
+import org.reservation.reservationterrain.service.ImageVariants;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+@CrossOrigin
+@RestController
+@RequestMapping("/api/images")
+public class ImageController {
+
+    // Tomcat request attributes for sendfile (see Tomcat's "Advanced IO" documentation)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // The key is the SHA-256 of the content: a given URL never changes
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final ImageStore imageStore;
+    private final ImageVariants imageVariants;
+
+    public ImageController(ImageStore imageStore, ImageVariants imageVariants) {
+        this.imageStore = imageStore;
+        this.imageVariants = imageVariants;
+    }
+
+    @GetMapping("/{key}")
+    public ResponseEntity<?> getImage(@PathVariable String key,
+            @RequestParam(required = false) String size,
+            WebRequest webRequest,
+            HttpServletRequest request) throws IOException {
+        if (!imageStore.exists(key)) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<ImageVariants.Variant> variant;
+        try {
+            variant = ImageVariants.Variant.parse(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
+        Path file = imageStore.resolve(key);
+        String etag = "\"" + key + "\"";
+        CacheControl cacheControl = IMMUTABLE;
+        if (variant.isPresent()) {
+            Optional<Path> resized = imageVariants.find(key, variant.get());
+            if (resized.isPresent()) {
+                file = resized.get();
+                etag = "\"" + key + "-" + variant.get().id() + "\"";
+            } else {
+                // Not generated yet: the original for now, and the browser asks again next time
+                cacheControl = CacheControl.noCache();
+            }
+        }
+
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(imageStore.contentType(file))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // Whole file: let Tomcat copy it from the page cache to the socket (sendfile), no JVM buffer
+        if (request.getHeader(HttpHeaders.RANGE) == null
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            long length = Files.size(file);
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return response.contentLength(length).build();
+        }
+
+        // Range requests (206 / 416) are handled by Spring for Resource bodies
+        return response.body(new FileSystemResource(file));
+    }
+}
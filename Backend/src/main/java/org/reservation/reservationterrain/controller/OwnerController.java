@@ -4,12 +4,17 @@ import org.reservation.reservationterrain.model.Owner;
 import org.reservation.reservationterrain.repository.OwnerRepository;
 import org.reservation.reservationterrain.service.OwnerService;
 import org.reservation.reservationterrain.dto.*;
-import org.reservation.reservationterrain.model.Terrain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -67,9 +72,33 @@ public class OwnerController {
 
     // --- TERRAINS ---
     @PostMapping("/terrains")
-    public ResponseEntity<Terrain> addTerrain(@RequestBody TerrainDTO terrainDTO, @AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<?> addTerrain(@RequestBody TerrainDTO terrainDTO, @AuthenticationPrincipal Jwt jwt) {
         String email = jwt.getClaimAsString("email");
-        return ResponseEntity.ok(ownerService.addTerrain(email, terrainDTO));
+        try {
+            return ResponseEntity.ok(ownerService.addTerrain(email, terrainDTO));
+        } catch (IllegalArgumentException e) {
+            // image refusée (format, taille)
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Photo en flux : multipart (champ "file") ou corps binaire image/*
+    @PostMapping(value = "/terrains/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadTerrainImage(@RequestPart("file") MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(ownerService.uploadTerrainImage(in, file.getContentType()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/terrains/images", consumes = "image/*")
+    public ResponseEntity<?> uploadTerrainImage(HttpServletRequest request) throws IOException {
+        try (InputStream in = request.getInputStream()) {
+            return ResponseEntity.ok(ownerService.uploadTerrainImage(in, request.getContentType()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/terrains")
@@ -79,10 +108,14 @@ public class OwnerController {
     }
 
     @PutMapping("/terrains/{id}")
-    public ResponseEntity<Terrain> updateTerrain(@AuthenticationPrincipal Jwt jwt, @PathVariable Long id,
+    public ResponseEntity<?> updateTerrain(@AuthenticationPrincipal Jwt jwt, @PathVariable Long id,
             @RequestBody TerrainDTO terrainDTO) {
         String email = jwt.getClaimAsString("email");
-        return ResponseEntity.ok(ownerService.updateTerrain(email, id, terrainDTO));
+        try {
+            return ResponseEntity.ok(ownerService.updateTerrain(email, id, terrainDTO));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // --- RÉSERVATIONS (Nouveau) ---
@@ -98,7 +131,12 @@ public class OwnerController {
     @PutMapping("/reservations/{id}/validate")
     public ResponseEntity<String> validate(@AuthenticationPrincipal Jwt jwt, @PathVariable Long id) {
         String email = jwt.getClaimAsString("email");
-        ownerService.validateReservation(email, id);
+        try {
+            ownerService.validateReservation(email, id);
+        } catch (IllegalStateException e) {
+            // créneau repris entre-temps par une autre réservation
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
         return ResponseEntity.ok("Réservation validée");
     }
 
@@ -1,17 +1,27 @@
 package org.reservation.reservationterrain.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reservation.reservationterrain.dto.ReservationPage;
 import org.reservation.reservationterrain.dto.ReservationRequest;
 import org.reservation.reservationterrain.dto.ReservationResponse;
+import org.reservation.reservationterrain.service.KeycloakUnavailableException;
+import org.reservation.reservationterrain.service.ReservationExportService;
 import org.reservation.reservationterrain.service.ReservationService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @CrossOrigin
 @RestController
@@ -19,20 +29,26 @@ import java.util.List;
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final ReservationExportService exportService;
+    private final MeterRegistry meterRegistry;
 
-    public ReservationController(ReservationService reservationService) {
+    public ReservationController(ReservationService reservationService, ReservationExportService exportService,
+            MeterRegistry meterRegistry) {
         this.reservationService = reservationService;
+        this.exportService = exportService;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostMapping("/reservations")
     public ResponseEntity<?> createReservation(
             @RequestBody ReservationRequest request,
             @AuthenticationPrincipal Jwt jwt) {
+        // Durée totale, commit compris, par issue : created, invalid (400), unauthenticated (401),
+        // conflict (409), unavailable (503, Keycloak) ou error
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             // Extract Keycloak ID from JWT token
-            System.out.println("DEBUG JWT Claims: " + jwt.getClaims());
-            System.out.println("DEBUG JWT Subject: " + jwt.getSubject());
-
             String keycloakId = jwt.getSubject();
             String email = jwt.getClaimAsString("email");
             String nom = jwt.getClaimAsString("family_name");
@@ -40,31 +56,49 @@ public class ReservationController {
 
             if (keycloakId == null && email == null) {
                 System.err.println("CRITICAL: Both Keycloak ID and Email are NULL!");
+                outcome = "unauthenticated";
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(new ErrorResponse("Authentication Token missing identity claims"));
             }
 
             ReservationResponse response = reservationService.createReservation(request, keycloakId, email, nom,
                     prenom);
+            outcome = "created";
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (IllegalArgumentException e) {
             // Validation errors (terrain not found, invalid time range, etc.)
+            outcome = "invalid";
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         } catch (IllegalStateException e) {
             // Business logic errors (overlapping reservation)
+            outcome = "conflict";
             return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (KeycloakUnavailableException e) {
+            // Identity lookup refused (circuit open or too many calls): retry later
+            outcome = "unavailable";
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ErrorResponse(e.getMessage()));
         } catch (Exception e) {
             // Unexpected errors
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Une erreur inattendue s'est produite"));
+        } finally {
+            sample.stop(meterRegistry.timer("reservation.booking", "outcome", outcome));
         }
     }
 
     @GetMapping("/my-reservations")
-    public ResponseEntity<List<ReservationResponse>> getMyReservations(@AuthenticationPrincipal Jwt jwt) {
-        String keycloakId = jwt.getSubject();
-        List<ReservationResponse> reservations = reservationService.getReservationsByKeycloakId(keycloakId);
-        return ResponseEntity.ok(reservations);
+    public ResponseEntity<?> getMyReservations(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            String keycloakId = jwt.getSubject();
+            ReservationPage page = reservationService.getReservationsByKeycloakId(keycloakId, cursor, size, withTotal);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
 
     @PostMapping("/reservations/{id}/cancel")
@@ -119,18 +153,70 @@ public class ReservationController {
     }
 
     @GetMapping("/reservations/filter")
-    public ResponseEntity<List<ReservationResponse>> getReservationsWithFilters(
+    public ResponseEntity<?> getReservationsWithFilters(
             @RequestParam(required = false) Long complexId,
             @RequestParam(required = false) Long clientId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) Integer minDuration,
-            @RequestParam(required = false) Integer maxDuration) {
-        return ResponseEntity.ok(reservationService.getReservationsWithFilters(
-                complexId, clientId, dateFrom, dateTo,
-                status,
-                minDuration, maxDuration));
+            @RequestParam(required = false) Integer maxDuration,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(reservationService.getReservationsWithFilters(
+                    complexId, clientId, dateFrom, dateTo,
+                    status,
+                    minDuration, maxDuration,
+                    cursor, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/reservations/export")
+    public ResponseEntity<?> exportReservations(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long complexId,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer minDuration,
+            @RequestParam(required = false) Integer maxDuration,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ReservationExportService.Format exportFormat;
+        try {
+            exportFormat = ReservationExportService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        // Written on an MVC async thread once the headers are sent; nothing is buffered here
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream zipped = new GZIPOutputStream(out, 8192);
+                exportService.export(zipped, exportFormat, complexId, clientId, dateFrom, dateTo,
+                        status, minDuration, maxDuration);
+                zipped.finish();
+            } else {
+                exportService.export(out, exportFormat, complexId, clientId, dateFrom, dateTo,
+                        status, minDuration, maxDuration);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("reservations-" + LocalDate.now() + "." + exportFormat.getExtension())
+                        .build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     @PutMapping("/reservations/{id}")
@@ -1,10 +1,25 @@
 package org.reservation.reservationterrain.controller;
 
+import org.reservation.reservationterrain.dto.AvailabilityResponse;
+import org.reservation.reservationterrain.dto.TerrainSearchResult;
 import org.reservation.reservationterrain.service.TerrainService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
 
 @CrossOrigin
 @RestController
@@ -26,4 +41,48 @@ public class TerrainController {
     public long countTotalActiveTerrains() {
         return terrainService.countActiveTerrains();
     }
+
+    // Recherche multi-complexes : terrains OUVERT libres dans une ville, triés par heure puis prix
+    @GetMapping("/search")
+    public ResponseEntity<?> searchFreeTerrains(
+            @RequestParam String ville,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime to,
+            @RequestParam(defaultValue = "60") int duree,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            LocalTime windowEnd = to != null ? to : from.plusMinutes(duree);
+            List<TerrainSearchResult> results = terrainService.searchFreeTerrains(ville, date, from, windowEnd, duree,
+                    limit);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Créneaux libres sur une période, calculés côté serveur (remplace un appel par jour)
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<?> getAvailability(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest webRequest) {
+        try {
+            AvailabilityResponse response = terrainService.getAvailability(id, from, to != null ? to : from);
+
+            // ETag dérivé du contenu : un client déjà à jour reçoit un 304 sans corps
+            String etag = "\"" + DigestUtils.md5DigestAsHex(response.toString().getBytes(StandardCharsets.UTF_8))
+                    + "\"";
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
 }
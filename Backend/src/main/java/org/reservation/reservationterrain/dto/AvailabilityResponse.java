@@ -0,0 +1,21 @@
+package org.reservation.reservationterrain.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+public class AvailabilityResponse {
+    private Long terrainId;
+    private LocalDate from;
+    private LocalDate to;
+
+    // Grille du terrain
+    private int heureOuverture;
+    private int heureFermeture;
+    private int dureeCreneau;
+
+    // Une chaîne par jour, un caractère par créneau depuis l'ouverture : '1' libre, '0' pris
+    private Map<LocalDate, String> days;
+}
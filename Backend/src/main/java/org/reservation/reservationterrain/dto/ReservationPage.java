@@ -0,0 +1,18 @@
+package org.reservation.reservationterrain.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ReservationPage {
+    private List<ReservationResponse> items;
+
+    // null quand il n'y a plus de page suivante
+    private String nextCursor;
+
+    // Only filled when the caller asks for it (withTotal=true)
+    private Long estimatedTotal;
+    // true when estimatedTotal is a lower bound (count stopped at the cap)
+    private boolean totalCapped;
+}
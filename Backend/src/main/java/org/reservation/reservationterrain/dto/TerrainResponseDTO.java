@@ -14,6 +14,7 @@ public class TerrainResponseDTO {
     private int heureOuverture;
     private int heureFermeture;
     private int dureeCreneau;
+    private String photo;
 
     public TerrainResponseDTO() {
     }
@@ -0,0 +1,24 @@
+package org.reservation.reservationterrain.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+public class TerrainSearchResult {
+    private Long terrainId;
+    private String terrainNom;
+    private String prixTerrain;
+
+    // Complexe info
+    private Long complexeId;
+    private String complexeNom;
+    private String ville;
+    private String adress;
+
+    // Créneau libre proposé
+    private LocalDate date;
+    private LocalTime heureDebut;
+    private LocalTime heureFin;
+}
@@ -2,6 +2,7 @@ package org.reservation.reservationterrain.model;
 
 import jakarta.persistence.*; // IMPORTANT
 import lombok.Getter;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Setter;
 
 import java.util.ArrayList; // IMPORTANT
@@ -10,6 +11,8 @@ import java.util.List; // IMPORTANT
 @Getter
 @Setter
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "complexe")
 public class Complexe {
     @Id
@@ -29,5 +32,6 @@ public class Complexe {
     private Owner owner;
 
     @OneToMany(mappedBy = "complexe")
+    @org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Terrain> terrains = new ArrayList<>();
 }
@@ -0,0 +1,58 @@
+package org.reservation.reservationterrain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compteurs du tableau de bord owner, un par complexe.
+ *
+ * Les réservations n'écrivent pas cette ligne : leurs incréments vont dans
+ * complexe_stats_delta, ajoutés à la lecture et repliés ici au recalcul
+ * périodique (voir ComplexeStatsService).
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "complexe_stats")
+public class ComplexeStats {
+
+    // même id que le complexe
+    @Id
+    private Long complexeId;
+
+    // toutes les réservations, y compris annulées
+    @Column(nullable = false)
+    private long totalReservations;
+
+    // réservations CONFIRMEE, pas encore validées par l'owner
+    @Column(nullable = false)
+    private long pendingReservations;
+
+    // somme des prix des réservations VALIDEE et CONFIRMEE
+    @Column(nullable = false)
+    private double revenue;
+
+    // terrains OUVERT
+    @Column(nullable = false)
+    private long activeTerrains;
+
+    // part des compteurs venant des mois archivés (reservation_archive), ajoutée au recalcul
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long archivedReservations;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long archivedPendingReservations;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private double archivedRevenue;
+
+    // dernier recalcul complet
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,39 @@
+package org.reservation.reservationterrain.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Incrément des compteurs d'un complexe, écrit par la transaction d'une
+ * réservation.
+ *
+ * Table en ajout seul : chaque transaction insère sa propre ligne et ne
+ * touche pas à complexe_stats, deux réservations du même complexe ne
+ * s'attendent donc pas. Les lignes sont ajoutées aux compteurs à la lecture
+ * et supprimées au recalcul (voir ComplexeStatsService).
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "complexe_stats_delta", indexes = {
+        @Index(name = "idx_complexe_stats_delta_complexe", columnList = "complexe_id")
+})
+public class ComplexeStatsDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long complexeId;
+
+    @Column(nullable = false)
+    private long totalReservations;
+
+    @Column(nullable = false)
+    private long pendingReservations;
+
+    @Column(nullable = false)
+    private double revenue;
+}
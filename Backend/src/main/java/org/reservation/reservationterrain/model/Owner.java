@@ -2,11 +2,14 @@ package org.reservation.reservationterrain.model;
 import jakarta.persistence.*;
 
 import lombok.Getter;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Setter;
 @Setter
 @Getter
 
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "owner")
 public class Owner extends User {
     @Column(nullable= true,unique=true)
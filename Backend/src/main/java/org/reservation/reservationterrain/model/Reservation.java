@@ -10,7 +10,14 @@ import java.time.LocalTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "reservation")
+// index des listes paginées (tri date, heure_debut, id) et des filtres (ReservationSpecifications) ;
+// celui du client sert aussi pour (client_id, date)
+@Table(name = "reservation", indexes = {
+        @Index(name = "idx_reservation_date_debut_id", columnList = "date, heure_debut, id"),
+        @Index(name = "idx_reservation_client_date_debut_id", columnList = "client_id, date, heure_debut, id"),
+        @Index(name = "idx_reservation_terrain_date", columnList = "terrain_id, date"),
+        @Index(name = "idx_reservation_status_date", columnList = "status, date")
+})
 public class Reservation {
 
     @Id
@@ -2,11 +2,14 @@ package org.reservation.reservationterrain.model;
 
 import jakarta.persistence.*;
 import lombok.Getter;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Setter;
 
 @Setter
 @Getter
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "terrain")
 public class Terrain {
     @Id
@@ -21,8 +24,9 @@ public class Terrain {
     private int heureOuverture;
     private int heureFermeture;
     private int dureeCreneau;
-    @Column(length = 10000000)
-    private String image; // Base64 encoded image or URL
+    // SHA-256 of the image in ImageStore, served by /api/images/{hash}
+    @Column(length = 64)
+    private String imageHash;
 
     public Terrain() {
     }
@@ -1,7 +1,13 @@
 package org.reservation.reservationterrain.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.reservation.reservationterrain.model.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +16,21 @@ import java.util.Optional;
 public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findByEmail(String email);
     Optional<Client> findByKeycloakId(String keycloakId);
+
+    @Query("SELECT c.id FROM Client c WHERE c.keycloakId = :keycloakId")
+    Optional<Long> findIdByKeycloakId(@Param("keycloakId") String keycloakId);
+
+    // Migration case: client known by email, linked to its Keycloak account
+    @Modifying
+    @Query("UPDATE Client c SET c.keycloakId = :keycloakId WHERE c.email = :email")
+    int attachKeycloakId(@Param("keycloakId") String keycloakId, @Param("email") String email);
+
+    // Race-safe lazy creation: a concurrent insert of the same client is silently ignored.
+    // The table is declared so Hibernate does not evict every second-level cache region.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "client"))
+    @Query(value = "INSERT INTO client (keycloak_id, email, nom, prenom, role) " +
+            "VALUES (:keycloakId, :email, :nom, :prenom, 'CLIENT') ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("keycloakId") String keycloakId, @Param("email") String email,
+            @Param("nom") String nom, @Param("prenom") String prenom);
 }
@@ -2,11 +2,21 @@ package org.reservation.reservationterrain.repository;
 
 import java.util.List;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.reservation.reservationterrain.model.Complexe;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface ComplexeRepository extends JpaRepository<Complexe, Long> {
     List<Complexe> findAll();
 
+    // Catalogue public en une requête : owner et terrains chargés avec le complexe (pas de N+1)
+    @Query("SELECT DISTINCT c FROM Complexe c JOIN FETCH c.owner LEFT JOIN FETCH c.terrains ORDER BY c.id")
+    List<Complexe> findAllForCatalog();
+
+    // Cache de requêtes : invalidé par Hibernate à chaque écriture sur la table complexe
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     java.util.Optional<Complexe> findFirstByOwner(org.reservation.reservationterrain.model.Owner owner);
 }
@@ -0,0 +1,158 @@
+package org.reservation.reservationterrain.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.reservation.reservationterrain.model.ComplexeStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ComplexeStatsRepository extends JpaRepository<ComplexeStats, Long> {
+
+        // Native updates declare their table: otherwise Hibernate evicts every second-level cache region
+        String TABLE = "complexe_stats";
+        String DELTA_TABLE = "complexe_stats_delta";
+
+        // prix_terrain is free text: same rule as Double.parseDouble with 0 on failure
+        String PRIX = "CASE WHEN t.prix_terrain ~ '^\\s*[-+]?([0-9]+\\.?[0-9]*|\\.[0-9]+)([eE][-+]?[0-9]+)?\\s*$' "
+                        + "THEN CAST(t.prix_terrain AS double precision) ELSE 0 END";
+
+        /**
+         * Appends the deltas as a new row: never touches the complexe_stats row, so concurrent
+         * bookings of the same complexe do not wait on each other.
+         */
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = DELTA_TABLE))
+        @Query(value = "INSERT INTO complexe_stats_delta " +
+                        "(complexe_id, total_reservations, pending_reservations, revenue) " +
+                        "VALUES (:complexeId, :total, :pending, :revenue)", nativeQuery = true)
+        void addDeltas(
+                        @Param("complexeId") Long complexeId,
+                        @Param("total") long total,
+                        @Param("pending") long pending,
+                        @Param("revenue") double revenue);
+
+        /**
+         * Stored counters plus the deltas not folded yet, in one statement (one snapshot).
+         * Empty until the complexe has been reconciled once.
+         */
+        @Query(value = "SELECT s.total_reservations + COALESCE(d.total, 0) AS totalReservations, " +
+                        "s.pending_reservations + COALESCE(d.pending, 0) AS pendingReservations, " +
+                        "s.revenue + COALESCE(d.revenue, 0) AS revenue, " +
+                        "s.active_terrains AS activeTerrains " +
+                        "FROM complexe_stats s LEFT JOIN LATERAL (" +
+                        "SELECT sum(total_reservations) AS total, sum(pending_reservations) AS pending, " +
+                        "sum(revenue) AS revenue FROM complexe_stats_delta WHERE complexe_id = s.complexe_id) d ON true " +
+                        "WHERE s.complexe_id = :complexeId AND s.reconciled_at IS NOT NULL", nativeQuery = true)
+        Optional<Totals> findCurrentTotals(@Param("complexeId") Long complexeId);
+
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = TABLE))
+        @Query(value = "UPDATE complexe_stats SET active_terrains = " +
+                        "(SELECT count(*) FROM terrain WHERE complexe_id = :complexeId AND status = 'OUVERT') " +
+                        "WHERE complexe_id = :complexeId", nativeQuery = true)
+        void refreshActiveTerrains(@Param("complexeId") Long complexeId);
+
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = TABLE))
+        @Query(value = "INSERT INTO complexe_stats " +
+                        "(complexe_id, total_reservations, pending_reservations, revenue, active_terrains) " +
+                        "VALUES (:complexeId, 0, 0, 0, 0) ON CONFLICT (complexe_id) DO NOTHING", nativeQuery = true)
+        void createIfAbsent(@Param("complexeId") Long complexeId);
+
+        /**
+         * Remembers the counters of reservations moved to reservation_archive, so that
+         * reconciliation keeps counting them.
+         */
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = TABLE))
+        @Query(value = "INSERT INTO complexe_stats " +
+                        "(complexe_id, total_reservations, pending_reservations, revenue, active_terrains, " +
+                        "archived_reservations, archived_pending_reservations, archived_revenue) " +
+                        "VALUES (:complexeId, 0, 0, 0, 0, :total, :pending, :revenue) " +
+                        "ON CONFLICT (complexe_id) DO UPDATE SET " +
+                        "archived_reservations = complexe_stats.archived_reservations + EXCLUDED.archived_reservations, " +
+                        "archived_pending_reservations = complexe_stats.archived_pending_reservations " +
+                        "+ EXCLUDED.archived_pending_reservations, " +
+                        "archived_revenue = complexe_stats.archived_revenue + EXCLUDED.archived_revenue", nativeQuery = true)
+        void addArchived(
+                        @Param("complexeId") Long complexeId,
+                        @Param("total") long total,
+                        @Param("pending") long pending,
+                        @Param("revenue") double revenue);
+
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT s FROM ComplexeStats s WHERE s.complexeId = :complexeId")
+        Optional<ComplexeStats> findForUpdate(@Param("complexeId") Long complexeId);
+
+        // Counters of a set of reservations r joined to their terrain t
+        String COUNTS = "count(r.id) AS totalReservations, " +
+                        "count(r.id) FILTER (WHERE r.status = 'CONFIRMEE') AS pendingReservations, " +
+                        "COALESCE(sum(" + PRIX + ") FILTER (WHERE r.status IN ('VALIDEE', 'CONFIRMEE')), 0) AS revenue";
+
+        // Recomputed from scratch, for reconciliation only: live reservations plus archived months
+        String TOTALS = "SELECT live.totalReservations + COALESCE(s.archived_reservations, 0) AS totalReservations, " +
+                        "live.pendingReservations + COALESCE(s.archived_pending_reservations, 0) AS pendingReservations, " +
+                        "live.revenue + COALESCE(s.archived_revenue, 0) AS revenue, " +
+                        "live.activeTerrains AS activeTerrains " +
+                        "FROM (SELECT " + COUNTS + ", " +
+                        "(SELECT count(*) FROM terrain WHERE complexe_id = :complexeId AND status = 'OUVERT') AS activeTerrains " +
+                        "FROM reservation r JOIN terrain t ON t.id = r.terrain_id " +
+                        "WHERE t.complexe_id = :complexeId) live " +
+                        "LEFT JOIN complexe_stats s ON s.complexe_id = :complexeId";
+
+        /**
+         * Recounts the complexe and deletes its pending deltas in one statement: both see the same
+         * snapshot, so the deltas removed are exactly those of the reservations in the count.
+         * Run as a query (not @Modifying): the statement returns the recount.
+         */
+        @Query(value = "WITH folded AS (DELETE FROM complexe_stats_delta WHERE complexe_id = :complexeId " +
+                        "RETURNING total_reservations, pending_reservations, revenue), " +
+                        "actual AS (" + TOTALS + ") " +
+                        "SELECT actual.*, " +
+                        "(SELECT COALESCE(sum(total_reservations), 0) FROM folded) AS foldedTotalReservations, " +
+                        "(SELECT COALESCE(sum(pending_reservations), 0) FROM folded) AS foldedPendingReservations, " +
+                        "(SELECT COALESCE(sum(revenue), 0) FROM folded) AS foldedRevenue " +
+                        "FROM actual", nativeQuery = true)
+        Recount recountAndFoldDeltas(@Param("complexeId") Long complexeId);
+
+        @Query(value = "SELECT id FROM complexe ORDER BY id", nativeQuery = true)
+        List<Long> findAllComplexeIds();
+
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = TABLE))
+        @Query(value = "DELETE FROM complexe_stats WHERE complexe_id NOT IN (SELECT id FROM complexe)", nativeQuery = true)
+        int deleteOrphans();
+
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = DELTA_TABLE))
+        @Query(value = "DELETE FROM complexe_stats_delta WHERE complexe_id NOT IN (SELECT id FROM complexe)", nativeQuery = true)
+        int deleteOrphanDeltas();
+
+        interface Totals {
+                long getTotalReservations();
+
+                long getPendingReservations();
+
+                double getRevenue();
+
+                long getActiveTerrains();
+        }
+
+        interface Recount extends Totals {
+                long getFoldedTotalReservations();
+
+                long getFoldedPendingReservations();
+
+                double getFoldedRevenue();
+        }
+}
@@ -0,0 +1,27 @@
+package org.reservation.reservationterrain.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Critères optionnels des listes de réservations (admin, vue du jour owner,
+ * export). Un champ null ne filtre pas : il n'apparaît pas dans la requête.
+ */
+public record ReservationFilter(
+        Long complexId,
+        Long terrainId,
+        Long clientId,
+        LocalDate dateFrom,
+        LocalDate dateTo,
+        String status,
+        Integer minDuration,
+        Integer maxDuration) {
+
+    public static ReservationFilter forClient(Long clientId) {
+        return new ReservationFilter(null, null, clientId, null, null, null, null, null);
+    }
+
+    public boolean isEmpty() {
+        return complexId == null && terrainId == null && clientId == null && dateFrom == null
+                && dateTo == null && status == null && minDuration == null && maxDuration == null;
+    }
+}
@@ -0,0 +1,31 @@
+package org.reservation.reservationterrain.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Listes de réservations filtrées, requêtes construites à la demande
+ * (voir {@link ReservationSpecifications}). Fragment de {@link ReservationRepository}.
+ */
+public interface ReservationFilterQueries {
+
+    List<ReservationRepository.ListView> findViews(ReservationFilter filter);
+
+    /**
+     * Page triée par (date, heureDebut, id). Sans position ({@code afterId} null) : première page.
+     */
+    List<ReservationRepository.ListView> findViewPage(ReservationFilter filter,
+            LocalDate afterDate, LocalTime afterHeure, Long afterId, int limit);
+
+    /**
+     * Export : curseur côté serveur, à consommer dans une transaction et à fermer.
+     */
+    Stream<ReservationRepository.ListView> streamViews(ReservationFilter filter);
+
+    /**
+     * Nombre exact de lignes, sans jamais en parcourir plus de {@code cap}.
+     */
+    long countUpTo(ReservationFilter filter, long cap);
+}
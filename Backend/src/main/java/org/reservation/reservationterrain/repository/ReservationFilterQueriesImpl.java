@@ -0,0 +1,120 @@
+package org.reservation.reservationterrain.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaDerivedRoot;
+import org.hibernate.query.criteria.JpaRoot;
+import org.hibernate.query.criteria.JpaSubQuery;
+import org.reservation.reservationterrain.model.Client;
+import org.reservation.reservationterrain.model.Complexe;
+import org.reservation.reservationterrain.model.Reservation;
+import org.reservation.reservationterrain.model.Terrain;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class ReservationFilterQueriesImpl implements ReservationFilterQueries {
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ReservationRepository.ListView> findViews(ReservationFilter filter) {
+        return listQuery(ReservationSpecifications.matching(filter)).getResultList().stream()
+                .map(this::toView)
+                .toList();
+    }
+
+    @Override
+    public List<ReservationRepository.ListView> findViewPage(ReservationFilter filter,
+            LocalDate afterDate, LocalTime afterHeure, Long afterId, int limit) {
+        Specification<Reservation> spec = ReservationSpecifications.matching(filter);
+        if (afterId != null) {
+            spec = spec.and(ReservationSpecifications.after(afterDate, afterHeure, afterId));
+        }
+        return listQuery(spec).setMaxResults(limit).getResultList().stream()
+                .map(this::toView)
+                .toList();
+    }
+
+    @Override
+    public Stream<ReservationRepository.ListView> streamViews(ReservationFilter filter) {
+        return listQuery(ReservationSpecifications.matching(filter))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .getResultStream()
+                .map(this::toView);
+    }
+
+    @Override
+    public long countUpTo(ReservationFilter filter, long cap) {
+        // SELECT count(*) FROM (SELECT r.id FROM reservation r WHERE ... LIMIT :cap)
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        JpaCriteriaQuery<Long> query = cb.createQuery(Long.class);
+        JpaSubQuery<Tuple> capped = query.subquery(Tuple.class);
+        JpaRoot<Reservation> r = capped.from(Reservation.class);
+        capped.multiselect(r.get("id").alias("id"));
+        capped.where(ReservationSpecifications.matching(filter).toPredicate(r, query, cb));
+        capped.fetch(cap);
+        JpaDerivedRoot<Tuple> rows = query.from(capped);
+        query.select(cb.count(rows.get("id")));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Mêmes colonnes que ReservationRepository.LIST_SELECT, triées par (date, heureDebut, id)
+    private TypedQuery<Tuple> listQuery(Specification<Reservation> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Reservation> r = query.from(Reservation.class);
+        Join<Reservation, Terrain> t = r.join("terrain");
+        Join<Terrain, Complexe> c = t.join("complexe");
+        Join<Reservation, Client> cl = r.join("client");
+        query.multiselect(
+                r.get("id").alias("id"),
+                r.get("status").alias("status"),
+                r.get("date").alias("date"),
+                r.get("heureDebut").alias("heureDebut"),
+                r.get("heureFin").alias("heureFin"),
+                r.get("duree").alias("duree"),
+                t.get("id").alias("terrainId"),
+                t.get("nom").alias("terrainNom"),
+                t.get("prixTerrain").alias("prixTerrain"),
+                c.get("nom").alias("complexNom"),
+                cl.get("id").alias("clientId"),
+                cl.get("nom").alias("clientNom"),
+                cl.get("prenom").alias("clientPrenom"),
+                cl.get("email").alias("clientEmail"),
+                cl.get("numTele").alias("clientNumTele"));
+        query.where(spec.toPredicate(r, query, cb));
+        query.orderBy(cb.asc(r.get("date")), cb.asc(r.get("heureDebut")), cb.asc(r.get("id")));
+        return entityManager.createQuery(query);
+    }
+
+    private ReservationRepository.ListView toView(Tuple tuple) {
+        Map<String, Object> values = new HashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            values.put(element.getAlias(), tuple.get(element));
+        }
+        return projectionFactory.createProjection(ReservationRepository.ListView.class, values);
+    }
+}
@@ -1,6 +1,7 @@
 package org.reservation.reservationterrain.repository;
 
 import org.reservation.reservationterrain.model.Reservation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,10 +9,11 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, ReservationFilterQueries {
 
         // Find all reservations for a specific terrain on a specific date
         List<Reservation> findByTerrainIdAndDate(Long terrainId, LocalDate date);
@@ -48,25 +50,6 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
 
         long countByDateBetween(LocalDate startDate, LocalDate endDate);
 
-        @Query("SELECT r FROM Reservation r WHERE " +
-                        "(:complexId IS NULL OR r.terrain.complexe.id = :complexId) AND " +
-                        "(:terrainId IS NULL OR r.terrain.id = :terrainId) AND " +
-                        "(:clientId IS NULL OR r.client.id = :clientId) AND " +
-                        "(:dateFrom IS NULL OR r.date >= :dateFrom) AND " +
-                        "(:dateTo IS NULL OR r.date <= :dateTo) AND " +
-                        "(:status IS NULL OR r.status = :status) AND " +
-                        "(:minDuration IS NULL OR r.duree >= :minDuration) AND " +
-                        "(:maxDuration IS NULL OR r.duree <= :maxDuration)")
-        List<Reservation> findReservationsByFilters(
-                        @Param("complexId") Long complexId,
-                        @Param("terrainId") Long terrainId,
-                        @Param("clientId") Long clientId,
-                        @Param("dateFrom") LocalDate dateFrom,
-                        @Param("dateTo") LocalDate dateTo,
-                        @Param("status") String status,
-                        @Param("minDuration") Integer minDuration,
-                        @Param("maxDuration") Integer maxDuration);
-
         long countByTerrain_Complexe_Id(Long complexId);
 
         long countByTerrain_Complexe_IdAndStatus(Long complexId, String status);
@@ -75,4 +58,158 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
 
         // Find top 3 recent reservations for complex
         List<Reservation> findTop3ByTerrain_Complexe_IdOrderByDateDescHeureDebutDesc(Long complexId);
+
+        // Lightweight rows used to (re)build the in-memory availability index
+        @Query("SELECT r.id AS id, r.terrain.id AS terrainId, r.date AS date, " +
+                        "r.heureDebut AS heureDebut, r.heureFin AS heureFin, r.status AS status " +
+                        "FROM Reservation r WHERE r.terrain.id = :terrainId " +
+                        "AND r.date = :date " +
+                        "AND r.status != 'ANNULEE'")
+        List<SlotView> findActiveSlots(
+                        @Param("terrainId") Long terrainId,
+                        @Param("date") LocalDate date);
+
+        @Query("SELECT r.id AS id, r.terrain.id AS terrainId, r.date AS date, " +
+                        "r.heureDebut AS heureDebut, r.heureFin AS heureFin, r.status AS status " +
+                        "FROM Reservation r WHERE r.date BETWEEN :dateFrom AND :dateTo " +
+                        "AND r.status != 'ANNULEE'")
+        List<SlotView> findActiveSlotsBetween(
+                        @Param("dateFrom") LocalDate dateFrom,
+                        @Param("dateTo") LocalDate dateTo);
+
+        @Query("SELECT r.id AS id, r.terrain.id AS terrainId, r.date AS date, " +
+                        "r.heureDebut AS heureDebut, r.heureFin AS heureFin, r.status AS status " +
+                        "FROM Reservation r WHERE r.terrain.id = :terrainId " +
+                        "AND r.date BETWEEN :dateFrom AND :dateTo " +
+                        "AND r.status != 'ANNULEE'")
+        List<SlotView> findActiveSlotsForTerrainBetween(
+                        @Param("terrainId") Long terrainId,
+                        @Param("dateFrom") LocalDate dateFrom,
+                        @Param("dateTo") LocalDate dateTo);
+
+        @Query("SELECT r.id AS id, r.terrain.id AS terrainId, r.date AS date, " +
+                        "r.heureDebut AS heureDebut, r.heureFin AS heureFin, r.status AS status " +
+                        "FROM Reservation r WHERE r.terrain.id IN :terrainIds " +
+                        "AND r.date = :date " +
+                        "AND r.status != 'ANNULEE'")
+        List<SlotView> findActiveSlotsForTerrainsOn(
+                        @Param("terrainIds") Collection<Long> terrainIds,
+                        @Param("date") LocalDate date);
+
+        // ==========================================
+        // DASHBOARD COUNTERS (see ComplexeStatsService)
+        // ==========================================
+
+        @Query("SELECT t.complexe.id AS complexeId, r.status AS status, t.prixTerrain AS prixTerrain " +
+                        "FROM Reservation r JOIN r.terrain t WHERE r.id IN :ids")
+        List<StatsView> findStatsViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+        long countByTerrain_IdAndStatusIn(Long terrainId, Collection<String> statuses);
+
+        interface StatsView {
+                Long getComplexeId();
+
+                String getStatus();
+
+                String getPrixTerrain();
+        }
+
+        // ==========================================
+        // LISTINGS: one statement, only the columns the DTOs need (no entity graph, no terrain image)
+        // ==========================================
+
+        String LIST_SELECT = "SELECT r.id AS id, r.status AS status, r.date AS date, " +
+                        "r.heureDebut AS heureDebut, r.heureFin AS heureFin, r.duree AS duree, " +
+                        "t.id AS terrainId, t.nom AS terrainNom, t.prixTerrain AS prixTerrain, " +
+                        "c.nom AS complexNom, " +
+                        "cl.id AS clientId, cl.nom AS clientNom, cl.prenom AS clientPrenom, " +
+                        "cl.email AS clientEmail, cl.numTele AS clientNumTele " +
+                        "FROM Reservation r JOIN r.terrain t JOIN t.complexe c JOIN r.client cl ";
+
+        @Query(LIST_SELECT + "WHERE r.date BETWEEN :startDate AND :endDate")
+        List<ListView> findViewsByDateBetween(
+                        @Param("startDate") LocalDate startDate,
+                        @Param("endDate") LocalDate endDate);
+
+        // Filtered lists (admin, owner day view, export): see ReservationFilterQueries
+
+        // ==========================================
+        // KEYSET PAGES, ordered by (date, heureDebut, id)
+        // The cursor is the last row of the previous page; the limit is page size + 1
+        // so the service can tell whether another page follows.
+        // ==========================================
+
+        String BEFORE_CURSOR = "AND r.date <= :beforeDate AND (r.date < :beforeDate OR r.heureDebut < :beforeHeure " +
+                        "OR (r.heureDebut = :beforeHeure AND r.id < :beforeId)) ";
+
+        // Client history: newest first
+        @Query(LIST_SELECT + "WHERE cl.id = :clientId ORDER BY r.date DESC, r.heureDebut DESC, r.id DESC")
+        List<ListView> findViewPageByClientId(@Param("clientId") Long clientId, Limit limit);
+
+        @Query(LIST_SELECT + "WHERE cl.id = :clientId " + BEFORE_CURSOR
+                        + "ORDER BY r.date DESC, r.heureDebut DESC, r.id DESC")
+        List<ListView> findViewPageByClientIdBefore(
+                        @Param("clientId") Long clientId,
+                        @Param("beforeDate") LocalDate beforeDate,
+                        @Param("beforeHeure") LocalTime beforeHeure,
+                        @Param("beforeId") Long beforeId,
+                        Limit limit);
+
+        // Planner statistics, refreshed by autovacuum. Autovacuum never analyzes a partitioned parent,
+        // so sum the partitions, skipping those never analyzed (-1 on PG14+). -1 if nothing is known yet.
+        @Query(value = "SELECT COALESCE(CASE WHEN bool_and(c.reltuples < 0) THEN -1 " +
+                        "ELSE CAST(sum(GREATEST(c.reltuples, 0)) AS bigint) END, -1) FROM pg_class c " +
+                        "WHERE (c.oid = 'reservation'::regclass AND c.relkind = 'r') " +
+                        "OR c.oid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = 'reservation'::regclass)",
+                        nativeQuery = true)
+        long estimateRowCount();
+
+        @Query(LIST_SELECT + "WHERE c.id = :complexId ORDER BY r.date DESC, r.heureDebut DESC")
+        List<ListView> findRecentViewsByComplexeId(@Param("complexId") Long complexId, Limit limit);
+
+        interface ListView {
+                Long getId();
+
+                String getStatus();
+
+                LocalDate getDate();
+
+                LocalTime getHeureDebut();
+
+                LocalTime getHeureFin();
+
+                int getDuree();
+
+                Long getTerrainId();
+
+                String getTerrainNom();
+
+                String getPrixTerrain();
+
+                String getComplexNom();
+
+                Long getClientId();
+
+                String getClientNom();
+
+                String getClientPrenom();
+
+                String getClientEmail();
+
+                String getClientNumTele();
+        }
+
+        interface SlotView {
+                Long getId();
+
+                Long getTerrainId();
+
+                LocalDate getDate();
+
+                LocalTime getHeureDebut();
+
+                LocalTime getHeureFin();
+
+                String getStatus();
+        }
 }
@@ -0,0 +1,86 @@
+package org.reservation.reservationterrain.repository;
+
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import org.reservation.reservationterrain.model.Reservation;
+import org.reservation.reservationterrain.model.Terrain;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prédicats des listes de réservations, construits uniquement pour les
+ * critères renseignés.
+ *
+ * L'ancienne requête "(:x IS NULL OR ...)" avait la même forme quels que
+ * soient les filtres : PostgreSQL devait prévoir un plan valable pour tous
+ * les cas et finissait en parcours large. Ici, une vue du jour d'un terrain
+ * ne contient que "terrain_id = ? AND date >= ? AND date <= ?", ce qui
+ * correspond exactement à l'index (terrain_id, date).
+ */
+public final class ReservationSpecifications {
+
+    private ReservationSpecifications() {
+    }
+
+    public static Specification<Reservation> matching(ReservationFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.complexId() != null) {
+                predicates.add(cb.equal(terrain(root).get("complexe").get("id"), filter.complexId()));
+            }
+            // comparaison sur la clé étrangère, sans jointure
+            if (filter.terrainId() != null) {
+                predicates.add(cb.equal(root.get("terrain").get("id"), filter.terrainId()));
+            }
+            if (filter.clientId() != null) {
+                predicates.add(cb.equal(root.get("client").get("id"), filter.clientId()));
+            }
+            if (filter.dateFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("date"), filter.dateFrom()));
+            }
+            if (filter.dateTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("date"), filter.dateTo()));
+            }
+            if (filter.status() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.status()));
+            }
+            if (filter.minDuration() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("duree"), filter.minDuration()));
+            }
+            if (filter.maxDuration() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("duree"), filter.maxDuration()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Lignes strictement après (date, heureDebut, id), dans l'ordre des listes paginées.
+     */
+    public static Specification<Reservation> after(LocalDate date, LocalTime heureDebut, Long id) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("date"), date),
+                cb.or(
+                        cb.greaterThan(root.get("date"), date),
+                        cb.greaterThan(root.get("heureDebut"), heureDebut),
+                        cb.and(
+                                cb.equal(root.get("heureDebut"), heureDebut),
+                                cb.greaterThan(root.get("id"), id))));
+    }
+
+    // Réutilise la jointure du SELECT quand elle existe déjà
+    @SuppressWarnings("unchecked")
+    static Join<Reservation, Terrain> terrain(From<?, Reservation> root) {
+        for (Join<Reservation, ?> join : root.getJoins()) {
+            if (join.getAttribute().getName().equals("terrain")) {
+                return (Join<Reservation, Terrain>) join;
+            }
+        }
+        return root.join("terrain");
+    }
+}
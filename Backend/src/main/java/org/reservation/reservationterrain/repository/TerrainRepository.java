@@ -1,17 +1,79 @@
 package org.reservation.reservationterrain.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.reservation.reservationterrain.model.Terrain;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TerrainRepository extends JpaRepository<Terrain, Long> {
 
+    // Cache de requêtes : invalidé par Hibernate à chaque écriture sur la table terrain
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Terrain> findByComplexe_Id(Long complexeId);
 
     long countByComplexe_IdAndStatus(Long complexeId, String status);
 
     long countByStatus(String status);
+
+    // Opening hours and slot length only (no image) for the availability index
+    @Query("SELECT t.id AS id, t.heureOuverture AS heureOuverture, t.heureFermeture AS heureFermeture, " +
+            "t.dureeCreneau AS dureeCreneau FROM Terrain t WHERE t.id = :id")
+    Optional<ScheduleView> findScheduleById(@Param("id") Long id);
+
+    @Query("SELECT t.id AS id, t.heureOuverture AS heureOuverture, t.heureFermeture AS heureFermeture, " +
+            "t.dureeCreneau AS dureeCreneau FROM Terrain t WHERE t.id IN :ids")
+    List<ScheduleView> findSchedulesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Image keys still in use, for the cleanup of unreferenced image files
+    @Query("SELECT DISTINCT t.imageHash FROM Terrain t WHERE t.imageHash IS NOT NULL")
+    List<String> findImageHashes();
+
+    // Open terrains with their complex, used by the city search index
+    @Query("SELECT t.id AS id, t.nom AS nom, t.prixTerrain AS prixTerrain, " +
+            "t.heureOuverture AS heureOuverture, t.heureFermeture AS heureFermeture, " +
+            "t.dureeCreneau AS dureeCreneau, c.id AS complexeId, c.nom AS complexeNom, " +
+            "c.ville AS ville, c.adress AS adress " +
+            "FROM Terrain t JOIN t.complexe c WHERE t.status = 'OUVERT'")
+    List<SearchView> findOpenForSearch();
+
+    interface SearchView {
+        Long getId();
+
+        String getNom();
+
+        String getPrixTerrain();
+
+        int getHeureOuverture();
+
+        int getHeureFermeture();
+
+        int getDureeCreneau();
+
+        Long getComplexeId();
+
+        String getComplexeNom();
+
+        String getVille();
+
+        String getAdress();
+    }
+
+    interface ScheduleView {
+        Long getId();
+
+        int getHeureOuverture();
+
+        int getHeureFermeture();
+
+        int getDureeCreneau();
+    }
 }
@@ -0,0 +1,66 @@
+package org.reservation.reservationterrain.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Tokens déjà vérifiés (signature, émetteur, dates) par le décodeur délégué,
+ * gardés jusqu'à leur {@code exp} : le frontend renvoie le même token pendant
+ * plusieurs minutes, seule la première requête paie la vérification RSA.
+ *
+ * La clé est l'empreinte SHA-256 du token, pas le token lui-même. Un token
+ * refusé ou sans {@code exp} n'est jamais gardé.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> verified;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maxSize) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String key, Jwt jwt) -> Duration.between(Instant.now(), jwt.getExpiresAt())))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = fingerprint(token);
+        Jwt jwt = verified.getIfPresent(key);
+        if (jwt != null) {
+            return jwt;
+        }
+        jwt = delegate.decode(token);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(Instant.now())) {
+            verified.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    public Cache<String, Jwt> getCache() {
+        return verified;
+    }
+
+    private static String fingerprint(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 fait partie des algorithmes garantis par la plateforme Java
+            throw new IllegalStateException(e);
+        }
+    }
+}
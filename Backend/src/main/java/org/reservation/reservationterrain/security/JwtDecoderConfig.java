@@ -0,0 +1,100 @@
+package org.reservation.reservationterrain.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Décodeur JWT du resource server, à la place de celui de Spring Boot.
+ *
+ * Les clés publiques du realm (JWKS) sont chargées au démarrage puis
+ * rafraîchies en arrière-plan avant l'expiration du cache
+ * ({@code security.jwt.jwks.ttl-seconds}) : une rotation des clés dans
+ * Keycloak est vue sans qu'une requête attende le téléchargement. Seul un
+ * {@code kid} encore inconnu déclenche un rechargement immédiat, limité en
+ * fréquence par Nimbus. Les tokens vérifiés sont gardés par
+ * {@link CachingJwtDecoder}.
+ */
+@Configuration
+public class JwtDecoderConfig {
+
+    private static final int JWKS_SIZE_LIMIT = 50 * 1024;
+
+    private final JWKSource<SecurityContext> jwkSource;
+
+    public JwtDecoderConfig(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+            @Value("${keycloak.http.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${keycloak.http.read-timeout-ms:5000}") int readTimeoutMs,
+            @Value("${security.jwt.jwks.ttl-seconds:300}") long ttlSeconds,
+            @Value("${security.jwt.jwks.refresh-ahead-seconds:30}") long refreshAheadSeconds)
+            throws MalformedURLException {
+        this.jwkSource = JWKSourceBuilder.<SecurityContext>create(URI.create(jwkSetUri).toURL(),
+                new DefaultResourceRetriever(connectTimeoutMs, readTimeoutMs, JWKS_SIZE_LIMIT))
+                .cache(TimeUnit.SECONDS.toMillis(ttlSeconds), readTimeoutMs)
+                // Rafraîchissement planifié : aucune requête ne porte le rechargement
+                .refreshAheadCache(TimeUnit.SECONDS.toMillis(refreshAheadSeconds), true)
+                .build();
+    }
+
+    @Bean
+    public CachingJwtDecoder jwtDecoder(
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri:}") String issuerUri,
+            @Value("${security.jwt.cache.max-size:10000}") long maxSize) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        // Dates et émetteur vérifiés par les validateurs Spring ci-dessous, comme avec le décodeur de Spring Boot
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(issuerUri.isBlank()
+                ? JwtValidators.createDefault()
+                : JwtValidators.createDefaultWithIssuer(issuerUri));
+        return new CachingJwtDecoder(decoder, maxSize);
+    }
+
+    /**
+     * Premier chargement des clés, hors requête. Un Keycloak injoignable au
+     * démarrage n'empêche pas l'application de démarrer : la première requête
+     * authentifiée refera la tentative.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetchJwks() {
+        try {
+            int keys = jwkSource.get(new JWKSelector(new JWKMatcher.Builder().build()), null).size();
+            System.out.println("JWKS prefetched: " + keys + " keys");
+        } catch (KeySourceException e) {
+            System.err.println("JWKS prefetch failed, keys will be fetched on first use: " + e.getMessage());
+        }
+    }
+
+    /** Arrête le rafraîchissement planifié des clés. */
+    @PreDestroy
+    public void closeJwkSource() throws IOException {
+        if (jwkSource instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
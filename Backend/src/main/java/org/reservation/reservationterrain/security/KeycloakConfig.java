@@ -1,11 +1,29 @@
 package org.reservation.reservationterrain.security;
 
+import io.netty.channel.ChannelOption;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
 import org.keycloak.OAuth2Constants;
+import org.keycloak.admin.client.JacksonProvider;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.KeycloakBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class KeycloakConfig {
@@ -30,8 +48,94 @@ public class KeycloakConfig {
     @Value("${keycloak.password}")
     private String password;
 
+    /**
+     * Pool de connexions de l'API d'administration. Fermé avec le client HTTP
+     * qui le possède.
+     */
+    @Bean(destroyMethod = "")
+    public PoolingHttpClientConnectionManager keycloakConnectionManager(
+            @Value("${keycloak.http.max-connections:50}") int maxConnections) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        // Un seul hôte : toutes les connexions sont pour lui
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setValidateAfterInactivity(2000);
+        return connectionManager;
+    }
+
+    /**
+     * Client HTTP bloquant de l'API d'administration. Chaque appel a un délai de connexion,
+     * d'attente d'une connexion du pool et de lecture : un Keycloak qui ne
+     * répond plus fait échouer l'appel (et compter un échec au disjoncteur de
+     * KeycloakCalls) au lieu de le laisser pendre.
+     */
+    @Bean(destroyMethod = "close")
+    public Client keycloakHttpClient(PoolingHttpClientConnectionManager keycloakConnectionManager,
+            @Value("${keycloak.http.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${keycloak.http.pool-wait-ms:1000}") int poolWaitMs,
+            @Value("${keycloak.http.read-timeout-ms:5000}") int readTimeoutMs,
+            @Value("${keycloak.http.keep-alive-ms:30000}") long keepAliveMs) {
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(keycloakConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setConnectionRequestTimeout(poolWaitMs)
+                        .setSocketTimeout(readTimeoutMs)
+                        .build())
+                // Keep-alive annoncé par Keycloak, borné pour ne pas réutiliser une connexion fermée de son côté
+                .setKeepAliveStrategy((response, context) -> {
+                    long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return announced > 0 ? Math.min(announced, keepAliveMs) : keepAliveMs;
+                })
+                .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+                .evictExpiredConnections()
+                // Client partagé par tous les utilisateurs : aucun cookie ne doit passer de l'un à l'autre
+                .disableCookieManagement()
+                .build();
+
+        // Même configuration Jackson que le client créé par défaut par KeycloakBuilder
+        return ((ResteasyClientBuilder) ClientBuilder.newBuilder())
+                .httpEngine(new ApacheHttpClient43Engine(httpClient))
+                .register(new JacksonProvider(), 100)
+                .build();
+    }
+
+    /**
+     * Pool de connexions de l'endpoint token, mêmes réglages que celui de
+     * l'API d'administration. Métriques reactor.netty.connection.provider.*
+     * (name=keycloak-token).
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider keycloakTokenConnections(
+            @Value("${keycloak.http.max-connections:50}") int maxConnections,
+            @Value("${keycloak.http.pool-wait-ms:1000}") long poolWaitMs,
+            @Value("${keycloak.http.keep-alive-ms:30000}") long keepAliveMs) {
+        return ConnectionProvider.builder("keycloak-token")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(poolWaitMs))
+                .maxIdleTime(Duration.ofMillis(keepAliveMs))
+                .evictInBackground(Duration.ofMillis(keepAliveMs))
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Client non bloquant de l'endpoint token (logins, vérifications de mot
+     * de passe) : la réponse de Keycloak est attendue sans occuper de thread.
+     * Mêmes délais que le client d'administration.
+     */
+    @Bean
+    public WebClient keycloakWebClient(WebClient.Builder builder, ConnectionProvider keycloakTokenConnections,
+            @Value("${keycloak.http.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${keycloak.http.read-timeout-ms:5000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(keycloakTokenConnections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
     @Bean
-    public Keycloak keycloak() {
+    public Keycloak keycloak(Client keycloakHttpClient) {
         return KeycloakBuilder.builder()
                 .serverUrl(serverUrl)
                 .realm(adminRealm) // master
@@ -39,6 +143,7 @@ public class KeycloakConfig {
                 .username(username) // admin
                 .password(password)
                 .grantType(OAuth2Constants.PASSWORD)
+                .resteasyClient(keycloakHttpClient)
                 .build();
     }
 
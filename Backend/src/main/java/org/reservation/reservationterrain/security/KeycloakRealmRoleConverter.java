@@ -1,17 +1,34 @@
 package org.reservation.reservationterrain.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+/**
+ * Rôles du realm ({@code realm_access.roles}) → autorités ROLE_*.
+ *
+ * Peu de combinaisons de rôles existent (client, owner, admin...) : la liste
+ * d'autorités, immuable, est construite une fois par combinaison puis
+ * partagée par toutes les requêtes.
+ */
 public class KeycloakRealmRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
 
+    private static final int MAX_ROLE_SETS = 256;
+
+    // rôles du token -> autorités
+    private final Cache<List<?>, List<GrantedAuthority>> authorities = Caffeine.newBuilder()
+            .maximumSize(MAX_ROLE_SETS)
+            .build();
+
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
         Map<String, Object> realmAccess = jwt.getClaim("realm_access");
@@ -24,10 +41,17 @@ public class KeycloakRealmRoleConverter implements Converter<Jwt, Collection<Gra
             return List.of();
         }
 
-        return roles.stream()
-                .filter(role -> role instanceof String)
-                .map(role -> "ROLE_" + role) // CLIENT -> ROLE_CLIENT
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        List<?> key = roles instanceof List<?> list ? list : new ArrayList<>(roles);
+        List<GrantedAuthority> cached = authorities.getIfPresent(key);
+        if (cached == null) {
+            cached = roles.stream()
+                    .filter(role -> role instanceof String)
+                    .map(role -> "ROLE_" + role) // CLIENT -> ROLE_CLIENT
+                    .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                    .toList();
+            // Copie : la liste du token n'est pas immuable (et peut contenir null)
+            authorities.put(Collections.unmodifiableList(new ArrayList<>(key)), cached);
+        }
+        return cached;
     }
 }
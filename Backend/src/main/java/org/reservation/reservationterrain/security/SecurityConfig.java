@@ -36,6 +36,14 @@ public class SecurityConfig {
                         .requestMatchers("/api/terrains/active/**").permitAll() // Pour le compteur total-count
                         .requestMatchers("/api/terrains/{id}/reservations").permitAll() // Pour voir les dispos sur le
                                                                                         // calendrier
+                        .requestMatchers("/api/terrains/{id}/availability").permitAll() // Créneaux libres calculés
+                        .requestMatchers("/api/terrains/search").permitAll() // Recherche de terrain libre par ville
+                        .requestMatchers("/api/images/**").permitAll() // Photos des terrains
+                        // Sonde de santé (sans détails) ; le reste d'Actuator, métriques comprises, est réservé aux admins
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        // Page d'erreur : sinon un 503 (Keycloak indisponible) sur un login devient un 401
+                        .requestMatchers("/error").permitAll()
                         // ==========================================
                         // 2. TA PARTIE : ESPACE OWNER
                         // ==========================================
@@ -47,6 +55,7 @@ public class SecurityConfig {
                         // 3. ESPACE ADMIN
                         // ==========================================
                         .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/reservations/export").hasRole("ADMIN") // Export comptable
 
                         // ==========================================
                         // 4. AUTRES (Requiert authentification)
@@ -2,50 +2,21 @@ package org.reservation.reservationterrain.service;
 
 import org.reservation.reservationterrain.dto.AdminLoginDTO;
 import org.reservation.reservationterrain.dto.TokenResponse;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
 
 @Service
 public class AdminLoginService {
 
-    @Value("${keycloak.server-url}")
-    private String keycloakServerUrl;
+    private final KeycloakTokenClient tokenClient;
 
-    @Value("${keycloak.realm}")
-    private String realm;
-
-    @Value("${keycloak.client-id:admin-cli}")
-    private String clientId;
-
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    public TokenResponse login(AdminLoginDTO request) {
-        String tokenUrl = keycloakServerUrl + "/realms/" + realm + "/protocol/openid-connect/token";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
-        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
-        body.add("grant_type", "password");
-        body.add("client_id", clientId);
-        body.add("username", request.getEmail());
-        body.add("password", request.getPassword());
-
-        HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(body, headers);
+    public AdminLoginService(KeycloakTokenClient tokenClient) {
+        this.tokenClient = tokenClient;
+    }
 
-        try {
-            ResponseEntity<TokenResponse> response = restTemplate.exchange(
-                    tokenUrl,
-                    HttpMethod.POST,
-                    entity,
-                    TokenResponse.class);
-            return response.getBody();
-        } catch (Exception e) {
-            throw new RuntimeException("Échec de l'authentification admin: " + e.getMessage());
-        }
+    public Mono<TokenResponse> login(AdminLoginDTO request) {
+        return tokenClient.passwordGrant("admin-login", request.getEmail(), request.getPassword())
+                .onErrorMap(e -> !(e instanceof KeycloakUnavailableException),
+                        e -> new RuntimeException("Échec de l'authentification admin: " + e.getMessage()));
     }
 }
@@ -8,6 +8,7 @@ import org.reservation.reservationterrain.model.Owner;
 import org.reservation.reservationterrain.repository.ComplexeRepository;
 import org.reservation.reservationterrain.repository.OwnerRepository;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -15,10 +16,13 @@ import org.springframework.stereotype.Service;
 public class AdminService {
     private final OwnerRepository ownerRepository;
     private final ComplexeRepository complexeRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AdminService(OwnerRepository ownerRepository, ComplexeRepository complexeRepository) {
+    public AdminService(OwnerRepository ownerRepository, ComplexeRepository complexeRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.ownerRepository = ownerRepository;
         this.complexeRepository = complexeRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public Owner createOwner(OwnerCreateDTO dto) {
@@ -42,6 +46,7 @@ public class AdminService {
 
         ownerRepository.save(owner);
         complexeRepository.save(complexe);
+        eventPublisher.publishEvent(new CatalogChangedEvent("complexe"));
 
         return owner;
     }
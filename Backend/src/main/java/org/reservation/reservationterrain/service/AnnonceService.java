@@ -9,6 +9,7 @@ import org.reservation.reservationterrain.repository.ClientRepository;
 import org.reservation.reservationterrain.repository.TerrainRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -43,18 +44,21 @@ public class AnnonceService {
         return mapToDTO(saved);
     }
 
+    @Transactional(readOnly = true)
     public List<AnnonceDTO> getAllAnnonces() {
         return annonceRepository.findAll().stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<AnnonceDTO> getAnnoncesByCity(String city) {
         return annonceRepository.findByTerrain_Complexe_Ville(city).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<AnnonceDTO> getAnnoncesByTerrain(Long terrainId) {
         Terrain terrain = terrainRepository.findById(terrainId)
                 .orElseThrow(() -> new RuntimeException("Terrain not found"));
@@ -0,0 +1,8 @@
+package org.reservation.reservationterrain.service;
+
+/**
+ * Publié quand un complexe, un terrain ou un owner change : les vues
+ * dérivées du catalogue (recherche par ville, ...) doivent être reconstruites.
+ */
+public record CatalogChangedEvent(String source) {
+}
@@ -0,0 +1,179 @@
+package org.reservation.reservationterrain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.keycloak.admin.client.Keycloak;
+import org.reservation.reservationterrain.repository.ClientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Résolution JWT → id du Client, partagée par les réservations, le profil
+ * et /auth/client/me.
+ *
+ * Le sujet Keycloak est mis en cache (taille bornée, expiration). Sans
+ * sujet dans le token, l'id Keycloak est cherché par email via l'API admin,
+ * avec un cache négatif pour ne pas rappeler Keycloak en boucle. La création
+ * paresseuse du client est un upsert (ON CONFLICT DO NOTHING puis relecture) :
+ * deux requêtes simultanées du même nouvel utilisateur ne créent qu'une
+ * ligne. Il rejoint la transaction de l'appelant plutôt que d'en ouvrir une
+ * seconde, qui prendrait une deuxième connexion au pool pendant une
+ * réservation ; l'id n'est alors mis en cache qu'après le commit.
+ */
+@Component
+public class ClientIdentityResolver {
+
+    private final ClientRepository clientRepository;
+    private final Keycloak keycloak;
+    private final String realm;
+    private final TransactionTemplate transaction;
+    private final KeycloakCalls keycloakCalls;
+
+    // sujet Keycloak -> id client
+    private final Cache<String, Long> clientIds;
+    // email -> id Keycloak, avec une entrée vide quand Keycloak ne connaît pas l'email
+    private final Cache<String, Optional<String>> keycloakIds;
+    private final Cache<String, Optional<String>> unknownEmails;
+
+    public ClientIdentityResolver(ClientRepository clientRepository,
+            Keycloak keycloak,
+            @Value("${keycloak.realm}") String realm,
+            PlatformTransactionManager transactionManager,
+            KeycloakCalls keycloakCalls,
+            @Value("${identity.cache.max-size:10000}") long maxSize,
+            @Value("${identity.cache.ttl-minutes:30}") long ttlMinutes,
+            @Value("${identity.cache.negative-ttl-seconds:60}") long negativeTtlSeconds) {
+        this.clientRepository = clientRepository;
+        this.keycloak = keycloak;
+        this.realm = realm;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.keycloakCalls = keycloakCalls;
+        this.clientIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        this.keycloakIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        this.unknownEmails = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .build();
+    }
+
+    public Long resolveClientId(Jwt jwt) {
+        return resolveClientId(jwt.getSubject(), jwt.getClaimAsString("email"),
+                jwt.getClaimAsString("family_name"), jwt.getClaimAsString("given_name"));
+    }
+
+    /**
+     * Id du client correspondant au token, créé s'il n'existe pas encore.
+     */
+    public Long resolveClientId(String keycloakId, String email, String nom, String prenom) {
+        String subject = keycloakId != null ? keycloakId : keycloakIdByEmail(email);
+        Long cached = clientIds.getIfPresent(subject);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<Long> existing = clientRepository.findIdByKeycloakId(subject);
+        if (existing.isPresent()) {
+            clientIds.put(subject, existing.get());
+            return existing.get();
+        }
+        Long id = upsert(subject, email, nom, prenom);
+        // Créé dans la transaction de l'appelant : annulé avec elle si la réservation échoue
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clientIds.put(subject, id);
+                }
+            });
+        } else {
+            clientIds.put(subject, id);
+        }
+        return id;
+    }
+
+    /**
+     * Id du client sans création (historique, annulation).
+     */
+    public Optional<Long> findClientId(String keycloakId) {
+        Long cached = clientIds.getIfPresent(keycloakId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Long> id = clientRepository.findIdByKeycloakId(keycloakId);
+        id.ifPresent(value -> clientIds.put(keycloakId, value));
+        return id;
+    }
+
+    public void evict(String keycloakId) {
+        clientIds.invalidate(keycloakId);
+    }
+
+    private String keycloakIdByEmail(String email) {
+        if (email == null) {
+            throw new IllegalArgumentException("Impossible de récupérer l'ID utilisateur: email absent du token");
+        }
+        Optional<String> known = keycloakIds.getIfPresent(email);
+        if (known == null) {
+            known = unknownEmails.getIfPresent(email);
+        }
+        if (known == null) {
+            known = searchKeycloak(email);
+            (known.isPresent() ? keycloakIds : unknownEmails).put(email, known);
+        }
+        return known.orElseThrow(() -> new IllegalArgumentException(
+                "Impossible de récupérer l'ID utilisateur: User not found in Keycloak with email: " + email));
+    }
+
+    private Optional<String> searchKeycloak(String email) {
+        try {
+            var users = keycloakCalls.record(KeycloakCalls.ADMIN, "users.search",
+                    () -> keycloak.realm(realm).users().search(email, true));
+            return users.isEmpty() ? Optional.empty() : Optional.of(users.get(0).getId());
+        } catch (KeycloakUnavailableException e) {
+            // appel refusé par le disjoncteur : 503, pas une requête invalide
+            throw e;
+        } catch (Exception e) {
+            // Keycloak indisponible : pas de cache négatif, on réessaiera
+            throw new IllegalArgumentException("Impossible de récupérer l'ID utilisateur: " + e.getMessage());
+        }
+    }
+
+    private Long upsert(String keycloakId, String email, String nom, String prenom) {
+        return transaction.execute(status -> {
+            // Client déjà connu par son email : on le rattache à son compte Keycloak
+            if (email != null && clientRepository.attachKeycloakId(keycloakId, email) > 0) {
+                return clientRepository.findIdByKeycloakId(keycloakId).orElseThrow();
+            }
+            clientRepository.insertIfAbsent(keycloakId,
+                    email != null ? email : "no-email-" + keycloakId + "@placeholder.com",
+                    nom != null && !nom.isEmpty() ? nom : "Inconnu",
+                    prenom != null ? prenom : "");
+            return clientRepository.findIdByKeycloakId(keycloakId)
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "Impossible de créer le client pour l'ID utilisateur: " + keycloakId));
+        });
+    }
+
+    public Cache<String, Long> getClientIdCache() {
+        return clientIds;
+    }
+
+    public Cache<String, Optional<String>> getKeycloakIdCache() {
+        return keycloakIds;
+    }
+}
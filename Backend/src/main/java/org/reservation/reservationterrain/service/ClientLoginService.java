@@ -2,51 +2,21 @@ package org.reservation.reservationterrain.service;
 
 import org.reservation.reservationterrain.dto.ClientLoginRequest;
 import org.reservation.reservationterrain.dto.TokenResponse;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
 
 @Service
 public class ClientLoginService {
 
-    @Value("${keycloak.server-url}")
-    private String keycloakServerUrl;
+    private final KeycloakTokenClient tokenClient;
 
-    @Value("${keycloak.realm}")
-    private String realm;
-
-    @Value("${keycloak.client-id:admin-cli}")
-    private String clientId;
-
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    public TokenResponse login(ClientLoginRequest request) {
-        String tokenUrl = keycloakServerUrl + "/realms/" + realm + "/protocol/openid-connect/token";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
-        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
-        body.add("grant_type", "password");
-        body.add("client_id", clientId);
-        body.add("username", request.getEmail());
-        body.add("password", request.getPassword());
-
-        HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(body, headers);
-
-        try {
-            ResponseEntity<TokenResponse> response = restTemplate.exchange(
-                    tokenUrl,
-                    HttpMethod.POST,
-                    entity,
-                    TokenResponse.class);
+    public ClientLoginService(KeycloakTokenClient tokenClient) {
+        this.tokenClient = tokenClient;
+    }
 
-            return response.getBody();
-        } catch (Exception e) {
-            throw new RuntimeException("Échec de l'authentification: " + e.getMessage());
-        }
+    public Mono<TokenResponse> login(ClientLoginRequest request) {
+        return tokenClient.passwordGrant("client-login", request.getEmail(), request.getPassword())
+                .onErrorMap(e -> !(e instanceof KeycloakUnavailableException),
+                        e -> new RuntimeException("Échec de l'authentification: " + e.getMessage()));
     }
 }
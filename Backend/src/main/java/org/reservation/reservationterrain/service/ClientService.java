@@ -18,13 +18,19 @@ public class ClientService {
     private final ClientRepository clientRepository;
     private final Keycloak keycloak;
     private final String realm;
+    private final ClientIdentityResolver identityResolver;
+    private final KeycloakCalls keycloakCalls;
 
     public ClientService(ClientRepository clientRepository,
             Keycloak keycloak,
-            @Value("${keycloak.realm}") String realm) {
+            @Value("${keycloak.realm}") String realm,
+            ClientIdentityResolver identityResolver,
+            KeycloakCalls keycloakCalls) {
         this.clientRepository = clientRepository;
         this.keycloak = keycloak;
         this.realm = realm;
+        this.identityResolver = identityResolver;
+        this.keycloakCalls = keycloakCalls;
     }
 
     public Client signupLocal(ClientSignupRequest request) {
@@ -48,26 +54,21 @@ public class ClientService {
                 .orElseThrow(() -> new RuntimeException("Client non trouvé"));
     }
 
-    public String getKeycloakIdByEmail(String email) {
-        var users = keycloak.realm(realm).users().search(email);
-        if (users.isEmpty()) {
-            throw new RuntimeException("User not found in Keycloak with email: " + email);
-        }
-        return users.get(0).getId();
+    // Client courant à partir du JWT (résolution partagée et mise en cache)
+    public Client getCurrentClient(Jwt jwt) {
+        return getOrCreateFromJwt(jwt);
     }
 
     // Récupère le profil à partir du JWT
     public ClientResponseDTO getCurrentClientProfile(Jwt jwt) {
-        String email = jwt.getClaimAsString("email");
-        Client client = getOrCreateFromJwt(jwt, email);
+        Client client = getOrCreateFromJwt(jwt);
         return toResponseDTO(client);
     }
 
     // Mise à jour du profil avec synchronisation Keycloak
     @org.springframework.transaction.annotation.Transactional
     public ClientResponseDTO updateProfile(Jwt jwt, ClientProfileUpdateRequest request) {
-        String email = jwt.getClaimAsString("email");
-        Client client = getOrCreateFromJwt(jwt, email);
+        Client client = getOrCreateFromJwt(jwt);
 
         // Update database
         if (request.getNom() != null)
@@ -95,29 +96,20 @@ public class ClientService {
                 .users()
                 .get(client.getKeycloakId());
 
-        UserRepresentation user = userResource.toRepresentation();
+        UserRepresentation user = keycloakCalls.record(KeycloakCalls.ADMIN, "users.get",
+                userResource::toRepresentation);
         user.setFirstName(client.getPrenom());
         user.setLastName(client.getNom());
         user.setEmail(client.getEmail());
 
-        userResource.update(user);
+        keycloakCalls.run(KeycloakCalls.ADMIN, "users.update", () -> userResource.update(user));
     }
 
     // Si besoin, crée le client en DB à partir des claims Keycloak
-    private Client getOrCreateFromJwt(Jwt jwt, String email) {
-        String keycloakId = jwt.getSubject();
-        return clientRepository.findByKeycloakId(keycloakId)
-                .orElseGet(() -> clientRepository.findByEmail(email)
-                        .orElseGet(() -> {
-                            Client c = new Client();
-                            c.setEmail(email);
-                            String nom = jwt.getClaimAsString("family_name");
-                            c.setNom(nom != null ? nom : ""); // Handle null family_name
-                            c.setPrenom(jwt.getClaimAsString("given_name"));
-                            c.setKeycloakId(keycloakId);
-                            c.setRole("CLIENT");
-                            return clientRepository.save(c);
-                        }));
+    private Client getOrCreateFromJwt(Jwt jwt) {
+        Long clientId = identityResolver.resolveClientId(jwt);
+        return clientRepository.findById(clientId)
+                .orElseThrow(() -> new RuntimeException("Client non trouvé"));
     }
 
     private ClientResponseDTO toResponseDTO(Client client) {
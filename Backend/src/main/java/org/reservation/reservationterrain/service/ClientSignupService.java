@@ -19,13 +19,16 @@ public class ClientSignupService {
     private final Keycloak keycloak;
     private final String realm;
     private final ClientRepository clientRepository;
+    private final KeycloakCalls keycloakCalls;
 
     public ClientSignupService(Keycloak keycloak,
                                String keycloakRealmName,
-                               ClientRepository clientRepository) {
+                               ClientRepository clientRepository,
+                               KeycloakCalls keycloakCalls) {
         this.keycloak = keycloak;
         this.realm = keycloakRealmName;
         this.clientRepository = clientRepository;
+        this.keycloakCalls = keycloakCalls;
     }
 
     public Client signup(ClientSignupRequest request) {
@@ -47,7 +50,8 @@ public class ClientSignupService {
         RealmResource realmResource = keycloak.realm(realm);
         UsersResource usersResource = realmResource.users();
 
-        Response response = usersResource.create(user);
+        Response response = keycloakCalls.record(KeycloakCalls.ADMIN, "users.create",
+                () -> usersResource.create(user));
         if (response.getStatus() >= 300) {
             throw new RuntimeException("Erreur création user Keycloak: " + response.getStatus());
         }
@@ -56,8 +60,10 @@ public class ClientSignupService {
 
         // 1.5 Assign Role CLIENT
         try {
-            var roleRepresentation = realmResource.roles().get("CLIENT").toRepresentation();
-            usersResource.get(keycloakId).roles().realmLevel().add(List.of(roleRepresentation));
+            keycloakCalls.run(KeycloakCalls.ADMIN, "roles.assign", () -> {
+                var roleRepresentation = realmResource.roles().get("CLIENT").toRepresentation();
+                usersResource.get(keycloakId).roles().realmLevel().add(List.of(roleRepresentation));
+            });
         } catch (Exception e) {
             // Log but don't fail, or fail if role is critical
             System.err.println("Warning: Could not assign CLIENT role: " + e.getMessage());
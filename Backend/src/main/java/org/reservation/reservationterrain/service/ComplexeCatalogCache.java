@@ -0,0 +1,125 @@
+package org.reservation.reservationterrain.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Réponse de {@code GET /api/complexes}, prête à envoyer.
+ *
+ * Le catalogue est chargé en une requête puis sérialisé une seule fois, en
+ * JSON et en JSON gzippé, avec un ETag calculé sur le contenu. Il n'est
+ * reconstruit qu'après un {@link CatalogChangedEvent} ; la reconstruction est
+ * faite par un seul thread, les requêtes arrivées entre-temps attendent son
+ * résultat au lieu de relancer chacune la requête.
+ *
+ * Les URLs des photos sont construites sur {@code storage.images.public-base-url}
+ * (voir ImageStore) : elles ne dépendent pas de la requête qui a déclenché la
+ * reconstruction.
+ */
+@Component
+public class ComplexeCatalogCache {
+
+    private final ComplexeService complexeService;
+    private final ObjectMapper objectMapper;
+
+    // null = à reconstruire au prochain appel
+    private volatile Snapshot snapshot;
+    // écarte une reconstruction commencée avant la dernière modification
+    private final AtomicLong generation = new AtomicLong();
+    // une seule reconstruction à la fois ; pas de synchronized, le thread virtuel qui lit la base y resterait épinglé
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ComplexeCatalogCache(ComplexeService complexeService, ObjectMapper objectMapper) {
+        this.complexeService = complexeService;
+        this.objectMapper = objectMapper;
+    }
+
+    public record Snapshot(byte[] json, byte[] gzip, String etag) {
+    }
+
+    public Snapshot get() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            current = snapshot;
+            if (current == null) {
+                misses.increment();
+                long startGeneration = generation.get();
+                current = build();
+                if (generation.get() == startGeneration) {
+                    snapshot = current;
+                }
+            } else {
+                // reconstruit par le thread qu'on attendait
+                hits.increment();
+            }
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** Nombre de reconstructions (appels qui n'ont pas trouvé de snapshot). */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private Snapshot build() {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(complexeService.getAllComplexes());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation du catalogue impossible", e);
+        }
+        return new Snapshot(json, gzip(json), etagOf(json));
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream zipped = new GZIPOutputStream(out)) {
+            zipped.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // ETag fort : même contenu, même ETag, y compris après une reconstruction sans changement visible
+    private static String etagOf(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,7 +3,9 @@ package org.reservation.reservationterrain.service;
 import org.reservation.reservationterrain.dto.ComplexeResponse;
 import org.reservation.reservationterrain.model.Complexe;
 import org.reservation.reservationterrain.repository.ComplexeRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -13,25 +15,34 @@ public class ComplexeService {
 
     private final ComplexeRepository complexeRepository;
     private final org.reservation.reservationterrain.repository.OwnerRepository ownerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageStore imageStore;
 
     public ComplexeService(ComplexeRepository complexeRepository,
-            org.reservation.reservationterrain.repository.OwnerRepository ownerRepository) {
+            org.reservation.reservationterrain.repository.OwnerRepository ownerRepository,
+            ApplicationEventPublisher eventPublisher,
+            ImageStore imageStore) {
         this.complexeRepository = complexeRepository;
         this.ownerRepository = ownerRepository;
+        this.eventPublisher = eventPublisher;
+        this.imageStore = imageStore;
     }
 
+    @Transactional(readOnly = true)
     public long countComplexes() {
         return complexeRepository.count();
     }
 
+    // Pas de readOnly : construit l'instantané du catalogue, qui doit venir du primaire
     public List<ComplexeResponse> getAllComplexes() {
-        List<Complexe> complexes = complexeRepository.findAll();
+        List<Complexe> complexes = complexeRepository.findAllForCatalog();
 
         return complexes.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public ComplexeResponse getComplexeById(Long id) {
         Complexe complexe = complexeRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Complexe non trouvé avec l'ID: " + id));
@@ -56,6 +67,7 @@ public class ComplexeService {
         complexe.setOwner(owner);
 
         Complexe saved = complexeRepository.save(complexe);
+        eventPublisher.publishEvent(new CatalogChangedEvent("complexe"));
         return mapToResponse(saved);
     }
 
@@ -83,6 +95,7 @@ public class ComplexeService {
         }
 
         Complexe updated = complexeRepository.save(complexe);
+        eventPublisher.publishEvent(new CatalogChangedEvent("complexe"));
         return mapToResponse(updated);
     }
 
@@ -91,6 +104,7 @@ public class ComplexeService {
             throw new IllegalArgumentException("Complexe non trouvé");
         }
         complexeRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent("complexe"));
     }
 
     private ComplexeResponse mapToResponse(Complexe c) {
@@ -121,6 +135,7 @@ public class ComplexeService {
                         tDto.setHeureOuverture(t.getHeureOuverture());
                         tDto.setHeureFermeture(t.getHeureFermeture());
                         tDto.setDureeCreneau(t.getDureeCreneau());
+                        tDto.setPhoto(imageStore.urlOf(t.getImageHash(), ImageVariants.Variant.CARD.id()));
                         return tDto;
                     })
                     .collect(Collectors.toList());
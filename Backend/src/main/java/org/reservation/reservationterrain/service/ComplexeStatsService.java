@@ -0,0 +1,267 @@
+package org.reservation.reservationterrain.service;
+
+import org.reservation.reservationterrain.model.ComplexeStats;
+import org.reservation.reservationterrain.model.Reservation;
+import org.reservation.reservationterrain.repository.ComplexeStatsRepository;
+import org.reservation.reservationterrain.repository.ReservationRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Compteurs du tableau de bord owner (réservations, en attente, chiffre
+ * d'affaires, terrains ouverts) tenus à jour par incréments.
+ *
+ * Chaque changement de réservation insère la différence entre son état
+ * avant et après dans complexe_stats_delta, dans la même transaction : si la
+ * réservation est annulée par un rollback, l'incrément l'est aussi. La
+ * transaction n'écrit jamais la ligne complexe_stats, deux réservations du
+ * même complexe ne se sérialisent donc pas sur elle.
+ *
+ * La lecture ajoute les incréments en attente à la ligne ; le recalcul
+ * périodique recompte et supprime les incréments en une seule requête, donc
+ * sur le même instantané : un incrément commité après n'est ni compté ni
+ * supprimé, il reste à ajouter.
+ */
+@Service
+public class ComplexeStatsService {
+
+    static final Set<String> REVENUE_STATUSES = Set.of("VALIDEE", "CONFIRMEE");
+    static final String PENDING_STATUS = "CONFIRMEE";
+
+    private final ComplexeStatsRepository statsRepository;
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ComplexeStatsService(ComplexeStatsRepository statsRepository,
+            ReservationRepository reservationRepository,
+            PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Le recalcul écrit : appelé depuis une lecture (readOnly, éventuellement sur le réplica),
+        // il ouvre sa propre transaction sur le primaire
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Part d'une réservation dans les compteurs de son complexe.
+     */
+    public record Contribution(Long complexeId, String status, String prixTerrain) {
+
+        public static Contribution of(Reservation reservation) {
+            return new Contribution(reservation.getTerrain().getComplexe().getId(), reservation.getStatus(),
+                    reservation.getTerrain().getPrixTerrain());
+        }
+
+        public static Contribution of(ReservationRepository.StatsView view) {
+            return new Contribution(view.getComplexeId(), view.getStatus(), view.getPrixTerrain());
+        }
+
+        long pending() {
+            return PENDING_STATUS.equals(status) ? 1 : 0;
+        }
+
+        double revenue() {
+            return REVENUE_STATUSES.contains(status) ? parsePrix(prixTerrain) : 0.0;
+        }
+    }
+
+    private static final class Delta {
+        long total;
+        long pending;
+        double revenue;
+
+        boolean isZero() {
+            return total == 0 && pending == 0 && revenue == 0.0;
+        }
+    }
+
+    /**
+     * Une réservation passe de {@code before} à {@code after} (null = n'existe
+     * pas : création ou suppression).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onReservationChanged(Contribution before, Contribution after) {
+        apply(before != null ? List.of(before) : List.of(), after != null ? List.of(after) : List.of());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onReservationsDeleted(Collection<Contribution> removed) {
+        apply(removed, List.of());
+    }
+
+    private void apply(Collection<Contribution> before, Collection<Contribution> after) {
+        // One delta row per complexe touched (a move between complexes touches two)
+        Map<Long, Delta> deltas = new TreeMap<>();
+        for (Contribution c : before) {
+            Delta d = deltas.computeIfAbsent(c.complexeId(), id -> new Delta());
+            d.total--;
+            d.pending -= c.pending();
+            d.revenue -= c.revenue();
+        }
+        for (Contribution c : after) {
+            Delta d = deltas.computeIfAbsent(c.complexeId(), id -> new Delta());
+            d.total++;
+            d.pending += c.pending();
+            d.revenue += c.revenue();
+        }
+        deltas.forEach((complexeId, d) -> {
+            if (!d.isZero()) {
+                statsRepository.addDeltas(complexeId, d.total, d.pending, d.revenue);
+            }
+        });
+    }
+
+    /**
+     * Réservations d'un mois déplacées dans reservation_archive : elles restent
+     * comptées, au prix du terrain au moment de l'archivage.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onReservationsArchived(Long complexeId, long total, long pending, double revenue) {
+        statsRepository.addArchived(complexeId, total, pending, revenue);
+    }
+
+    /**
+     * Le prix d'un terrain a changé : le chiffre d'affaires est calculé au prix
+     * courant, on corrige donc toutes ses réservations comptées.
+     */
+    @Transactional
+    public void onPriceChanged(Long complexeId, Long terrainId, String oldPrix, String newPrix) {
+        double diff = parsePrix(newPrix) - parsePrix(oldPrix);
+        if (diff == 0.0) {
+            return;
+        }
+        long counted = reservationRepository.countByTerrain_IdAndStatusIn(terrainId, REVENUE_STATUSES);
+        if (counted > 0) {
+            statsRepository.addDeltas(complexeId, 0, 0, diff * counted);
+        }
+    }
+
+    @Transactional
+    public void onTerrainsChanged(Long complexeId) {
+        statsRepository.createIfAbsent(complexeId);
+        statsRepository.refreshActiveTerrains(complexeId);
+    }
+
+    /**
+     * Compteurs du complexe, incréments en attente compris ; calculés une
+     * première fois si la ligne n'existe pas encore.
+     */
+    public ComplexeStatsRepository.Totals get(Long complexeId) {
+        return statsRepository.findCurrentTotals(complexeId)
+                .orElseGet(() -> Counters.of(reconcile(complexeId)));
+    }
+
+    // La ligne tout juste recalculée, lue depuis l'entité (voir reconcile)
+    private record Counters(ComplexeStats stats) implements ComplexeStatsRepository.Totals {
+
+        static Counters of(ComplexeStats stats) {
+            return new Counters(stats);
+        }
+
+        @Override
+        public long getTotalReservations() {
+            return stats.getTotalReservations();
+        }
+
+        @Override
+        public long getPendingReservations() {
+            return stats.getPendingReservations();
+        }
+
+        @Override
+        public double getRevenue() {
+            return stats.getRevenue();
+        }
+
+        @Override
+        public long getActiveTerrains() {
+            return stats.getActiveTerrains();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcileAll();
+    }
+
+    @Scheduled(cron = "${reservation.stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcileAll() {
+        int drifted = 0;
+        List<Long> complexeIds = statsRepository.findAllComplexeIds();
+        for (Long complexeId : complexeIds) {
+            try {
+                if (reconcileAndReport(complexeId).drifted()) {
+                    drifted++;
+                }
+            } catch (Exception e) {
+                System.err.println("Stats reconciliation failed for complexe " + complexeId + ": " + e.getMessage());
+            }
+        }
+        Integer orphans = transactionTemplate.execute(status -> {
+            statsRepository.deleteOrphanDeltas();
+            return statsRepository.deleteOrphans();
+        });
+        System.out.println("Complexe stats reconciled: " + complexeIds.size() + " complexes, " + drifted
+                + " corrected, " + orphans + " orphan rows removed");
+    }
+
+    // La ligne recalculée elle-même : la session de l'appelant peut encore tenir l'ancienne
+    public ComplexeStats reconcile(Long complexeId) {
+        return reconcileAndReport(complexeId).stats();
+    }
+
+    // drifted : les compteurs stockés avaient dérivé
+    private record Reconciled(ComplexeStats stats, boolean drifted) {
+    }
+
+    private Reconciled reconcileAndReport(Long complexeId) {
+        return transactionTemplate.execute(status -> {
+            // The row lock only serializes reconciliations; bookings never take it. Deltas
+            // committed after the recount stay and are added on top of the fresh values.
+            statsRepository.createIfAbsent(complexeId);
+            ComplexeStats stats = statsRepository.findForUpdate(complexeId).orElseThrow();
+            ComplexeStatsRepository.Recount actual = statsRepository.recountAndFoldDeltas(complexeId);
+
+            boolean changed = stats.getReconciledAt() != null
+                    && (stats.getTotalReservations() + actual.getFoldedTotalReservations()
+                            != actual.getTotalReservations()
+                            || stats.getPendingReservations() + actual.getFoldedPendingReservations()
+                                    != actual.getPendingReservations()
+                            || Math.abs(stats.getRevenue() + actual.getFoldedRevenue() - actual.getRevenue()) > 0.005
+                            || stats.getActiveTerrains() != actual.getActiveTerrains());
+            stats.setTotalReservations(actual.getTotalReservations());
+            stats.setPendingReservations(actual.getPendingReservations());
+            stats.setRevenue(actual.getRevenue());
+            stats.setActiveTerrains(actual.getActiveTerrains());
+            stats.setReconciledAt(LocalDateTime.now());
+            return new Reconciled(stats, changed);
+        });
+    }
+
+    // Same rule as the former dashboard loop: unparsable price counts as 0
+    static double parsePrix(String prix) {
+        if (prix == null) {
+            return 0.0;
+        }
+        try {
+            return Double.parseDouble(prix);
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.reservation.reservationterrain.service;
+
+import org.reservation.reservationterrain.repository.TerrainRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Nettoyage des images qu'aucun terrain ne référence plus : uploads jamais
+ * rattachés à un terrain, photos remplacées ou terrains supprimés.
+ *
+ * Un fichier n'est supprimé qu'après un délai de grâce depuis sa dernière
+ * écriture ou son dernier renvoi par un upload, pour ne pas retirer une
+ * image téléversée dont le terrain n'est pas encore enregistré.
+ */
+@Component
+public class ImageCleanup {
+
+    private final TerrainRepository terrainRepository;
+    private final ImageStore imageStore;
+    private final Duration grace;
+
+    public ImageCleanup(TerrainRepository terrainRepository, ImageStore imageStore,
+            @Value("${storage.images.orphan-grace-hours:24}") long graceHours) {
+        this.terrainRepository = terrainRepository;
+        this.imageStore = imageStore;
+        this.grace = Duration.ofHours(graceHours);
+    }
+
+    @Scheduled(cron = "${storage.images.cleanup-cron:0 15 4 * * *}")
+    public void deleteUnreferenced() {
+        try {
+            // Une image rattachée pendant le nettoyage vient d'être touchée par storeFromClient
+            Instant olderThan = Instant.now().minus(grace);
+            Set<String> referenced = new HashSet<>(terrainRepository.findImageHashes());
+            int deleted = imageStore.deleteUnreferenced(referenced, olderThan);
+            System.out.println("Image cleanup: " + referenced.size() + " images in use, " + deleted
+                    + " unreferenced files removed");
+        } catch (Exception e) {
+            System.err.println("Image cleanup failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package org.reservation.reservationterrain.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Images des terrains, stockées sur disque hors de la base.
+ *
+ * Chaque image est rangée sous le SHA-256 de son contenu
+ * ({@code <dir>/ab/cd/abcd...}) : deux terrains avec la même photo partagent
+ * le fichier, et une clé désigne toujours le même contenu, ce qui permet de
+ * la mettre en cache sans limite côté navigateur. Le terrain ne garde que
+ * la clé.
+ *
+ * Les URL renvoyées au front partent de {@code storage.images.public-base-url}
+ * et jamais de l'en-tête Host de la requête : elles finissent dans des
+ * réponses partagées (catalogue en cache, ETag) et un Host forgé ne doit pas
+ * pouvoir les détourner.
+ */
+@Component
+public class ImageStore {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+    // "data:image/png;base64,...."
+    private static final Pattern DATA_URL = Pattern.compile("^data:([^;,]*)(;[^,]*)?,", Pattern.CASE_INSENSITIVE);
+    // une URL servie par ImageController, renvoyée telle quelle par le formulaire d'édition
+    private static final Pattern OWN_URL = Pattern.compile("/api/images/([0-9a-f]{64})(?:[/?#].*)?$");
+    private static final Set<String> ALLOWED_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+    private static final String UNSUPPORTED_FORMAT = "Format d'image non supporté (JPEG, PNG, GIF ou WebP)";
+    // uploads en cours, sur le même disque que les images pour un renommage atomique
+    private static final String INCOMING_DIR = ".incoming";
+    private static final int HEAD_BYTES = 12;
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final Path root;
+    private final long maxBytes;
+    private final String publicBaseUrl;
+
+    public ImageStore(@Value("${storage.images.dir:data/images}") String dir,
+            @Value("${storage.images.max-bytes:5242880}") long maxBytes,
+            @Value("${storage.images.public-base-url:http://localhost:8080}") String publicBaseUrl) {
+        this.root = Path.of(dir).toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.publicBaseUrl = publicBaseUrl.replaceAll("/+$", "");
+    }
+
+    /**
+     * Image envoyée par le front (data URL, base64 brut ou URL d'une image déjà
+     * stockée) → clé. {@code null} ou vide → pas d'image.
+     */
+    public String storeFromClient(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        Matcher own = OWN_URL.matcher(value);
+        if (own.find()) {
+            String key = own.group(1);
+            if (!exists(key)) {
+                throw new IllegalArgumentException("Image inconnue: " + key);
+            }
+            touch(resolve(key));
+            return key;
+        }
+        String base64 = value;
+        Matcher data = DATA_URL.matcher(value);
+        if (data.find()) {
+            base64 = value.substring(data.end());
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(base64);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Image invalide: base64 attendu");
+        }
+        return store(bytes);
+    }
+
+    public String store(byte[] bytes) {
+        return store(new ByteArrayInputStream(bytes), null);
+    }
+
+    /**
+     * Enregistre un flux (upload multipart ou corps binaire) sans le garder en
+     * mémoire : les octets passent par un tampon fixe vers un fichier temporaire,
+     * le SHA-256 est calculé au fil de l'eau, puis le fichier est renommé sous
+     * sa clé. Dépasser la taille maximale interrompt la lecture.
+     *
+     * @param declaredType type annoncé par le client, vérifié s'il est présent ;
+     *                     le contenu est de toute façon reconnu par ses premiers octets
+     */
+    public String store(InputStream in, String declaredType) {
+        if (declaredType != null && !ALLOWED_TYPES.contains(declaredType.toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException(UNSUPPORTED_FORMAT);
+        }
+        MessageDigest digest = sha256();
+        try {
+            Path incoming = root.resolve(INCOMING_DIR);
+            Files.createDirectories(incoming);
+            Path tmp = Files.createTempFile(incoming, "upload", ".tmp");
+            try {
+                long total = 0;
+                byte[] head = new byte[HEAD_BYTES];
+                int headLength = 0;
+                byte[] chunk = new byte[COPY_BUFFER_BYTES];
+                try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    int n;
+                    while ((n = in.read(chunk)) != -1) {
+                        total += n;
+                        if (total > maxBytes) {
+                            throw new IllegalArgumentException(
+                                    "Image trop grande (max " + maxBytes / (1024 * 1024) + " Mo)");
+                        }
+                        if (headLength < HEAD_BYTES) {
+                            int copied = Math.min(n, HEAD_BYTES - headLength);
+                            System.arraycopy(chunk, 0, head, headLength, copied);
+                            headLength += copied;
+                            // Assez d'octets pour reconnaître le format : on refuse tôt plutôt qu'après 5 Mo
+                            if (headLength == HEAD_BYTES && contentTypeOf(head).isEmpty()) {
+                                throw new IllegalArgumentException(UNSUPPORTED_FORMAT);
+                            }
+                        }
+                        digest.update(chunk, 0, n);
+                        ByteBuffer out = ByteBuffer.wrap(chunk, 0, n);
+                        while (out.hasRemaining()) {
+                            channel.write(out);
+                        }
+                    }
+                    if (total == 0) {
+                        throw new IllegalArgumentException("Image vide");
+                    }
+                    if (contentTypeOf(Arrays.copyOf(head, headLength)).isEmpty()) {
+                        throw new IllegalArgumentException(UNSUPPORTED_FORMAT);
+                    }
+                    channel.force(true);
+                }
+
+                String key = HexFormat.of().formatHex(digest.digest());
+                Path target = resolve(key);
+                if (!Files.exists(target)) {
+                    Files.createDirectories(target.getParent());
+                    // Renommage sur le même disque : un lecteur ne voit jamais un fichier à moitié écrit
+                    moveIntoPlace(tmp, target);
+                } else {
+                    touch(target);
+                }
+                return key;
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'enregistrer l'image", e);
+        }
+    }
+
+    /**
+     * Supprime les images (originaux, variantes, fichiers temporaires)
+     * qu'aucun terrain ne référence et qui n'ont pas été écrites ni
+     * renvoyées depuis {@code olderThan}. Le délai laisse au propriétaire le
+     * temps d'enregistrer le terrain après l'upload.
+     *
+     * @return nombre de fichiers supprimés
+     */
+    public int deleteUnreferenced(Set<String> referenced, Instant olderThan) {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String name = file.getFileName().toString();
+                // "<clé>", "<clé>-<variante>", "<clé>….tmp" ou un upload interrompu dans .incoming
+                String key = name.length() >= 64 ? name.substring(0, 64) : null;
+                boolean incoming = file.getParent().getFileName().toString().equals(INCOMING_DIR);
+                if (!incoming && (!isKey(key) || referenced.contains(key))) {
+                    continue;
+                }
+                try {
+                    if (Files.getLastModifiedTime(file).toInstant().isBefore(olderThan)
+                            && Files.deleteIfExists(file)) {
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    System.err.println("Could not delete unreferenced image " + file + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de parcourir les images", e);
+        }
+        return deleted;
+    }
+
+    // Image de nouveau utilisée : repart pour un délai de grâce complet avant un éventuel nettoyage
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'enregistrer l'image", e);
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private static void moveIntoPlace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // même contenu enregistré en parallèle
+        } catch (AtomicMoveNotSupportedException e) {
+            if (!Files.exists(target)) {
+                Files.move(tmp, target);
+            }
+        }
+    }
+
+    public static boolean isKey(String key) {
+        return key != null && KEY.matcher(key).matches();
+    }
+
+    public boolean exists(String key) {
+        return isKey(key) && Files.isRegularFile(resolve(key));
+    }
+
+    public Path resolve(String key) {
+        if (!isKey(key)) {
+            throw new IllegalArgumentException("Clé d'image invalide");
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    /**
+     * Fichier d'une variante redimensionnée ({@link ImageVariants}), à côté de l'original.
+     */
+    public Path resolveVariant(String key, String variant) {
+        Path original = resolve(key);
+        return original.resolveSibling(key + "-" + variant);
+    }
+
+    public MediaType contentType(String key) {
+        return contentType(resolve(key));
+    }
+
+    public MediaType contentType(Path file) {
+        byte[] head = new byte[HEAD_BYTES];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n = in.readNBytes(head, 0, head.length);
+            return contentTypeOf(Arrays.copyOf(head, n)).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        } catch (IOException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    /**
+     * URL publique de l'image, sous {@code storage.images.public-base-url}.
+     */
+    public String urlOf(String key) {
+        return urlOf(key, null);
+    }
+
+    /**
+     * Idem, pour une variante ({@code thumb}, {@code card}, {@code full}) ; null = original.
+     */
+    public String urlOf(String key, String variant) {
+        if (key == null) {
+            return null;
+        }
+        String query = variant != null ? "?size=" + variant : "";
+        return publicBaseUrl + "/api/images/" + key + query;
+    }
+
+    // Reconnaît les formats affichables par le front à leurs premiers octets
+    static Optional<MediaType> contentTypeOf(byte[] b) {
+        if (b.length >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return Optional.of(MediaType.IMAGE_JPEG);
+        }
+        if (b.length >= 8 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G') {
+            return Optional.of(MediaType.IMAGE_PNG);
+        }
+        if (b.length >= 6 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8') {
+            return Optional.of(MediaType.IMAGE_GIF);
+        }
+        if (b.length >= 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return Optional.of(MediaType.parseMediaType("image/webp"));
+        }
+        return Optional.empty();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
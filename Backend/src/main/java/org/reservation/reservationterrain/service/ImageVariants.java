@@ -0,0 +1,228 @@
+package org.reservation.reservationterrain.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Versions redimensionnées des images de terrain (vignette, carte, plein
+ * écran), générées en tâche de fond et gardées sur disque à côté de
+ * l'original.
+ *
+ * Le pool de travail est borné (threads et file d'attente) : un afflux
+ * d'uploads ne peut pas saturer le CPU ni la mémoire, les images en trop sont
+ * simplement générées plus tard, à la première demande.
+ */
+@Component
+public class ImageVariants {
+
+    public enum Variant {
+        THUMB(160),
+        CARD(480),
+        FULL(1280);
+
+        private final int maxWidth;
+
+        Variant(int maxWidth) {
+            this.maxWidth = maxWidth;
+        }
+
+        public String id() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Optional<Variant> parse(String size) {
+            if (size == null) {
+                return Optional.empty();
+            }
+            for (Variant v : values()) {
+                if (v.id().equalsIgnoreCase(size.trim())) {
+                    return Optional.of(v);
+                }
+            }
+            throw new IllegalArgumentException("Taille d'image inconnue: " + size + " (thumb, card ou full)");
+        }
+    }
+
+    private final ImageStore imageStore;
+    private final ThreadPoolExecutor workers;
+    private final float jpegQuality;
+    private final long maxPixels;
+    // une seule génération à la fois par image
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    // images sans variantes possibles : l'original sert pour toutes les tailles
+    private final Set<String> originalOnly = ConcurrentHashMap.newKeySet();
+
+    public ImageVariants(ImageStore imageStore,
+            @Value("${storage.images.variants.workers:2}") int workerCount,
+            @Value("${storage.images.variants.queue:100}") int queueSize,
+            @Value("${storage.images.variants.jpeg-quality:0.82}") float jpegQuality,
+            @Value("${storage.images.variants.max-pixels:40000000}") long maxPixels) {
+        this.imageStore = imageStore;
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "image-variants-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Fichier de la variante s'il est déjà prêt ; sinon lance sa génération et
+     * renvoie vide (l'appelant sert l'original en attendant).
+     */
+    public Optional<Path> find(String key, Variant variant) {
+        Path file = imageStore.resolveVariant(key, variant.id());
+        if (Files.isRegularFile(file)) {
+            return Optional.of(file);
+        }
+        if (!originalOnly.contains(key)) {
+            generateAsync(key);
+        }
+        return Optional.empty();
+    }
+
+    public void generateAsync(String key) {
+        if (key == null || !inFlight.add(key)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    generate(key);
+                } catch (Exception e) {
+                    System.err.println("Image variants failed for " + key + ": " + e.getMessage());
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // file pleine : on réessaiera à la prochaine demande de cette image
+            inFlight.remove(key);
+        }
+    }
+
+    void generate(String key) throws IOException {
+        BufferedImage source = read(imageStore.resolve(key));
+        if (source == null) {
+            // format sans décodeur dans le JDK (WebP) ou image démesurée : l'original est servi pour toutes les tailles
+            originalOnly.add(key);
+            return;
+        }
+        boolean alpha = source.getColorModel().hasAlpha();
+        for (Variant variant : Variant.values()) {
+            Path target = imageStore.resolveVariant(key, variant.id());
+            if (Files.isRegularFile(target)) {
+                continue;
+            }
+            BufferedImage scaled = scale(source, variant.maxWidth, alpha);
+            Path tmp = Files.createTempFile(target.getParent(), key, ".tmp");
+            try {
+                if (alpha) {
+                    ImageIO.write(scaled, "png", tmp.toFile());
+                } else {
+                    writeJpeg(scaled, tmp);
+                }
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    // Checks the dimensions from the header first: a 5 MB PNG can still decode to several GB of pixels
+    private BufferedImage read(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Réduit par moitiés successives puis à la taille finale : bien plus net qu'une seule passe bilinéaire
+    private static BufferedImage scale(BufferedImage source, int maxWidth, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int targetWidth = Math.min(maxWidth, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * (double) targetWidth / source.getWidth()));
+
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(targetHeight, h / 2);
+            BufferedImage step = new BufferedImage(w, h, type);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (w != targetWidth || h != targetHeight);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
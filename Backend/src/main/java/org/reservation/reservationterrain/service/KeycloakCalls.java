@@ -0,0 +1,239 @@
+package org.reservation.reservationterrain.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.core.Response;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Point de passage de tous les appels à Keycloak (logins, vérifications de
+ * mot de passe, API d'administration).
+ *
+ * <ul>
+ * <li>Bulkhead par API : au plus {@code keycloak.bulkhead.token} appels de
+ * token et {@code keycloak.bulkhead.admin} appels d'administration en cours ;
+ * au-delà, on attend {@code keycloak.bulkhead.max-wait-ms} puis on refuse.
+ * Une rafale de logins ne prive donc pas les inscriptions, et inversement.
+ * Les appels non bloquants ({@link #recordAsync}) attendent sans occuper de
+ * thread : nouvel essai toutes les {@value #BULKHEAD_RETRY_MS} ms.</li>
+ * <li>Disjoncteur ({@link KeycloakCircuitBreaker}) : Keycloak en erreur ou
+ * trop lent (timeouts du client HTTP, voir KeycloakConfig), les appels
+ * échouent aussitôt au lieu d'attendre chacun leur timeout.</li>
+ * </ul>
+ * Un refus lève {@link KeycloakUnavailableException}.
+ *
+ * Métriques : timer {@code keycloak.requests}, étiqueté par API (token pour
+ * les logins, admin pour l'API d'administration), par opération (nom fixe
+ * choisi à l'appel, jamais un identifiant ou une URL) et par issue : success,
+ * rejected (réponse 4xx : mauvais mot de passe, utilisateur déjà existant...)
+ * ou error (Keycloak injoignable ou en erreur) ; compteur
+ * {@code keycloak.requests.refused} par API et par motif (circuit-open,
+ * bulkhead-full).
+ */
+@Component
+public class KeycloakCalls {
+
+    public static final String TOKEN = "token";
+    public static final String ADMIN = "admin";
+
+    private static final long BULKHEAD_RETRY_MS = 10;
+    private static final RuntimeException BULKHEAD_FULL = new BulkheadFullException();
+
+    private final MeterRegistry registry;
+    private final Map<String, Bulkhead> bulkheads;
+    private final long bulkheadWaitMs;
+    private final KeycloakCircuitBreaker circuit;
+
+    public KeycloakCalls(MeterRegistry registry,
+            @Value("${keycloak.bulkhead.token:40}") int tokenPermits,
+            @Value("${keycloak.bulkhead.admin:10}") int adminPermits,
+            @Value("${keycloak.bulkhead.max-wait-ms:250}") long bulkheadWaitMs,
+            @Value("${keycloak.circuit.window:20}") int circuitWindow,
+            @Value("${keycloak.circuit.failure-rate:50}") int circuitFailureRate,
+            @Value("${keycloak.circuit.open-ms:10000}") long circuitOpenMs) {
+        this.registry = registry;
+        this.bulkheads = Map.of(TOKEN, new Bulkhead(tokenPermits), ADMIN, new Bulkhead(adminPermits));
+        this.bulkheadWaitMs = bulkheadWaitMs;
+        this.circuit = new KeycloakCircuitBreaker(circuitWindow, circuitFailureRate, circuitOpenMs);
+    }
+
+    private record Bulkhead(Semaphore permits, int capacity) {
+        Bulkhead(int capacity) {
+            this(new Semaphore(capacity), capacity);
+        }
+    }
+
+    public <T> T record(String api, String operation, Supplier<T> call) {
+        if (!circuit.tryAcquire()) {
+            throw circuitOpen(api);
+        }
+        Semaphore bulkhead = bulkheads.get(api).permits();
+        if (!acquire(bulkhead)) {
+            circuit.onAbandoned();
+            throw bulkheadFull(api);
+        }
+
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = result instanceof Response response ? outcomeOf(response.getStatus()) : "success";
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            bulkhead.release();
+            complete(api, operation, outcome, start);
+        }
+    }
+
+    /**
+     * Version non bloquante de {@link #record} : {@code call} n'est souscrit
+     * qu'une fois le disjoncteur et le bulkhead passés. Une annulation (client
+     * parti) rend la place sans compter d'échec.
+     */
+    public <T> Mono<T> recordAsync(String api, String operation, Mono<T> call) {
+        Semaphore bulkhead = bulkheads.get(api).permits();
+        return Mono.defer(() -> {
+            if (!circuit.tryAcquire()) {
+                return Mono.error(circuitOpen(api));
+            }
+            AtomicBoolean started = new AtomicBoolean();
+            Mono<T> attempt = Mono.defer(() -> {
+                if (!bulkhead.tryAcquire()) {
+                    return Mono.error(BULKHEAD_FULL);
+                }
+                started.set(true);
+                long start = System.nanoTime();
+                AtomicBoolean finished = new AtomicBoolean();
+                // retryWhen annule aussi la source après une erreur : un seul passage
+                Consumer<String> finish = outcome -> {
+                    if (finished.compareAndSet(false, true)) {
+                        bulkhead.release();
+                        if (outcome == null) {
+                            circuit.onAbandoned();
+                        } else {
+                            complete(api, operation, outcome, start);
+                        }
+                    }
+                };
+                return call
+                        .doOnSuccess(result -> finish.accept("success"))
+                        .doOnError(e -> finish.accept(outcomeOf(e)))
+                        .doOnCancel(() -> finish.accept(null));
+            });
+            return attempt
+                    .retryWhen(Retry.fixedDelay(bulkheadWaitMs / BULKHEAD_RETRY_MS,
+                            Duration.ofMillis(BULKHEAD_RETRY_MS))
+                            .filter(e -> e == BULKHEAD_FULL)
+                            .onRetryExhaustedThrow((spec, signal) -> bulkheadFull(api)))
+                    .doOnError(e -> {
+                        if (!started.get()) {
+                            circuit.onAbandoned();
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (!started.get()) {
+                            circuit.onAbandoned();
+                        }
+                    });
+        });
+    }
+
+    public void run(String api, String operation, Runnable call) {
+        record(api, operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /** 0 fermé, 1 ouvert, 2 mi-ouvert (essai en cours ou possible). */
+    public int getCircuitState() {
+        return circuit.getState().ordinal();
+    }
+
+    /** Appels de {@code api} en cours. */
+    public int getInFlight(String api) {
+        Bulkhead bulkhead = bulkheads.get(api);
+        return bulkhead.capacity() - bulkhead.permits().availablePermits();
+    }
+
+    private boolean acquire(Semaphore bulkhead) {
+        try {
+            return bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void complete(String api, String operation, String outcome, long start) {
+        if (outcome.equals("error")) {
+            circuit.onFailure();
+        } else {
+            circuit.onSuccess();
+        }
+        Timer.builder("keycloak.requests")
+                .tag("api", api)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private KeycloakUnavailableException circuitOpen(String api) {
+        return refused(api, "circuit-open", "Keycloak indisponible, réessayez dans quelques secondes");
+    }
+
+    private KeycloakUnavailableException bulkheadFull(String api) {
+        return refused(api, "bulkhead-full", "Keycloak surchargé, réessayez dans quelques secondes");
+    }
+
+    private KeycloakUnavailableException refused(String api, String reason, String message) {
+        Counter.builder("keycloak.requests.refused")
+                .tag("api", api)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+        return new KeycloakUnavailableException(message);
+    }
+
+    private static String outcomeOf(Throwable e) {
+        if (e instanceof ClientErrorException) {
+            return "rejected";
+        }
+        if (e instanceof WebClientResponseException response) {
+            return outcomeOf(response.getStatusCode().value());
+        }
+        return "error";
+    }
+
+    private static String outcomeOf(int status) {
+        if (status < 400) {
+            return "success";
+        }
+        return status < 500 ? "rejected" : "error";
+    }
+
+    /** Bulkhead plein pendant l'attente non bloquante ; sans pile, il ne sort jamais de recordAsync. */
+    private static final class BulkheadFullException extends RuntimeException {
+        BulkheadFullException() {
+            super("bulkhead full", null, false, false);
+        }
+    }
+}
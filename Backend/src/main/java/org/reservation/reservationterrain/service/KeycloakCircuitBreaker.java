@@ -0,0 +1,146 @@
+package org.reservation.reservationterrain.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Disjoncteur des appels à Keycloak, sur les {@code window} derniers appels.
+ *
+ * Fermé : tout passe ; dès que la moitié de la fenêtre est remplie et que la
+ * part d'échecs atteint {@code failureRatePercent}, il s'ouvre et refuse tout
+ * pendant {@code openMillis}. Il passe ensuite à mi-ouvert : un seul appel
+ * d'essai, qui le referme s'il réussit et le rouvre sinon. Un échec est une
+ * erreur de Keycloak (5xx, timeout, connexion refusée) ; un refus 4xx prouve
+ * au contraire qu'il répond.
+ */
+final class KeycloakCircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // fenêtre glissante : true = échec
+    private final boolean[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    KeycloakCircuitBreaker(int window, int failureRatePercent, long openMillis) {
+        if (window < 2 || failureRatePercent < 1 || failureRatePercent > 100) {
+            throw new IllegalArgumentException("Fenêtre d'au moins 2 appels et taux d'échec entre 1 et 100 requis");
+        }
+        this.outcomes = new boolean[window];
+        this.failureRatePercent = failureRatePercent;
+        this.openNanos = openMillis * 1_000_000;
+    }
+
+    /** false : l'appel doit échouer tout de suite, sans contacter Keycloak. */
+    boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                reset();
+                state = State.CLOSED;
+                System.out.println("Keycloak circuit closed");
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open("trial call failed");
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (recorded >= outcomes.length / 2 && failures * 100 >= failureRatePercent * recorded) {
+                    open(failures + " failures in the last " + recorded + " calls");
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Autorisation rendue sans appel (bulkhead plein) : libère l'essai du mode mi-ouvert. */
+    void onAbandoned() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                probeInFlight = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open(String reason) {
+        System.err.println("Keycloak circuit opened (" + reason + "), failing fast for " + openNanos / 1_000_000
+                + " ms");
+        reset();
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void reset() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        probeInFlight = false;
+    }
+}
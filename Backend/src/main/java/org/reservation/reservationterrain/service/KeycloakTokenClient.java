@@ -0,0 +1,59 @@
+package org.reservation.reservationterrain.service;
+
+import org.reservation.reservationterrain.dto.TokenResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Endpoint token du realm applicatif (grant password), pour les logins et
+ * les vérifications de mot de passe. Appels non bloquants : aucun thread
+ * n'attend la réponse de Keycloak (pool et timeouts du WebClient dans
+ * KeycloakConfig), concurrence bornée par {@link KeycloakCalls}.
+ */
+@Component
+public class KeycloakTokenClient {
+
+    private final WebClient webClient;
+    private final KeycloakCalls keycloakCalls;
+    private final String tokenUrl;
+    private final String clientId;
+
+    public KeycloakTokenClient(@Qualifier("keycloakWebClient") WebClient webClient,
+            KeycloakCalls keycloakCalls,
+            @Value("${keycloak.server-url}") String serverUrl,
+            @Value("${keycloak.realm}") String realm,
+            @Value("${keycloak.client-id:admin-cli}") String clientId) {
+        this.webClient = webClient;
+        this.keycloakCalls = keycloakCalls;
+        this.tokenUrl = serverUrl + "/realms/" + realm + "/protocol/openid-connect/token";
+        this.clientId = clientId;
+    }
+
+    /**
+     * Jetons de {@code username}. Échoue avec WebClientResponseException si
+     * Keycloak refuse (mauvais identifiants), KeycloakUnavailableException
+     * s'il n'a pas été appelé. Rien n'est envoyé avant la souscription.
+     */
+    public Mono<TokenResponse> passwordGrant(String operation, String username, String password) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "password");
+        form.add("client_id", clientId);
+        form.add("username", username);
+        form.add("password", password);
+
+        return keycloakCalls.recordAsync(KeycloakCalls.TOKEN, operation, webClient.post()
+                .uri(tokenUrl)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromFormData(form))
+                .retrieve()
+                .bodyToMono(TokenResponse.class));
+    }
+}
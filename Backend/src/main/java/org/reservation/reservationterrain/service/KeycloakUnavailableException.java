@@ -0,0 +1,16 @@
+package org.reservation.reservationterrain.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Appel à Keycloak refusé sans être envoyé : disjoncteur ouvert ou trop
+ * d'appels déjà en cours. Réponse 503 si elle remonte jusqu'au contrôleur.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class KeycloakUnavailableException extends RuntimeException {
+
+    public KeycloakUnavailableException(String message) {
+        super(message);
+    }
+}
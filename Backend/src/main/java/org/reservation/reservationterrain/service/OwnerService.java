@@ -19,18 +19,21 @@ import org.reservation.reservationterrain.model.Owner;
 import org.reservation.reservationterrain.model.Reservation;
 import org.reservation.reservationterrain.model.Terrain;
 import org.reservation.reservationterrain.repository.ComplexeRepository;
+import org.reservation.reservationterrain.repository.ComplexeStatsRepository;
 import org.reservation.reservationterrain.repository.OwnerRepository;
+import org.reservation.reservationterrain.repository.ReservationFilter;
 import org.reservation.reservationterrain.repository.ReservationRepository;
 import org.reservation.reservationterrain.repository.TerrainRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -43,26 +46,43 @@ public class OwnerService {
         private final ComplexeRepository complexeRepository;
         private final TerrainRepository terrainRepository;
         private final ReservationRepository reservationRepository;
-        private final RestTemplate restTemplate = new RestTemplate();
-
-        @Value("${keycloak.server-url}")
-        private String keycloakServerUrl;
-
-        @Value("${keycloak.client-id:admin-cli}")
-        private String clientId;
+        private final SlotAvailabilityIndex availabilityIndex;
+        private final ApplicationEventPublisher eventPublisher;
+        private final ComplexeStatsService statsService;
+        private final ReservationService reservationService;
+        private final ImageStore imageStore;
+        private final ImageVariants imageVariants;
+        private final KeycloakCalls keycloakCalls;
+        private final KeycloakTokenClient tokenClient;
 
         public OwnerService(Keycloak keycloak,
                         @Value("${keycloak.realm}") String keycloakRealmName,
                         OwnerRepository ownerRepository,
                         ComplexeRepository complexeRepository,
                         TerrainRepository terrainRepository,
-                        ReservationRepository reservationRepository) {
+                        ReservationRepository reservationRepository,
+                        SlotAvailabilityIndex availabilityIndex,
+                        ApplicationEventPublisher eventPublisher,
+                        ComplexeStatsService statsService,
+                        ReservationService reservationService,
+                        ImageStore imageStore,
+                        ImageVariants imageVariants,
+                        KeycloakCalls keycloakCalls,
+                        KeycloakTokenClient tokenClient) {
                 this.keycloak = keycloak;
                 this.realm = keycloakRealmName;
                 this.ownerRepository = ownerRepository;
                 this.complexeRepository = complexeRepository;
                 this.terrainRepository = terrainRepository;
                 this.reservationRepository = reservationRepository;
+                this.availabilityIndex = availabilityIndex;
+                this.eventPublisher = eventPublisher;
+                this.statsService = statsService;
+                this.reservationService = reservationService;
+                this.imageStore = imageStore;
+                this.imageVariants = imageVariants;
+                this.keycloakCalls = keycloakCalls;
+                this.tokenClient = tokenClient;
         }
 
         public Owner createOwner(OwnerRegistrationDTO request) {
@@ -83,7 +103,8 @@ public class OwnerService {
                 RealmResource realmResource = keycloak.realm(realm);
                 UsersResource usersResource = realmResource.users();
 
-                Response response = usersResource.create(user);
+                Response response = keycloakCalls.record(KeycloakCalls.ADMIN, "users.create",
+                                () -> usersResource.create(user));
                 if (response.getStatus() >= 300) {
                         // If user already exists in Keycloak, we might want to handle it gracefully
                         // For now, throw exception
@@ -96,8 +117,10 @@ public class OwnerService {
 
                 // 2. Assign Role OWNER
                 try {
-                        var roleRepresentation = realmResource.roles().get("OWNER").toRepresentation();
-                        usersResource.get(keycloakId).roles().realmLevel().add(List.of(roleRepresentation));
+                        keycloakCalls.run(KeycloakCalls.ADMIN, "roles.assign", () -> {
+                                var roleRepresentation = realmResource.roles().get("OWNER").toRepresentation();
+                                usersResource.get(keycloakId).roles().realmLevel().add(List.of(roleRepresentation));
+                        });
                 } catch (Exception e) {
                         System.err.println("Warning: Could not assign OWNER role: " + e.getMessage());
                 }
@@ -111,9 +134,12 @@ public class OwnerService {
                 owner.setNumTele(request.getNumTele());
                 owner.setRole("OWNER");
 
-                return ownerRepository.save(owner);
+                Owner saved = ownerRepository.save(owner);
+                eventPublisher.publishEvent(new CatalogChangedEvent("owner"));
+                return saved;
         }
 
+        @Transactional(readOnly = true)
         public OwnerProfileDTO getOwnerProfile(String email) {
                 Owner owner = ownerRepository.findByEmail(email)
                                 .orElseThrow(() -> new RuntimeException("Owner not found with email: " + email));
@@ -133,6 +159,16 @@ public class OwnerService {
                                 .build();
         }
 
+        /**
+         * Photo envoyée à part (multipart ou binaire brut), enregistrée en flux.
+         * Le formulaire du terrain renvoie ensuite l'URL obtenue dans son champ image.
+         */
+        public Map<String, String> uploadTerrainImage(InputStream in, String contentType) {
+                String key = imageStore.store(in, contentType);
+                imageVariants.generateAsync(key);
+                return Map.of("key", key, "url", imageStore.urlOf(key));
+        }
+
         public Terrain addTerrain(String ownerEmail, TerrainDTO terrainDTO) {
                 Owner owner = ownerRepository.findByEmail(ownerEmail)
                                 .orElseThrow(() -> new RuntimeException("Owner not found"));
@@ -164,12 +200,17 @@ public class OwnerService {
                 terrain.setHeureFermeture(terrainDTO.getHeureFermeture() != null ? terrainDTO.getHeureFermeture() : 22);
                 terrain.setDureeCreneau(terrainDTO.getDureeCreneau() != null ? terrainDTO.getDureeCreneau() : 60);
 
-                terrain.setImage(terrainDTO.getImage());
+                terrain.setImageHash(imageStore.storeFromClient(terrainDTO.getImage()));
+                imageVariants.generateAsync(terrain.getImageHash());
                 terrain.setComplexe(complexe);
 
-                return terrainRepository.save(terrain);
+                Terrain saved = terrainRepository.save(terrain);
+                statsService.onTerrainsChanged(complexe.getId());
+                eventPublisher.publishEvent(new CatalogChangedEvent("terrain"));
+                return saved;
         }
 
+        @Transactional(readOnly = true)
         public List<TerrainDTO> getMyTerrains(String ownerEmail) {
                 Owner owner = ownerRepository.findByEmail(ownerEmail)
                                 .orElseThrow(() -> new RuntimeException("Owner not found"));
@@ -187,7 +228,7 @@ public class OwnerService {
                                                 .heureOuverture(t.getHeureOuverture())
                                                 .heureFermeture(t.getHeureFermeture())
                                                 .dureeCreneau(t.getDureeCreneau())
-                                                .image(t.getImage())
+                                                .image(imageStore.urlOf(t.getImageHash(), ImageVariants.Variant.CARD.id()))
                                                 .build())
                                 .collect(Collectors.toList());
         }
@@ -204,6 +245,7 @@ public class OwnerService {
                         owner.setNumTele(profileDTO.getNumTele());
 
                 ownerRepository.save(owner);
+                eventPublisher.publishEvent(new CatalogChangedEvent("owner"));
         }
 
         public void updateOwnerComplexe(String email, ComplexeDTO complexeDTO) {
@@ -228,6 +270,7 @@ public class OwnerService {
                         complexe.setAdress(complexeDTO.getAdress());
 
                 complexeRepository.save(complexe);
+                eventPublisher.publishEvent(new CatalogChangedEvent("complexe"));
         }
 
         public void changePassword(String email, PasswordChangeRequest request) {
@@ -247,18 +290,14 @@ public class OwnerService {
 
                 // 4. Update in Keycloak
                 try {
-                        System.out.println("DEBUG: Keycloak update for " + email);
-                        System.out.println("DEBUG: Keycloak ID in DB: " + owner.getKeycloakId());
-
                         // Cross-check ID by searching by email
-                        List<UserRepresentation> foundUsers = keycloak.realm(realm).users().search(email, true);
+                        List<UserRepresentation> foundUsers = keycloakCalls.record(KeycloakCalls.ADMIN,
+                                        "users.search", () -> keycloak.realm(realm).users().search(email, true));
                         if (!foundUsers.isEmpty()) {
                                 String actualId = foundUsers.get(0).getId();
-                                System.out.println("DEBUG: Keycloak ID found by email search: " + actualId);
                                 if (!actualId.equals(owner.getKeycloakId())) {
-                                        System.err.println(
-                                                        "DEBUG: WARNING - Mismatch detected! Updating DB with actual ID: "
-                                                                        + actualId);
+                                        System.err.println("Keycloak ID mismatch for owner " + owner.getId()
+                                                        + ", updating DB with the ID found by email");
                                         owner.setKeycloakId(actualId);
                                         ownerRepository.save(owner);
                                 }
@@ -267,47 +306,34 @@ public class OwnerService {
                         UserResource userResource = keycloak.realm(realm).users().get(owner.getKeycloakId());
 
                         // Try to get representative to check if user exists
-                        UserRepresentation userRep = userResource.toRepresentation();
-                        System.out.println("DEBUG: Keycloak User found: " + userRep.getUsername() + " (Email: "
-                                        + userRep.getEmail() + ")");
-                        System.out.println("DEBUG: Required Actions: " + userRep.getRequiredActions());
+                        keycloakCalls.record(KeycloakCalls.ADMIN, "users.get", userResource::toRepresentation);
                         CredentialRepresentation credential = new CredentialRepresentation();
                         credential.setType(CredentialRepresentation.PASSWORD);
                         credential.setValue(request.getNewPassword());
                         credential.setTemporary(false);
 
-                        userResource.resetPassword(credential);
-                        System.out.println("DEBUG: Password reset command sent successfully");
+                        keycloakCalls.run(KeycloakCalls.ADMIN, "users.reset-password",
+                                        () -> userResource.resetPassword(credential));
                 } catch (Exception e) {
-                        System.err.println("DEBUG: Keycloak Error: " + e.getMessage());
+                        System.err.println("Keycloak password reset failed for owner " + owner.getId() + ": "
+                                        + e.getMessage());
                         throw new RuntimeException("Erreur Keycloak: " + e.getMessage());
                 }
         }
 
         private boolean verifyCurrentPassword(String email, String password) {
-                String tokenUrl = keycloakServerUrl + "/realms/" + realm + "/protocol/openid-connect/token";
-
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
-                MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
-                body.add("grant_type", "password");
-                body.add("client_id", clientId);
-                body.add("username", email);
-                body.add("password", password);
-
-                HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(body, headers);
-
                 try {
-                        ResponseEntity<String> response = restTemplate.exchange(tokenUrl, HttpMethod.POST, entity,
-                                        String.class);
-                        return response.getStatusCode() == HttpStatus.OK;
+                        tokenClient.passwordGrant("verify-password", email, password).block();
+                        return true;
+                } catch (KeycloakUnavailableException e) {
+                        throw e;
                 } catch (Exception e) {
                         System.err.println("Password verification failed for " + email + ": " + e.getMessage());
                         return false;
                 }
         }
 
+        @Transactional
         public Terrain updateTerrain(String ownerEmail, Long terrainId, TerrainDTO terrainDTO) {
                 Owner owner = ownerRepository.findByEmail(ownerEmail)
                                 .orElseThrow(() -> new RuntimeException("Owner not found"));
@@ -323,6 +349,9 @@ public class OwnerService {
                         throw new RuntimeException("Unauthorized: This terrain does not belong to your complex.");
                 }
 
+                String previousPrix = terrain.getPrixTerrain();
+                String previousStatus = terrain.getStatus();
+
                 // Update fields
                 if (terrainDTO.getNom() != null)
                         terrain.setNom(terrainDTO.getNom());
@@ -334,16 +363,34 @@ public class OwnerService {
                         terrain.setHeureFermeture(terrainDTO.getHeureFermeture());
                 if (terrainDTO.getDureeCreneau() != null)
                         terrain.setDureeCreneau(terrainDTO.getDureeCreneau());
-                if (terrainDTO.getImage() != null)
-                        terrain.setImage(terrainDTO.getImage());
+                if (terrainDTO.getImage() != null) {
+                        terrain.setImageHash(imageStore.storeFromClient(terrainDTO.getImage()));
+                        imageVariants.generateAsync(terrain.getImageHash());
+                }
 
                 // Handle Status Update if provided (e.g. for Disable/Enable)
                 if (terrainDTO.getStatus() != null)
                         terrain.setStatus(terrainDTO.getStatus());
 
-                return terrainRepository.save(terrain);
+                // Opening hours or slot length changed: the slot grid of this terrain must be rebuilt
+                if (terrainDTO.getHeureOuverture() != null || terrainDTO.getHeureFermeture() != null
+                                || terrainDTO.getDureeCreneau() != null)
+                        availabilityIndex.invalidateTerrain(terrain.getId());
+
+                Terrain saved = terrainRepository.save(terrain);
+
+                // Dashboard counters: revenue is computed at the current price, active terrains by status
+                statsService.onPriceChanged(complexe.getId(), saved.getId(), previousPrix, saved.getPrixTerrain());
+                if (!java.util.Objects.equals(previousStatus, saved.getStatus())) {
+                        terrainRepository.flush();
+                        statsService.onTerrainsChanged(complexe.getId());
+                }
+
+                eventPublisher.publishEvent(new CatalogChangedEvent("terrain"));
+                return saved;
         }
 
+        @Transactional(readOnly = true)
         public List<ReservationDTO> getReservations(String email, Long terrainId, LocalDate date) {
                 Owner owner = ownerRepository.findByEmail(email)
                                 .orElseThrow(() -> new RuntimeException("Owner not found"));
@@ -352,31 +399,37 @@ public class OwnerService {
                 if (complexe == null)
                         return java.util.Collections.emptyList();
 
-                // Use the existing Repository method for filtering by Complex
+                // Only the supplied criteria end up in the query: (terrain_id, date) index for a day view
                 return reservationRepository
-                                .findReservationsByFilters(complexe.getId(), terrainId, null, date, date, null, null,
-                                                null)
+                                .findViews(new ReservationFilter(complexe.getId(), terrainId, null, date, date,
+                                                null, null, null))
                                 .stream()
-                                .map(res -> ReservationDTO.builder()
-                                                .id(res.getId())
-                                                .status(res.getStatus())
-                                                .date(res.getDate())
-                                                .heureDebut(res.getHeureDebut())
-                                                .heureFin(res.getHeureFin())
-                                                .duree(res.getDuree())
-                                                .clientNom(res.getClient().getNom())
-                                                .clientPrenom(res.getClient().getPrenom())
-                                                .clientNumTele(res.getClient().getNumTele())
-                                                .terrainNom(res.getTerrain().getNom())
-                                                .prixTerrain(res.getTerrain().getPrixTerrain())
-                                                .build())
+                                .map(OwnerService::toReservationDTO)
                                 .collect(Collectors.toList());
         }
 
+        static ReservationDTO toReservationDTO(ReservationRepository.ListView res) {
+                return ReservationDTO.builder()
+                                .id(res.getId())
+                                .status(res.getStatus())
+                                .date(res.getDate())
+                                .heureDebut(res.getHeureDebut())
+                                .heureFin(res.getHeureFin())
+                                .duree(res.getDuree())
+                                .clientNom(res.getClientNom())
+                                .clientPrenom(res.getClientPrenom())
+                                .clientNumTele(res.getClientNumTele())
+                                .terrainNom(res.getTerrainNom())
+                                .prixTerrain(res.getPrixTerrain())
+                                .build();
+        }
+
+        @Transactional
         public void validateReservation(String email, Long reservationId) {
                 updateReservationStatus(email, reservationId, "VALIDEE");
         }
 
+        @Transactional
         public void cancelReservation(String email, Long reservationId) {
                 updateReservationStatus(email, reservationId, "ANNULEE");
         }
@@ -398,10 +451,11 @@ public class OwnerService {
                         throw new RuntimeException("Unauthorized: This reservation does not belong to your complex.");
                 }
 
-                reservation.setStatus(newStatus);
-                reservationRepository.save(reservation);
+                // Re-validating a cancelled reservation takes its slot back: checked like a booking
+                reservationService.changeStatus(reservation, newStatus);
         }
 
+        @Transactional(readOnly = true)
         public OwnerDashboardStatsDTO getDashboardStats(String email) {
                 Owner owner = ownerRepository.findByEmail(email)
                                 .orElseThrow(() -> new RuntimeException("Owner not found"));
@@ -419,61 +473,26 @@ public class OwnerService {
 
                 Long complexId = complexe.getId();
 
-                // 1. Total Reservations
-                long totalReservations = reservationRepository.countByTerrain_Complexe_Id(complexId);
-
-                // 2. Active Terrains
-                long activeTerrains = terrainRepository.countByComplexe_IdAndStatus(complexId, "OUVERT");
-
-                // 3. Pending Reservations (New confirmed reservations are considered "Pending"
-                // for the owner)
-                long pendingReservations = reservationRepository.countByTerrain_Complexe_IdAndStatus(complexId,
-                                "CONFIRMEE");
-
-                // 4. Total Revenue (Calculate from VALIDEE and CONFIRMEE reservations)
-                List<Reservation> revenueReservations = reservationRepository
-                                .findByTerrain_Complexe_IdAndStatus(complexId, "VALIDEE");
-                revenueReservations.addAll(reservationRepository
-                                .findByTerrain_Complexe_IdAndStatus(complexId, "CONFIRMEE"));
-
-                double totalRevenue = revenueReservations.stream()
-                                .mapToDouble(res -> {
-                                        try {
-                                                return Double.parseDouble(res.getTerrain().getPrixTerrain());
-                                        } catch (NumberFormatException e) {
-                                                return 0.0;
-                                        }
-                                })
-                                .sum();
+                // 1-4. Counters maintained incrementally (see ComplexeStatsService): one statement
+                ComplexeStatsRepository.Totals stats = statsService.get(complexId);
 
                 // 5. Recent Reservations
                 List<ReservationDTO> recentReservations = reservationRepository
-                                .findTop3ByTerrain_Complexe_IdOrderByDateDescHeureDebutDesc(complexId)
+                                .findRecentViewsByComplexeId(complexId, Limit.of(3))
                                 .stream()
-                                .map(res -> ReservationDTO.builder()
-                                                .id(res.getId())
-                                                .status(res.getStatus())
-                                                .date(res.getDate())
-                                                .heureDebut(res.getHeureDebut())
-                                                .heureFin(res.getHeureFin())
-                                                .duree(res.getDuree())
-                                                .clientNom(res.getClient().getNom())
-                                                .clientPrenom(res.getClient().getPrenom())
-                                                .clientNumTele(res.getClient().getNumTele())
-                                                .terrainNom(res.getTerrain().getNom())
-                                                .prixTerrain(res.getTerrain().getPrixTerrain())
-                                                .build())
+                                .map(OwnerService::toReservationDTO)
                                 .collect(Collectors.toList());
 
                 return OwnerDashboardStatsDTO.builder()
-                                .totalReservations(totalReservations)
-                                .activeTerrains(activeTerrains)
-                                .pendingReservations(pendingReservations)
-                                .totalRevenue(totalRevenue)
+                                .totalReservations(stats.getTotalReservations())
+                                .activeTerrains(stats.getActiveTerrains())
+                                .pendingReservations(stats.getPendingReservations())
+                                .totalRevenue(stats.getRevenue())
                                 .recentReservations(recentReservations)
                                 .build();
         }
 
+        @Transactional(readOnly = true)
         public List<OwnerProfileDTO> getAllOwners() {
                 return ownerRepository.findAll().stream()
                                 .map(owner -> {
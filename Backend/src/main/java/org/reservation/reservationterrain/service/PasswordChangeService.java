@@ -7,11 +7,7 @@ import org.reservation.reservationterrain.dto.PasswordChangeRequest;
 import org.reservation.reservationterrain.model.Client;
 import org.reservation.reservationterrain.repository.ClientRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
 
 @Service
 public class PasswordChangeService {
@@ -19,20 +15,19 @@ public class PasswordChangeService {
     private final Keycloak keycloak;
     private final String realm;
     private final ClientRepository clientRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    @Value("${keycloak.server-url}")
-    private String keycloakServerUrl;
-
-    @Value("${keycloak.client-id:admin-cli}")
-    private String clientId;
+    private final KeycloakCalls keycloakCalls;
+    private final KeycloakTokenClient tokenClient;
 
     public PasswordChangeService(Keycloak keycloak,
                                   @Value("${keycloak.realm}") String realm,
-                                  ClientRepository clientRepository) {
+                                  ClientRepository clientRepository,
+                                  KeycloakCalls keycloakCalls,
+                                  KeycloakTokenClient tokenClient) {
         this.keycloak = keycloak;
         this.realm = realm;
         this.clientRepository = clientRepository;
+        this.keycloakCalls = keycloakCalls;
+        this.tokenClient = tokenClient;
     }
 
     public void changePassword(String email, PasswordChangeRequest request) {
@@ -60,34 +55,20 @@ public class PasswordChangeService {
             credential.setValue(request.getNewPassword());
             credential.setTemporary(false);
 
-            userResource.resetPassword(credential);
+            keycloakCalls.run(KeycloakCalls.ADMIN, "users.reset-password",
+                    () -> userResource.resetPassword(credential));
         } catch (Exception e) {
             throw new RuntimeException("Erreur lors du changement de mot de passe: " + e.getMessage());
         }
     }
 
     private boolean verifyCurrentPassword(String email, String password) {
-        String tokenUrl = keycloakServerUrl + "/realms/" + realm + "/protocol/openid-connect/token";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
-        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
-        body.add("grant_type", "password");
-        body.add("client_id", clientId);
-        body.add("username", email);
-        body.add("password", password);
-
-        HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(body, headers);
-
         try {
-            ResponseEntity<String> response = restTemplate.exchange(
-                    tokenUrl,
-                    HttpMethod.POST,
-                    entity,
-                    String.class
-            );
-            return response.getStatusCode() == HttpStatus.OK;
+            tokenClient.passwordGrant("verify-password", email, password).block();
+            return true;
+        } catch (KeycloakUnavailableException e) {
+            // Keycloak injoignable : ce n'est pas un mauvais mot de passe
+            throw e;
         } catch (Exception e) {
             return false;
         }
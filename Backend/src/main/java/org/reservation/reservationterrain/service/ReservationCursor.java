@@ -0,0 +1,34 @@
+package org.reservation.reservationterrain.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position dans une liste de réservations triée par (date, heureDebut, id) :
+ * la dernière ligne de la page précédente. Transmise au client sous forme
+ * d'un jeton opaque (base64url de "date|heure|id").
+ */
+public record ReservationCursor(LocalDate date, LocalTime heureDebut, Long id) {
+
+    public String encode() {
+        String raw = date + "|" + heureDebut + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ReservationCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+            return new ReservationCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]),
+                    Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+}
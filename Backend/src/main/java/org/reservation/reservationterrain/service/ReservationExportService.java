@@ -0,0 +1,161 @@
+package org.reservation.reservationterrain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reservation.reservationterrain.dto.ReservationResponse;
+import org.reservation.reservationterrain.repository.ReservationFilter;
+import org.reservation.reservationterrain.repository.ReservationRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Export comptable des réservations (CSV ou NDJSON), avec les mêmes filtres
+ * que /api/reservations/filter.
+ *
+ * Les lignes sont lues par un curseur en avant seulement et écrites une à une
+ * dans la réponse : la mémoire utilisée ne dépend pas du nombre de lignes. La
+ * connexion n'est tenue que pendant la lecture, dans une transaction en
+ * lecture seule ouverte par le flux lui-même.
+ */
+@Service
+public class ReservationExportService {
+
+    // lignes écrites entre deux flush vers le client
+    private static final int FLUSH_EVERY = 1000;
+
+    private static final String CSV_HEADER = "id,status,date,heureDebut,heureFin,duree,terrainId,terrainNom,"
+            + "complexNom,price,clientId,clientNom,clientEmail";
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Format d'export inconnu: " + value + " (csv ou ndjson)");
+            }
+        }
+    }
+
+    private final ReservationRepository reservationRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ReservationExportService(ReservationRepository reservationRepository, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(OutputStream out, Format format,
+            Long complexId, Long clientId, LocalDate dateFrom, LocalDate dateTo,
+            String status,
+            Integer minDuration, Integer maxDuration) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try {
+            readOnlyTransaction.executeWithoutResult(tx -> {
+                try (Stream<ReservationRepository.ListView> rows = reservationRepository.streamViews(
+                        new ReservationFilter(complexId, null, clientId, dateFrom, dateTo,
+                                status, minDuration, maxDuration))) {
+                    int written = 0;
+                    for (var it = rows.iterator(); it.hasNext();) {
+                        writeRow(writer, format, ReservationService.toResponse(it.next()));
+                        if (++written % FLUSH_EVERY == 0) {
+                            writer.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    // client parti en cours de route : on arrête de lire
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeRow(Writer writer, Format format, ReservationResponse r) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(r));
+        } else {
+            writer.write(String.valueOf(r.getId()));
+            writer.write(',');
+            writer.write(csv(r.getStatus()));
+            writer.write(',');
+            writer.write(String.valueOf(r.getDate()));
+            writer.write(',');
+            writer.write(String.valueOf(r.getHeureDebut()));
+            writer.write(',');
+            writer.write(String.valueOf(r.getHeureFin()));
+            writer.write(',');
+            writer.write(String.valueOf(r.getDuree()));
+            writer.write(',');
+            writer.write(String.valueOf(r.getTerrainId()));
+            writer.write(',');
+            writer.write(csv(r.getTerrainNom()));
+            writer.write(',');
+            writer.write(csv(r.getComplexNom()));
+            writer.write(',');
+            writer.write(csv(r.getPrice()));
+            writer.write(',');
+            writer.write(String.valueOf(r.getClientId()));
+            writer.write(',');
+            writer.write(csv(r.getClientNom()));
+            writer.write(',');
+            writer.write(csv(r.getClientEmail()));
+        }
+        writer.write('\n');
+    }
+
+    // RFC 4180 : guillemets si la valeur contient une virgule, un guillemet ou un retour à la ligne.
+    // Un nom saisi par un client qui commence par = + - @ serait pris pour une formule par le tableur.
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,284 @@
+package org.reservation.reservationterrain.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.reservation.reservationterrain.config.ReservationOverlapConstraint;
+import org.reservation.reservationterrain.repository.ComplexeStatsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Partitionnement mensuel de la table reservation sur {@code date}.
+ *
+ * Au premier démarrage, la table existante est convertie en table
+ * partitionnée (une partition par mois ayant des données, plus une partition
+ * par défaut) dans une seule transaction : en cas d'échec elle reste telle
+ * quelle. Les requêtes des repositories ne changent pas ; celles qui filtrent
+ * sur la date (chevauchements, comptages, filtres, listes paginées) ne lisent
+ * que les partitions concernées.
+ *
+ * Chaque nuit, les partitions des prochains mois sont créées à l'avance et
+ * les mois sortis de la fenêtre de rétention sont détachés puis archivés dans
+ * reservation_archive (CSV compressé en gzip, une ligne par mois), avant que
+ * la partition soit supprimée. Leurs compteurs par complexe sont mis de côté
+ * dans la même transaction : le tableau de bord garde les totaux depuis
+ * l'ouverture.
+ */
+@Service
+public class ReservationPartitionService {
+
+    private static final String TABLE = "reservation";
+    private static final String DEFAULT_PARTITION = "reservation_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile("reservation_p(\\d{4})_(\\d{2})");
+    // creneau est une colonne générée : jamais copiée
+    private static final String COLUMNS = "id, status, date, heure_debut, heure_fin, duree, client_id, terrain_id";
+    private static final int ARCHIVE_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservationOverlapConstraint overlapConstraint;
+    private final ComplexeStatsService statsService;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    // entityManagerFactory : la conversion doit passer après la mise à jour du schéma par Hibernate
+    public ReservationPartitionService(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory,
+            ReservationOverlapConstraint overlapConstraint,
+            ComplexeStatsService statsService,
+            @Value("${reservation.partitions.enabled:true}") boolean enabled,
+            @Value("${reservation.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${reservation.partitions.retention-months:24}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.overlapConstraint = overlapConstraint;
+        this.statsService = statsService;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS reservation_archive ("
+                    + "month_start date PRIMARY KEY, row_count integer NOT NULL, "
+                    + "csv_gzip bytea NOT NULL, archived_at timestamp NOT NULL)");
+            // déjà compressé : PostgreSQL n'a pas à le recompresser
+            jdbcTemplate.execute("ALTER TABLE reservation_archive ALTER COLUMN csv_gzip SET STORAGE EXTERNAL");
+            if (!isPartitioned()) {
+                convert();
+            }
+            createUpcomingPartitions();
+        } catch (Exception e) {
+            // la table non partitionnée reste utilisable
+            System.err.println("Could not partition reservation table: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${reservation.partitions.maintenance-cron:0 0 4 * * *}")
+    public void maintain() {
+        if (!enabled || !isPartitioned()) {
+            return;
+        }
+        try {
+            createUpcomingPartitions();
+        } catch (Exception e) {
+            System.err.println("Could not create upcoming reservation partitions: " + e.getMessage());
+        }
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT c.relname AS name, i.inhparent IS NOT NULL AS attached FROM pg_class c "
+                        + "LEFT JOIN pg_inherits i ON i.inhrelid = c.oid "
+                        + "WHERE c.relkind = 'r' AND c.relname ~ '^reservation_p[0-9]{4}_[0-9]{2}$' "
+                        + "ORDER BY c.relname")) {
+            String name = (String) row.get("name");
+            if (!monthOf(name).isBefore(cutoff)) {
+                continue;
+            }
+            try {
+                // une partition détachée lors d'une exécution interrompue est reprise directement
+                if ((Boolean) row.get("attached")) {
+                    jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name);
+                }
+                int rows = archive(name, monthOf(name));
+                System.out.println("Archived reservation partition " + name + " (" + rows + " rows)");
+            } catch (Exception e) {
+                System.err.println("Could not archive reservation partition " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean isPartitioned() {
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('" + TABLE + "')", String.class);
+        return "p".equals(kind);
+    }
+
+    private void convert() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO reservation_unpartitioned");
+            // la clé primaire d'une table partitionnée doit contenir la clé de partition
+            jdbcTemplate.execute("CREATE TABLE " + TABLE + " (LIKE reservation_unpartitioned "
+                    + "INCLUDING DEFAULTS INCLUDING IDENTITY INCLUDING GENERATED, PRIMARY KEY (id, date)) "
+                    + "PARTITION BY RANGE (date)");
+            for (String foreignKey : jdbcTemplate.queryForList(
+                    "SELECT conname || ' ' || pg_get_constraintdef(oid) FROM pg_constraint "
+                            + "WHERE conrelid = 'reservation_unpartitioned'::regclass AND contype = 'f'",
+                    String.class)) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + foreignKey);
+            }
+            List<String> indexes = jdbcTemplate.queryForList(
+                    "SELECT i.indexdef FROM pg_indexes i WHERE i.tablename = 'reservation_unpartitioned' "
+                            + "AND NOT EXISTS (SELECT 1 FROM pg_constraint c "
+                            + "WHERE c.conname = i.indexname AND c.contype IN ('p', 'x'))",
+                    String.class);
+
+            TreeSet<YearMonth> months = new TreeSet<>();
+            jdbcTemplate.queryForList(
+                    "SELECT DISTINCT date_trunc('month', date)::date FROM reservation_unpartitioned",
+                    LocalDate.class).forEach(d -> months.add(YearMonth.from(d)));
+            for (YearMonth month : months) {
+                createPartition(month);
+            }
+            jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+            overlapConstraint.addToPartition(DEFAULT_PARTITION, "default");
+
+            int rows = jdbcTemplate.update("INSERT INTO " + TABLE + " (" + COLUMNS + ") "
+                    + "SELECT " + COLUMNS + " FROM reservation_unpartitioned");
+            jdbcTemplate.execute("DROP TABLE reservation_unpartitioned");
+            // créée pendant que l'ancienne existait encore, la clé primaire a reçu un autre nom
+            String primaryKey = jdbcTemplate.queryForObject("SELECT conname FROM pg_constraint "
+                    + "WHERE conrelid = '" + TABLE + "'::regclass AND contype = 'p'", String.class);
+            if (!(TABLE + "_pkey").equals(primaryKey)) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME CONSTRAINT " + primaryKey
+                        + " TO " + TABLE + "_pkey");
+            }
+            // index créés après la copie, une fois libérés les noms de l'ancienne table
+            for (String index : indexes) {
+                jdbcTemplate.execute(index.replace(" ON public.reservation_unpartitioned ", " ON " + TABLE + " ")
+                        .replace(" ON reservation_unpartitioned ", " ON " + TABLE + " "));
+            }
+            jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('" + TABLE + "', 'id'), "
+                    + "COALESCE((SELECT MAX(id) FROM " + TABLE + ") + 1, 1), false)", Long.class);
+            System.out.println("Reservation table partitioned by month: " + months.size()
+                    + " partitions, " + rows + " rows moved");
+        });
+        jdbcTemplate.execute("ANALYZE " + TABLE);
+    }
+
+    private void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!partitionExists(month)) {
+                transactionTemplate.executeWithoutResult(status -> createPartitionFromDefault(month));
+                System.out.println("Created reservation partition " + partitionName(month));
+            }
+        }
+    }
+
+    // Les réservations du mois tombées entre-temps dans la partition par défaut y sont ramenées
+    private void createPartitionFromDefault(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TEMP TABLE reservation_moved ON COMMIT DROP AS SELECT " + COLUMNS
+                + " FROM " + DEFAULT_PARTITION + " WHERE date >= '" + from + "' AND date < '" + to + "'");
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE date >= ? AND date < ?", from, to);
+        createPartition(month);
+        jdbcTemplate.execute("INSERT INTO " + TABLE + " (" + COLUMNS + ") SELECT " + COLUMNS
+                + " FROM reservation_moved");
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        jdbcTemplate.execute("CREATE TABLE " + name + " PARTITION OF " + TABLE + " FOR VALUES FROM ('"
+                + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        overlapConstraint.addToPartition(name, name.substring(TABLE.length() + 1));
+    }
+
+    private boolean partitionExists(YearMonth month) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                partitionName(month));
+    }
+
+    private int archive(String partition, YearMonth month) {
+        Integer rows = transactionTemplate.execute(status -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            int[] count = {0};
+            try (Writer out = new OutputStreamWriter(new GZIPOutputStream(compressed), StandardCharsets.UTF_8)) {
+                out.write(COLUMNS.replace(" ", "") + "\n");
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement("SELECT " + COLUMNS + " FROM "
+                            + partition + " ORDER BY date, heure_debut, id");
+                    statement.setFetchSize(ARCHIVE_FETCH_SIZE);
+                    return statement;
+                }, rs -> {
+                    try {
+                        out.write(rs.getLong(1) + "," + rs.getString(2) + "," + rs.getString(3) + ","
+                                + rs.getString(4) + "," + rs.getString(5) + "," + rs.getInt(6) + ","
+                                + rs.getLong(7) + "," + rs.getLong(8) + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            jdbcTemplate.update("INSERT INTO reservation_archive (month_start, row_count, csv_gzip, archived_at) "
+                    + "VALUES (?, ?, ?, now())", month.atDay(1), count[0], compressed.toByteArray());
+            jdbcTemplate.query("SELECT t.complexe_id, " + ComplexeStatsRepository.COUNTS + " FROM " + partition
+                    + " r JOIN terrain t ON t.id = r.terrain_id GROUP BY t.complexe_id",
+                    rs -> {
+                        statsService.onReservationsArchived(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                                rs.getDouble(4));
+                    });
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            return count[0];
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("%s_p%04d_%02d", TABLE, month.getYear(), month.getMonthValue());
+    }
+
+    private static YearMonth monthOf(String partition) {
+        Matcher matcher = PARTITION_NAME.matcher(partition);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a monthly reservation partition: " + partition);
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+}
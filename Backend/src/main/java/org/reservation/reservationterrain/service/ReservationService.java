@@ -1,16 +1,26 @@
 package org.reservation.reservationterrain.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reservation.reservationterrain.config.ReservationOverlapConstraint;
+import org.reservation.reservationterrain.dto.ReservationPage;
 import org.reservation.reservationterrain.dto.ReservationRequest;
 import org.reservation.reservationterrain.dto.ReservationResponse;
 import org.reservation.reservationterrain.model.Client;
 import org.reservation.reservationterrain.model.Reservation;
 import org.reservation.reservationterrain.model.Terrain;
 import org.reservation.reservationterrain.repository.ClientRepository;
+import org.reservation.reservationterrain.repository.ReservationFilter;
 import org.reservation.reservationterrain.repository.ReservationRepository;
 import org.reservation.reservationterrain.repository.TerrainRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -20,69 +30,91 @@ import java.util.stream.Collectors;
 @Service
 public class ReservationService {
 
+        private static final String SLOT_TAKEN_MESSAGE = "Ce créneau horaire est déjà réservé. Veuillez choisir un autre horaire.";
+
         private final ReservationRepository reservationRepository;
         private final TerrainRepository terrainRepository;
         private final ClientRepository clientRepository;
-        private final ClientService clientService;
+        private final ClientIdentityResolver identityResolver;
+        private final SlotAvailabilityIndex availabilityIndex;
+        private final TerrainDayLockManager lockManager;
+        private final ComplexeStatsService statsService;
+        private final ReservationOverlapConstraint overlapConstraint;
+        private final int defaultPageSize;
+        private final int maxPageSize;
+        private final long countCap;
+
+        // Étapes de createReservation (reservation.booking.stage) et conflits par origine
+        private final Timer identityStage;
+        private final Timer terrainStage;
+        private final Timer overlapStage;
+        private final Timer insertStage;
+        private final Counter conflictsByLock;
+        private final Counter conflictsByIndex;
+        private final Counter conflictsByConstraint;
+        private final Counter conflictsByQuery;
 
         public ReservationService(
                         ReservationRepository reservationRepository,
                         TerrainRepository terrainRepository,
                         ClientRepository clientRepository,
-                        ClientService clientService) {
+                        ClientIdentityResolver identityResolver,
+                        SlotAvailabilityIndex availabilityIndex,
+                        TerrainDayLockManager lockManager,
+                        ComplexeStatsService statsService,
+                        ReservationOverlapConstraint overlapConstraint,
+                        @Value("${reservation.pagination.default-size:50}") int defaultPageSize,
+                        @Value("${reservation.pagination.max-size:200}") int maxPageSize,
+                        @Value("${reservation.pagination.count-cap:10000}") long countCap,
+                        MeterRegistry meterRegistry) {
                 this.reservationRepository = reservationRepository;
                 this.terrainRepository = terrainRepository;
                 this.clientRepository = clientRepository;
-                this.clientService = clientService;
+                this.identityResolver = identityResolver;
+                this.availabilityIndex = availabilityIndex;
+                this.lockManager = lockManager;
+                this.statsService = statsService;
+                this.overlapConstraint = overlapConstraint;
+                this.defaultPageSize = defaultPageSize;
+                this.maxPageSize = maxPageSize;
+                this.countCap = countCap;
+                this.identityStage = stageTimer(meterRegistry, "identity");
+                this.terrainStage = stageTimer(meterRegistry, "terrain");
+                this.overlapStage = stageTimer(meterRegistry, "overlap");
+                this.insertStage = stageTimer(meterRegistry, "insert");
+                this.conflictsByLock = conflictCounter(meterRegistry, "lock");
+                this.conflictsByIndex = conflictCounter(meterRegistry, "index");
+                this.conflictsByConstraint = conflictCounter(meterRegistry, "constraint");
+                this.conflictsByQuery = conflictCounter(meterRegistry, "query");
+        }
+
+        private static Timer stageTimer(MeterRegistry registry, String stage) {
+                return Timer.builder("reservation.booking.stage")
+                                .description("Durée de chaque étape de la création d'une réservation")
+                                .tag("stage", stage)
+                                .register(registry);
+        }
+
+        private static Counter conflictCounter(MeterRegistry registry, String detectedBy) {
+                return Counter.builder("reservation.booking.conflicts")
+                                .description("Réservations refusées car le créneau est pris ou en cours de réservation")
+                                .tag("detected_by", detectedBy)
+                                .register(registry);
         }
 
         @Transactional
         public ReservationResponse createReservation(ReservationRequest request, String keycloakId, String email,
                         String nom, String prenom) {
                 // 1. Validate terrain exists
-                Terrain terrain = terrainRepository.findById(request.getTerrainId())
+                Terrain terrain = terrainStage.record(() -> terrainRepository.findById(request.getTerrainId()))
                                 .orElseThrow(
                                                 () -> new IllegalArgumentException("Terrain non trouvé avec l'ID: "
                                                                 + request.getTerrainId()));
 
-                // 2. Validate client exists or create if missing (Lazy Creation)
-                final String finalKeycloakId;
-                if (keycloakId == null) {
-                        try {
-                                finalKeycloakId = clientService.getKeycloakIdByEmail(email);
-                                System.out.println("DEBUG: Fetched missing Keycloak ID from API: " + finalKeycloakId);
-                        } catch (Exception e) {
-                                throw new IllegalArgumentException(
-                                                "Impossible de récupérer l'ID utilisateur: " + e.getMessage());
-                        }
-                } else {
-                        finalKeycloakId = keycloakId;
-                }
-
-                Client client = clientRepository.findByKeycloakId(finalKeycloakId)
-                                .orElseGet(() -> {
-                                        // Try to find by email first (migration case)
-                                        return clientRepository.findByEmail(email)
-                                                        .map(existingClient -> {
-                                                                existingClient.setKeycloakId(finalKeycloakId);
-                                                                return clientRepository.save(existingClient);
-                                                        })
-                                                        .orElseGet(() -> {
-                                                                // Create new client
-                                                                Client newClient = new Client();
-                                                                newClient.setKeycloakId(finalKeycloakId);
-                                                                // Handle potential null email from JWT
-                                                                newClient.setEmail(email != null ? email
-                                                                                : "no-email-" + finalKeycloakId
-                                                                                                + "@placeholder.com");
-
-                                                                newClient.setNom(nom != null && !nom.isEmpty() ? nom
-                                                                                : "Inconnu");
-                                                                newClient.setPrenom(prenom != null ? prenom : "");
-                                                                newClient.setRole("CLIENT");
-                                                                return clientRepository.save(newClient);
-                                                        });
-                                });
+                // 2. Resolve client id (cached), creating the client if missing (Lazy Creation)
+                Long clientId = identityStage.record(
+                                () -> identityResolver.resolveClientId(keycloakId, email, nom, prenom));
+                Client client = clientRepository.getReferenceById(clientId);
 
                 // 3. Validate time range
                 if (request.getHeureDebut().isAfter(request.getHeureFin()) ||
@@ -106,17 +138,28 @@ public class ReservationService {
                                                         heureFinInt, terrain.getHeureFermeture()));
                 }
 
-                // 5. Check for overlapping reservations
-                List<Reservation> overlapping = reservationRepository.findOverlappingReservations(
-                                request.getTerrainId(),
-                                request.getDate(),
-                                request.getHeureDebut(),
-                                request.getHeureFin());
-
-                if (!overlapping.isEmpty()) {
-                        throw new IllegalStateException(
-                                        "Ce créneau horaire est déjà réservé. Veuillez choisir un autre horaire.");
-                }
+                // 5. Fast in-memory rejection when the day is already indexed. No pre-check SELECT:
+                // the exclusion constraint on reservation is the real guard (see step 7).
+                // The (terrain, day) lock is held until commit so concurrent bookings can't both pass.
+                overlapStage.record(() -> {
+                        try {
+                                lockManager.lockUntilCompletion(terrain.getId(), request.getDate());
+                        } catch (IllegalStateException e) {
+                                conflictsByLock.increment();
+                                throw e;
+                        }
+                        if (availabilityIndex.isKnownTaken(
+                                        request.getTerrainId(),
+                                        request.getDate(),
+                                        request.getHeureDebut(),
+                                        request.getHeureFin(),
+                                        null)) {
+                                conflictsByIndex.increment();
+                                throw new IllegalStateException(SLOT_TAKEN_MESSAGE);
+                        }
+                        checkOverlapWithoutConstraint(request.getTerrainId(), request.getDate(),
+                                        request.getHeureDebut(), request.getHeureFin(), null);
+                });
 
                 // 6. Calculate duration in minutes
                 Duration duration = Duration.between(request.getHeureDebut(), request.getHeureFin());
@@ -132,49 +175,94 @@ public class ReservationService {
                 reservation.setDuree(durationMinutes);
                 reservation.setStatus("CONFIRMEE");
 
-                Reservation saved = reservationRepository.save(reservation);
+                Reservation saved = insertStage.record(() -> saveOrConflict(reservation));
+                availabilityIndex.onSaved(saved);
+                statsService.onReservationChanged(null, ComplexeStatsService.Contribution.of(saved));
 
                 // 8. Convert to response DTO
                 return toResponse(saved);
         }
 
+        // Calendar view: served from the availability index (active reservations only, no client data)
         public List<ReservationResponse> getReservationsByTerrain(Long terrainId, LocalDate date) {
-                List<Reservation> reservations = reservationRepository.findByTerrainIdAndDate(terrainId, date);
-                return reservations.stream()
-                                .map(this::toResponse)
+                List<SlotAvailabilityIndex.Booking> bookings;
+                try {
+                        bookings = availabilityIndex.getBookings(terrainId, date);
+                } catch (IllegalArgumentException e) {
+                        // Unknown terrain: empty calendar, as the repository query used to return
+                        return List.of();
+                }
+                return bookings.stream()
+                                .map(booking -> {
+                                        ReservationResponse response = new ReservationResponse();
+                                        response.setId(booking.reservationId());
+                                        response.setStatus(booking.status());
+                                        response.setDate(date);
+                                        response.setHeureDebut(booking.heureDebut());
+                                        response.setHeureFin(booking.heureFin());
+                                        response.setDuree((int) Duration
+                                                        .between(booking.heureDebut(), booking.heureFin())
+                                                        .toMinutes());
+                                        response.setTerrainId(terrainId);
+                                        return response;
+                                })
                                 .collect(Collectors.toList());
         }
 
+        @Transactional(readOnly = true)
         public List<ReservationResponse> getReservationsByDateRange(LocalDate start, LocalDate end) {
-                return reservationRepository.findByDateBetween(start, end).stream()
-                                .map(this::toResponse)
+                return reservationRepository.findViewsByDateBetween(start, end).stream()
+                                .map(ReservationService::toResponse)
                                 .collect(Collectors.toList());
         }
 
+        @Transactional(readOnly = true)
         public long countTotalReservations() {
                 return reservationRepository.count();
         }
 
+        @Transactional(readOnly = true)
         public long countWeeklyReservations(LocalDate start, LocalDate end) {
                 return reservationRepository.countByDateBetween(start, end);
         }
 
-        public List<ReservationResponse> getReservationsWithFilters(
+        @Transactional(readOnly = true)
+        public ReservationPage getReservationsWithFilters(
                         Long complexId, Long clientId, LocalDate dateFrom, LocalDate dateTo,
                         String status,
-                        Integer minDuration, Integer maxDuration) {
-                return reservationRepository.findReservationsByFilters(
-                                complexId, null, clientId, dateFrom, dateTo,
-                                status,
-                                minDuration, maxDuration).stream()
-                                .map(this::toResponse)
-                                .collect(Collectors.toList());
+                        Integer minDuration, Integer maxDuration,
+                        String cursor, Integer size, boolean withTotal) {
+                int pageSize = pageSize(size);
+                ReservationFilter filter = new ReservationFilter(complexId, null, clientId, dateFrom, dateTo,
+                                status, minDuration, maxDuration);
+                List<ReservationRepository.ListView> rows;
+                if (cursor == null || cursor.isBlank()) {
+                        rows = reservationRepository.findViewPage(filter, null, null, null, pageSize + 1);
+                } else {
+                        ReservationCursor after = ReservationCursor.decode(cursor);
+                        rows = reservationRepository.findViewPage(filter,
+                                        after.date(), after.heureDebut(), after.id(), pageSize + 1);
+                }
+
+                ReservationPage page = toPage(rows, pageSize);
+                if (withTotal) {
+                        long estimate = filter.isEmpty() ? reservationRepository.estimateRowCount() : -1;
+                        if (estimate < 0) {
+                                estimate = reservationRepository.countUpTo(filter, countCap);
+                                page.setTotalCapped(estimate >= countCap);
+                        }
+                        page.setEstimatedTotal(estimate);
+                }
+                return page;
         }
 
         @Transactional
         public ReservationResponse updateReservation(Long id, ReservationRequest request) {
                 Reservation reservation = reservationRepository.findById(id)
                                 .orElseThrow(() -> new IllegalArgumentException("Réservation non trouvée"));
+                TerrainDayLockManager.Key previousKey = new TerrainDayLockManager.Key(
+                                reservation.getTerrain().getId(), reservation.getDate());
+                ComplexeStatsService.Contribution before = ComplexeStatsService.Contribution.of(reservation);
 
                 // 1. Validate terrain exists (if changed)
                 if (reservation.getTerrain().getId() != request.getTerrainId()) {
@@ -206,18 +294,20 @@ public class ReservationService {
                                                         heureFinInt, terrain.getHeureFermeture()));
                 }
 
-                // 4. Check for overlapping reservations (excluding current one)
-                List<Reservation> overlapping = reservationRepository.findOverlappingReservationsExcludingId(
+                // 4. Check for overlapping reservations (excluding current one), under the
+                // locks of both the previous and the new (terrain, day)
+                lockManager.lockUntilCompletion(List.of(previousKey,
+                                new TerrainDayLockManager.Key(terrain.getId(), request.getDate())));
+                if (availabilityIndex.isKnownTaken(
                                 terrain.getId(),
                                 request.getDate(),
                                 request.getHeureDebut(),
                                 request.getHeureFin(),
-                                id);
-
-                if (!overlapping.isEmpty()) {
-                        throw new IllegalStateException(
-                                        "Ce créneau horaire est déjà réservé. Veuillez choisir un autre horaire.");
+                                id)) {
+                        throw new IllegalStateException(SLOT_TAKEN_MESSAGE);
                 }
+                checkOverlapWithoutConstraint(terrain.getId(), request.getDate(), request.getHeureDebut(),
+                                request.getHeureFin(), id);
 
                 // 5. Update fields
                 reservation.setDate(request.getDate());
@@ -231,24 +321,101 @@ public class ReservationService {
                         reservation.setStatus(request.getStatus());
                 }
 
-                Reservation saved = reservationRepository.save(reservation);
+                Reservation saved = saveOrConflict(reservation);
+                availabilityIndex.onSaved(saved);
+                statsService.onReservationChanged(before, ComplexeStatsService.Contribution.of(saved));
                 return toResponse(saved);
         }
 
         @Transactional
         public void deleteReservation(Long id) {
-                if (!reservationRepository.existsById(id)) {
-                        throw new IllegalArgumentException("Réservation non trouvée");
-                }
-                reservationRepository.deleteById(id);
+                Reservation reservation = reservationRepository.findById(id)
+                                .orElseThrow(() -> new IllegalArgumentException("Réservation non trouvée"));
+                ComplexeStatsService.Contribution before = ComplexeStatsService.Contribution.of(reservation);
+                reservationRepository.delete(reservation);
+                availabilityIndex.onDeleted(id);
+                statsService.onReservationChanged(before, null);
         }
 
         @Transactional
         public void deleteReservations(List<Long> ids) {
+                List<ComplexeStatsService.Contribution> removed = reservationRepository.findStatsViewsByIdIn(ids)
+                                .stream()
+                                .map(ComplexeStatsService.Contribution::of)
+                                .toList();
                 reservationRepository.deleteAllById(ids);
+                ids.forEach(availabilityIndex::onDeleted);
+                statsService.onReservationsDeleted(removed);
+        }
+
+        // Owner status change (validate / cancel). Leaving ANNULEE puts the slot back in play:
+        // same (terrain, day) lock, overlap checks and 409 translation as a booking
+        @Transactional
+        public void changeStatus(Reservation reservation, String newStatus) {
+                ComplexeStatsService.Contribution before = ComplexeStatsService.Contribution.of(reservation);
+                if ("ANNULEE".equals(reservation.getStatus()) && !"ANNULEE".equals(newStatus)) {
+                        Long terrainId = reservation.getTerrain().getId();
+                        lockManager.lockUntilCompletion(terrainId, reservation.getDate());
+                        if (availabilityIndex.isKnownTaken(terrainId, reservation.getDate(),
+                                        reservation.getHeureDebut(), reservation.getHeureFin(), reservation.getId())) {
+                                conflictsByIndex.increment();
+                                throw new IllegalStateException(SLOT_TAKEN_MESSAGE);
+                        }
+                        checkOverlapWithoutConstraint(terrainId, reservation.getDate(), reservation.getHeureDebut(),
+                                        reservation.getHeureFin(), reservation.getId());
+                }
+                reservation.setStatus(newStatus);
+                Reservation saved = saveOrConflict(reservation);
+                availabilityIndex.onSaved(saved);
+                statsService.onReservationChanged(before, ComplexeStatsService.Contribution.of(saved));
+        }
+
+        // Without the exclusion constraint the index alone is not enough (days not loaded yet):
+        // query the overlaps, the (terrain, day) lock held by the caller keeps the check valid until commit
+        private void checkOverlapWithoutConstraint(Long terrainId, LocalDate date, LocalTime heureDebut,
+                        LocalTime heureFin, Long excludeId) {
+                if (overlapConstraint.isEnforced()) {
+                        return;
+                }
+                List<Reservation> overlapping = excludeId == null
+                                ? reservationRepository.findOverlappingReservations(terrainId, date, heureDebut,
+                                                heureFin)
+                                : reservationRepository.findOverlappingReservationsExcludingId(terrainId, date,
+                                                heureDebut, heureFin, excludeId);
+                if (!overlapping.isEmpty()) {
+                        conflictsByQuery.increment();
+                        throw new IllegalStateException(SLOT_TAKEN_MESSAGE);
+                }
+        }
+
+        // Flush immediately so an exclusion-constraint violation surfaces here as a 409, not at commit
+        private Reservation saveOrConflict(Reservation reservation) {
+                try {
+                        return reservationRepository.saveAndFlush(reservation);
+                } catch (DataIntegrityViolationException e) {
+                        if (isOverlapViolation(e)) {
+                                conflictsByConstraint.increment();
+                                throw new IllegalStateException(SLOT_TAKEN_MESSAGE);
+                        }
+                        throw e;
+                }
+        }
+
+        private static boolean isOverlapViolation(Throwable e) {
+                for (Throwable t = e; t != null; t = t.getCause()) {
+                        if (t instanceof SQLException sql
+                                        && ReservationOverlapConstraint.EXCLUSION_VIOLATION.equals(sql.getSQLState())) {
+                                return true;
+                        }
+                        if (t.getMessage() != null
+                                        && t.getMessage().contains(ReservationOverlapConstraint.CONSTRAINT_NAME)) {
+                                return true;
+                        }
+                }
+                return false;
         }
 
-        private ReservationResponse toResponse(Reservation reservation) {
+        static ReservationResponse toResponse(Reservation reservation) {
                 ReservationResponse response = new ReservationResponse();
                 response.setId(reservation.getId());
                 response.setStatus(reservation.getStatus());
@@ -271,13 +438,80 @@ public class ReservationService {
                 return response;
         }
 
-        public List<ReservationResponse> getReservationsByKeycloakId(String keycloakId) {
-                Client client = clientRepository.findByKeycloakId(keycloakId)
+        // Listing rows come from a single projection query (see ReservationRepository.LIST_SELECT)
+        static ReservationResponse toResponse(ReservationRepository.ListView view) {
+                ReservationResponse response = new ReservationResponse();
+                response.setId(view.getId());
+                response.setStatus(view.getStatus());
+                response.setDate(view.getDate());
+                response.setHeureDebut(view.getHeureDebut());
+                response.setHeureFin(view.getHeureFin());
+                response.setDuree(view.getDuree());
+
+                response.setTerrainId(view.getTerrainId());
+                response.setTerrainNom(view.getTerrainNom());
+                response.setComplexNom(view.getComplexNom());
+                response.setPrice(view.getPrixTerrain());
+
+                response.setClientId(view.getClientId());
+                response.setClientNom(view.getClientNom() + " " +
+                                (view.getClientPrenom() != null ? view.getClientPrenom() : ""));
+                response.setClientEmail(view.getClientEmail());
+
+                return response;
+        }
+
+        @Transactional(readOnly = true)
+        public ReservationPage getReservationsByKeycloakId(String keycloakId, String cursor, Integer size,
+                        boolean withTotal) {
+                Long clientId = identityResolver.findClientId(keycloakId)
                                 .orElseThrow(() -> new IllegalArgumentException("Client non trouvé"));
 
-                return reservationRepository.findByClientId(client.getId()).stream()
-                                .map(this::toResponse)
-                                .collect(Collectors.toList());
+                int pageSize = pageSize(size);
+                Limit limit = Limit.of(pageSize + 1);
+                List<ReservationRepository.ListView> rows;
+                if (cursor == null || cursor.isBlank()) {
+                        rows = reservationRepository.findViewPageByClientId(clientId, limit);
+                } else {
+                        ReservationCursor before = ReservationCursor.decode(cursor);
+                        rows = reservationRepository.findViewPageByClientIdBefore(clientId,
+                                        before.date(), before.heureDebut(), before.id(), limit);
+                }
+
+                ReservationPage page = toPage(rows, pageSize);
+                if (withTotal) {
+                        long count = reservationRepository.countUpTo(ReservationFilter.forClient(clientId), countCap);
+                        page.setEstimatedTotal(count);
+                        page.setTotalCapped(count >= countCap);
+                }
+                return page;
+        }
+
+        private int pageSize(Integer size) {
+                if (size == null) {
+                        return defaultPageSize;
+                }
+                if (size < 1) {
+                        throw new IllegalArgumentException("La taille de page doit être positive");
+                }
+                return Math.min(size, maxPageSize);
+        }
+
+        // rows contient au plus pageSize + 1 lignes : la dernière indique seulement qu'une page suit
+        private static ReservationPage toPage(List<ReservationRepository.ListView> rows, int pageSize) {
+                boolean hasNext = rows.size() > pageSize;
+                List<ReservationRepository.ListView> visible = hasNext ? rows.subList(0, pageSize) : rows;
+
+                ReservationPage page = new ReservationPage();
+                page.setItems(visible.stream()
+                                .map(ReservationService::toResponse)
+                                .collect(Collectors.toList()));
+                if (hasNext) {
+                        ReservationRepository.ListView last = visible.get(visible.size() - 1);
+                        page.setNextCursor(new ReservationCursor(last.getDate(), last.getHeureDebut(), last.getId())
+                                        .encode());
+                }
+                return page;
         }
 
         @Transactional
@@ -286,10 +520,10 @@ public class ReservationService {
                                 .orElseThrow(() -> new IllegalArgumentException("Réservation non trouvée"));
 
                 // Verify ownership
-                Client client = clientRepository.findByKeycloakId(keycloakId)
+                Long clientId = identityResolver.findClientId(keycloakId)
                                 .orElseThrow(() -> new IllegalArgumentException("Client non trouvé"));
 
-                if (!reservation.getClient().getId().equals(client.getId())) {
+                if (!reservation.getClient().getId().equals(clientId)) {
                         throw new SecurityException("Vous n'êtes pas autorisé à annuler cette réservation");
                 }
 
@@ -312,7 +546,10 @@ public class ReservationService {
                                         "L'annulation n'est possible que jusqu'à 3 heures avant le début de la réservation.");
                 }
 
+                ComplexeStatsService.Contribution before = ComplexeStatsService.Contribution.of(reservation);
                 reservation.setStatus("ANNULEE");
                 reservationRepository.save(reservation);
+                availabilityIndex.onSaved(reservation);
+                statsService.onReservationChanged(before, ComplexeStatsService.Contribution.of(reservation));
         }
 }
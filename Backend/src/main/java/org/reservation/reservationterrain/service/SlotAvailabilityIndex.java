@@ -0,0 +1,513 @@
+package org.reservation.reservationterrain.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.reservation.reservationterrain.model.Reservation;
+import org.reservation.reservationterrain.repository.ReservationRepository;
+import org.reservation.reservationterrain.repository.TerrainRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Index en mémoire des créneaux occupés, une entrée par (terrain, jour).
+ *
+ * Chaque entrée garde un bitmap au pas de {@code Terrain.dureeCreneau} entre
+ * l'heure d'ouverture et l'heure de fermeture, plus la liste triée des
+ * réservations actives (non ANNULEE) pour les contrôles exacts quand un
+ * horaire ne tombe pas sur la grille. La base reste la source de vérité :
+ * les entrées sont chargées au démarrage pour les prochains jours,
+ * reconstruites à la demande quand elles manquent, et mises à jour
+ * uniquement après commit.
+ *
+ * Ces mises à jour ne voient que les commits de cette instance : une
+ * journée est donc relue en base au plus tard day-ttl-seconds après son
+ * chargement, et un créneau que l'index croit pris est vérifié en base avant
+ * de refuser la réservation.
+ *
+ * Seules les journées de [aujourd'hui, aujourd'hui + index-days] sont
+ * gardées : les autres dates (passé, futur lointain) sont lues en base à
+ * chaque appel, sinon les endpoints publics feraient grossir l'index sans
+ * limite.
+ */
+@Component
+public class SlotAvailabilityIndex {
+
+    private static final String ANNULEE = "ANNULEE";
+    private static final int DEFAULT_SLOT_MINUTES = 60;
+
+    private final ReservationRepository reservationRepository;
+    private final TerrainRepository terrainRepository;
+    private final int preloadDays;
+    private final int indexDays;
+
+    private final ConcurrentMap<DayKey, DaySlots> days;
+    // reservation id -> jour indexé, pour retrouver l'ancienne position lors d'une modification
+    private final ConcurrentHashMap<Long, DayKey> locations = new ConcurrentHashMap<>();
+    // incrémenté à chaque changement sur un terrain, pour écarter un chargement groupé devenu obsolète
+    private final ConcurrentHashMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public SlotAvailabilityIndex(ReservationRepository reservationRepository,
+            TerrainRepository terrainRepository,
+            @Value("${reservation.availability.preload-days:14}") int preloadDays,
+            @Value("${reservation.availability.index-days:62}") int indexDays,
+            @Value("${reservation.availability.day-ttl-seconds:60}") long dayTtlSeconds) {
+        this.reservationRepository = reservationRepository;
+        this.terrainRepository = terrainRepository;
+        this.indexDays = Math.max(0, indexDays);
+        this.preloadDays = Math.min(preloadDays, this.indexDays);
+        Duration dayTtl = Duration.ofSeconds(dayTtlSeconds);
+        // Compté depuis la lecture en base : les mises à jour locales (with) ne prolongent pas l'entrée
+        this.days = Caffeine.newBuilder()
+                .expireAfter(Expiry.creating((DayKey key, DaySlots day) -> dayTtl))
+                .<DayKey, DaySlots>build()
+                .asMap();
+    }
+
+    public record Booking(Long reservationId, String status, LocalTime heureDebut, LocalTime heureFin) {
+    }
+
+    record DayKey(long terrainId, LocalDate date) {
+    }
+
+    /** Créneaux libres d'une journée : un caractère par créneau, '1' libre, '0' pris. */
+    public record DayAvailability(int heureOuverture, int heureFermeture, int dureeCreneau, String freeSlots) {
+    }
+
+    /**
+     * Snapshot immuable d'une journée : on le remplace en entier à chaque
+     * modification, les lecteurs n'ont donc jamais besoin de verrou.
+     */
+    static final class DaySlots {
+        final int heureOuverture;
+        final int heureFermeture;
+        final int openingMinute;
+        final int slotMinutes;
+        final int slotCount;
+        final long[] occupied;
+        final List<Booking> bookings;
+        // true si toutes les réservations tombent sur la grille : le bitmap suffit alors
+        final boolean aligned;
+        // encodage calculé une seule fois par snapshot, donc jamais périmé
+        private volatile DayAvailability availability;
+
+        DaySlots(int heureOuverture, int heureFermeture, int dureeCreneau, List<Booking> bookings) {
+            this.heureOuverture = heureOuverture;
+            this.heureFermeture = heureFermeture;
+            this.openingMinute = heureOuverture * 60;
+            this.slotMinutes = dureeCreneau > 0 ? dureeCreneau : DEFAULT_SLOT_MINUTES;
+            this.slotCount = Math.max(0, (heureFermeture - heureOuverture) * 60 / slotMinutes);
+            this.occupied = new long[(slotCount + 63) >>> 6];
+            List<Booking> sorted = new ArrayList<>(bookings);
+            sorted.sort(Comparator.comparing(Booking::heureDebut));
+            this.bookings = List.copyOf(sorted);
+            boolean allAligned = true;
+            for (Booking b : this.bookings) {
+                mark(b);
+                allAligned &= isAligned(b.heureDebut(), b.heureFin());
+            }
+            this.aligned = allAligned;
+        }
+
+        private void mark(Booking b) {
+            int from = Math.max(0, (minuteOf(b.heureDebut()) - openingMinute) / slotMinutes);
+            int to = Math.min(slotCount, ceilDiv(minuteOf(b.heureFin()) - openingMinute, slotMinutes));
+            for (int i = from; i < to; i++) {
+                occupied[i >>> 6] |= 1L << i;
+            }
+        }
+
+        DaySlots with(Booking added, Long removedId) {
+            List<Booking> next = new ArrayList<>(bookings.size() + 1);
+            for (Booking b : bookings) {
+                if (!b.reservationId().equals(removedId)) {
+                    next.add(b);
+                }
+            }
+            if (added != null) {
+                next.add(added);
+            }
+            return new DaySlots(heureOuverture, heureFermeture, slotMinutes, next);
+        }
+
+        DayAvailability availability() {
+            DayAvailability a = availability;
+            if (a == null) {
+                char[] free = new char[slotCount];
+                for (int i = 0; i < slotCount; i++) {
+                    free[i] = (occupied[i >>> 6] & (1L << i)) != 0 ? '0' : '1';
+                }
+                a = new DayAvailability(heureOuverture, heureFermeture, slotMinutes, new String(free));
+                availability = a;
+            }
+            return a;
+        }
+
+        boolean isAligned(LocalTime debut, LocalTime fin) {
+            int start = minuteOf(debut) - openingMinute;
+            int end = minuteOf(fin) - openingMinute;
+            return start >= 0 && end <= slotCount * slotMinutes
+                    && start % slotMinutes == 0 && end % slotMinutes == 0;
+        }
+
+        boolean isFree(LocalTime debut, LocalTime fin, Long excludeId) {
+            if (excludeId == null && aligned && isAligned(debut, fin)) {
+                int from = (minuteOf(debut) - openingMinute) / slotMinutes;
+                int to = (minuteOf(fin) - openingMinute) / slotMinutes;
+                for (int i = from; i < to; i++) {
+                    if ((occupied[i >>> 6] & (1L << i)) != 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            // Hors grille : même règle que findOverlappingReservations (start1 < end2 AND start2 < end1)
+            for (Booking b : bookings) {
+                if (b.heureDebut().compareTo(fin) >= 0) {
+                    break;
+                }
+                if (b.heureFin().isAfter(debut) && !b.reservationId().equals(excludeId)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static int minuteOf(LocalTime t) {
+            return t.getHour() * 60 + t.getMinute();
+        }
+
+        private static int ceilDiv(int a, int b) {
+            return a <= 0 ? 0 : (a + b - 1) / b;
+        }
+    }
+
+    // ==========================================
+    // LECTURE
+    // ==========================================
+
+    public boolean isFree(Long terrainId, LocalDate date, LocalTime heureDebut, LocalTime heureFin) {
+        return isFree(terrainId, date, heureDebut, heureFin, null);
+    }
+
+    public boolean isFree(Long terrainId, LocalDate date, LocalTime heureDebut, LocalTime heureFin,
+            Long excludeId) {
+        return day(terrainId, date).isFree(heureDebut, heureFin, excludeId);
+    }
+
+    /**
+     * Rejet rapide : false sans aller en base si la journée n'est pas chargée
+     * ou si l'index voit le créneau libre, la contrainte d'exclusion
+     * PostgreSQL tranche alors à l'insertion. Un créneau vu pris n'est qu'un
+     * indice (l'index ignore les commits des autres instances) : la journée
+     * est relue en base avant de répondre.
+     */
+    public boolean isKnownTaken(Long terrainId, LocalDate date, LocalTime heureDebut, LocalTime heureFin,
+            Long excludeId) {
+        DayKey key = new DayKey(terrainId, date);
+        DaySlots day = days.get(key);
+        if (day == null || day.isFree(heureDebut, heureFin, excludeId)) {
+            return false;
+        }
+        long version = version(terrainId).get();
+        DaySlots fresh = read(key);
+        days.remove(key);
+        putIfCurrent(key, version, fresh);
+        return !fresh.isFree(heureDebut, heureFin, excludeId);
+    }
+
+    public List<Booking> getBookings(Long terrainId, LocalDate date) {
+        return day(terrainId, date).bookings;
+    }
+
+    /**
+     * Créneaux libres jour par jour sur [from, to]. Les journées absentes de
+     * l'index sont lues en une seule requête.
+     */
+    public Map<LocalDate, DayAvailability> getAvailability(Long terrainId, LocalDate from, LocalDate to) {
+        boolean missing = from.datesUntil(to.plusDays(1))
+                .anyMatch(d -> !days.containsKey(new DayKey(terrainId, d)));
+        Map<LocalDate, DaySlots> loaded = missing ? loadRange(terrainId, from, to) : Map.of();
+        Map<LocalDate, DayAvailability> result = new LinkedHashMap<>();
+        from.datesUntil(to.plusDays(1)).forEach(d -> result.put(d,
+                (isIndexed(d) ? day(terrainId, d) : loaded.get(d)).availability()));
+        return result;
+    }
+
+    private Map<LocalDate, DaySlots> loadRange(Long terrainId, LocalDate from, LocalDate to) {
+        long version = version(terrainId).get();
+        TerrainRepository.ScheduleView schedule = terrainRepository.findScheduleById(terrainId)
+                .orElseThrow(() -> new IllegalArgumentException("Terrain non trouvé avec l'ID: " + terrainId));
+        Map<LocalDate, List<Booking>> byDate = reservationRepository
+                .findActiveSlotsForTerrainBetween(terrainId, from, to).stream()
+                .collect(Collectors.groupingBy(ReservationRepository.SlotView::getDate,
+                        Collectors.mapping(SlotAvailabilityIndex::toBooking, Collectors.toList())));
+        Map<LocalDate, DaySlots> loaded = new HashMap<>();
+        from.datesUntil(to.plusDays(1)).forEach(d -> {
+            DaySlots day = new DaySlots(schedule.getHeureOuverture(), schedule.getHeureFermeture(),
+                    schedule.getDureeCreneau(), byDate.getOrDefault(d, List.of()));
+            loaded.put(d, day);
+            if (isIndexed(d)) {
+                putIfCurrent(new DayKey(terrainId, d), version, day);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Charge en une requête la journée de plusieurs terrains (recherche par ville).
+     */
+    public void ensureLoaded(Collection<Long> terrainIds, LocalDate date) {
+        daysOf(terrainIds, date);
+    }
+
+    /**
+     * Journée de chaque terrain connu, prise dans l'index ou lue en une
+     * requête pour ceux qui manquent. Les terrains inconnus sont absents.
+     */
+    private Map<Long, DaySlots> daysOf(Collection<Long> terrainIds, LocalDate date) {
+        Map<Long, DaySlots> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : terrainIds) {
+            DaySlots day = days.get(new DayKey(id, date));
+            if (day != null) {
+                result.put(id, day);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<Long, Long> startVersions = new HashMap<>();
+        missing.forEach(id -> startVersions.put(id, version(id).get()));
+        Map<Long, List<Booking>> byTerrain = reservationRepository.findActiveSlotsForTerrainsOn(missing, date)
+                .stream()
+                .collect(Collectors.groupingBy(ReservationRepository.SlotView::getTerrainId,
+                        Collectors.mapping(SlotAvailabilityIndex::toBooking, Collectors.toList())));
+        for (TerrainRepository.ScheduleView s : terrainRepository.findSchedulesByIdIn(missing)) {
+            DaySlots day = new DaySlots(s.getHeureOuverture(), s.getHeureFermeture(), s.getDureeCreneau(),
+                    byTerrain.getOrDefault(s.getId(), List.of()));
+            result.put(s.getId(), day);
+            if (isIndexed(date)) {
+                putIfCurrent(new DayKey(s.getId(), date), startVersions.get(s.getId()), day);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Débuts libres de plusieurs terrains le même jour (recherche par ville),
+     * avec une seule lecture en base pour les journées manquantes.
+     */
+    public Map<Long, List<LocalTime>> freeStarts(Collection<Long> terrainIds, LocalDate date,
+            LocalTime fenetreDebut, LocalTime fenetreFin, int dureeMinutes) {
+        Map<Long, List<LocalTime>> result = new HashMap<>();
+        daysOf(terrainIds, date).forEach((id, day) -> result.put(id,
+                freeStarts(day, fenetreDebut, fenetreFin, dureeMinutes)));
+        return result;
+    }
+
+    /**
+     * Débuts possibles (sur la grille du terrain) d'un créneau libre de
+     * {@code dureeMinutes} entièrement compris dans [fenetreDebut, fenetreFin].
+     */
+    public List<LocalTime> freeStarts(Long terrainId, LocalDate date, LocalTime fenetreDebut, LocalTime fenetreFin,
+            int dureeMinutes) {
+        return freeStarts(day(terrainId, date), fenetreDebut, fenetreFin, dureeMinutes);
+    }
+
+    private static List<LocalTime> freeStarts(DaySlots day, LocalTime fenetreDebut, LocalTime fenetreFin,
+            int dureeMinutes) {
+        int windowStart = Math.max(DaySlots.minuteOf(fenetreDebut), day.openingMinute);
+        int windowEnd = Math.min(DaySlots.minuteOf(fenetreFin), day.openingMinute + day.slotCount * day.slotMinutes);
+        List<LocalTime> starts = new ArrayList<>();
+        for (int start = day.openingMinute; start + dureeMinutes <= windowEnd; start += day.slotMinutes) {
+            // 24:00 n'est pas représentable en LocalTime
+            if (start < windowStart || start + dureeMinutes >= 24 * 60) {
+                continue;
+            }
+            LocalTime debut = LocalTime.of(start / 60, start % 60);
+            if (day.isFree(debut, debut.plusMinutes(dureeMinutes), null)) {
+                starts.add(debut);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Installe une journée lue en base, sauf si le terrain a changé depuis la
+     * lecture (elle sera alors rechargée au prochain accès). Renvoie la
+     * journée présente dans l'index après coup, null si rien n'est installé.
+     */
+    private DaySlots putIfCurrent(DayKey key, long version, DaySlots loaded) {
+        return days.compute(key, (k, existing) -> {
+            if (existing != null || version(k.terrainId()).get() != version) {
+                return existing;
+            }
+            loaded.bookings.forEach(b -> locations.put(b.reservationId(), k));
+            return loaded;
+        });
+    }
+
+    private AtomicLong version(long terrainId) {
+        return versions.computeIfAbsent(terrainId, id -> new AtomicLong());
+    }
+
+    private static Booking toBooking(ReservationRepository.SlotView v) {
+        return new Booking(v.getId(), v.getStatus(), v.getHeureDebut(), v.getHeureFin());
+    }
+
+    /** Vrai si la journée peut être gardée dans l'index. */
+    private boolean isIndexed(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        return !date.isBefore(today) && !date.isAfter(today.plusDays(indexDays));
+    }
+
+    private DaySlots day(Long terrainId, LocalDate date) {
+        DayKey key = new DayKey(terrainId, date);
+        DaySlots cached = days.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (!isIndexed(date)) {
+            return read(key);
+        }
+        // Lecture hors de la map : dans computeIfAbsent la requête tiendrait le moniteur
+        // du bin et épinglerait le thread virtuel. Une mise à jour commitée entre-temps
+        // change la version et la lecture n'est pas installée.
+        long version = version(terrainId).get();
+        DaySlots loaded = read(key);
+        DaySlots installed = putIfCurrent(key, version, loaded);
+        return installed != null ? installed : loaded;
+    }
+
+    private DaySlots read(DayKey key) {
+        TerrainRepository.ScheduleView schedule = terrainRepository.findScheduleById(key.terrainId())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Terrain non trouvé avec l'ID: " + key.terrainId()));
+        List<Booking> bookings = reservationRepository.findActiveSlots(key.terrainId(), key.date()).stream()
+                .map(SlotAvailabilityIndex::toBooking)
+                .collect(Collectors.toList());
+        return new DaySlots(schedule.getHeureOuverture(), schedule.getHeureFermeture(),
+                schedule.getDureeCreneau(), bookings);
+    }
+
+    // ==========================================
+    // MISES À JOUR (après commit)
+    // ==========================================
+
+    /**
+     * Reporte l'état d'une réservation créée, modifiée ou annulée. Appelé dans
+     * une transaction, l'index n'est touché qu'une fois celle-ci commitée.
+     */
+    public void onSaved(Reservation reservation) {
+        Long id = reservation.getId();
+        DayKey key = new DayKey(reservation.getTerrain().getId(), reservation.getDate());
+        Booking booking = ANNULEE.equals(reservation.getStatus()) ? null
+                : new Booking(id, reservation.getStatus(), reservation.getHeureDebut(),
+                        reservation.getHeureFin());
+        afterCommit(() -> apply(id, key, booking));
+    }
+
+    public void onDeleted(Long reservationId) {
+        afterCommit(() -> apply(reservationId, null, null));
+    }
+
+    /** Horaires ou durée de créneau modifiés : toutes les journées du terrain sont reconstruites. */
+    public void invalidateTerrain(long terrainId) {
+        afterCommit(() -> {
+            version(terrainId).incrementAndGet();
+            days.keySet().removeIf(k -> k.terrainId() == terrainId);
+        });
+    }
+
+    private void apply(Long id, DayKey key, Booking booking) {
+        // Hors fenêtre, la journée n'est jamais en mémoire : rien à retenir pour cette réservation
+        DayKey previous = booking != null && isIndexed(key.date()) ? locations.put(id, key) : locations.remove(id);
+        if (key != null) {
+            version(key.terrainId()).incrementAndGet();
+        }
+        if (previous != null && !previous.equals(key)) {
+            version(previous.terrainId()).incrementAndGet();
+            days.computeIfPresent(previous, (k, day) -> day.with(null, id));
+        }
+        if (key != null) {
+            // Jour non chargé : il sera reconstruit depuis la base au prochain accès
+            days.computeIfPresent(key, (k, day) -> day.with(booking, id));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ==========================================
+    // CHARGEMENT / PURGE
+    // ==========================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        try {
+            LocalDate from = LocalDate.now();
+            LocalDate to = from.plusDays(preloadDays);
+            Map<Long, Long> startVersions = new HashMap<>();
+            versions.forEach((id, v) -> startVersions.put(id, v.get()));
+            Map<DayKey, List<Booking>> grouped = reservationRepository.findActiveSlotsBetween(from, to).stream()
+                    .collect(Collectors.groupingBy(v -> new DayKey(v.getTerrainId(), v.getDate()),
+                            Collectors.mapping(SlotAvailabilityIndex::toBooking, Collectors.toList())));
+            List<Long> terrainIds = grouped.keySet().stream().map(DayKey::terrainId).distinct().toList();
+            Map<Long, TerrainRepository.ScheduleView> schedules = terrainRepository.findSchedulesByIdIn(terrainIds)
+                    .stream()
+                    .collect(Collectors.toMap(TerrainRepository.ScheduleView::getId, s -> s));
+
+            grouped.forEach((key, bookings) -> {
+                TerrainRepository.ScheduleView s = schedules.get(key.terrainId());
+                if (s == null) {
+                    return;
+                }
+                putIfCurrent(key, startVersions.getOrDefault(key.terrainId(), 0L),
+                        new DaySlots(s.getHeureOuverture(), s.getHeureFermeture(), s.getDureeCreneau(), bookings));
+            });
+            System.out.println("Availability index preloaded: " + grouped.size() + " terrain-days");
+        } catch (Exception e) {
+            // Pas bloquant : les journées seront chargées à la demande
+            System.err.println("Could not preload availability index: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${reservation.availability.purge-cron:0 5 0 * * *}")
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        days.keySet().removeIf(k -> k.date().isBefore(today));
+        locations.values().removeIf(k -> k.date().isBefore(today));
+    }
+}
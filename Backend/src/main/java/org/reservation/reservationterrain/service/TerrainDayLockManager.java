@@ -0,0 +1,170 @@
+package org.reservation.reservationterrain.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrous par (terrain, jour) autour du contrôle de chevauchement et de
+ * l'insertion d'une réservation.
+ *
+ * Chaque couple (terrain, jour) a son propre verrou, créé à la demande et
+ * retiré dès que plus personne ne l'utilise : deux réservations sur des
+ * terrains ou des jours différents ne se bloquent jamais, et le nombre de
+ * verrous vivants reste borné par {@code reservation.locks.max-stripes}.
+ * Le verrou est rendu à la fin de la transaction (après commit ou rollback),
+ * pour que la réservation suivante voie bien la précédente.
+ */
+@Component
+public class TerrainDayLockManager {
+
+    private final ConcurrentHashMap<Key, Stripe> stripes = new ConcurrentHashMap<>();
+    private final boolean fair;
+    private final long timeoutMs;
+    private final int maxStripes;
+
+    // Contention, exposée par MetricsConfig.terrainLockMetrics
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    public TerrainDayLockManager(@Value("${reservation.locks.fair:true}") boolean fair,
+            @Value("${reservation.locks.timeout-ms:2000}") long timeoutMs,
+            @Value("${reservation.locks.max-stripes:4096}") int maxStripes) {
+        this.fair = fair;
+        this.timeoutMs = timeoutMs;
+        this.maxStripes = maxStripes;
+    }
+
+    public record Key(long terrainId, LocalDate date) {
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock;
+        // modifié uniquement dans stripes.compute(...)
+        int holders;
+
+        Stripe(boolean fair) {
+            this.lock = new ReentrantLock(fair);
+        }
+    }
+
+    /**
+     * Verrouille (terrain, jour) jusqu'à la fin de la transaction courante.
+     */
+    public void lockUntilCompletion(Long terrainId, LocalDate date) {
+        lockUntilCompletion(List.of(new Key(terrainId, date)));
+    }
+
+    /**
+     * Verrouille plusieurs (terrain, jour) — cas d'une réservation déplacée —
+     * toujours dans le même ordre pour éviter les interblocages.
+     */
+    public void lockUntilCompletion(List<Key> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Le verrou de réservation doit être pris dans une transaction");
+        }
+        List<Key> ordered = keys.stream()
+                .distinct()
+                .sorted(Comparator.comparingLong(Key::terrainId).thenComparing(Key::date))
+                .toList();
+        for (Key key : ordered) {
+            acquire(key);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    release(key);
+                }
+            });
+        }
+    }
+
+    private void acquire(Key key) {
+        Stripe stripe = stripes.compute(key, (k, s) -> {
+            if (s == null) {
+                if (stripes.size() >= maxStripes) {
+                    throw new IllegalStateException(
+                            "Trop de réservations en cours. Veuillez réessayer dans un instant.");
+                }
+                s = new Stripe(fair);
+            }
+            s.holders++;
+            return s;
+        });
+
+        acquisitions.increment();
+        // tryLock() passe devant les threads en attente même sur un verrou équitable :
+        // tryLock(0, ...) respecte la file
+        boolean free;
+        try {
+            free = fair ? stripe.lock.tryLock(0, TimeUnit.MILLISECONDS) : stripe.lock.tryLock();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            free = false;
+        }
+        if (free) {
+            return;
+        }
+
+        contended.increment();
+        long start = System.nanoTime();
+        boolean locked = false;
+        try {
+            locked = stripe.lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waitNanos.add(System.nanoTime() - start);
+            if (!locked) {
+                timeouts.increment();
+                unreference(key);
+            }
+        }
+        if (!locked) {
+            throw new IllegalStateException(
+                    "Ce créneau est en cours de réservation par un autre utilisateur. Veuillez réessayer.");
+        }
+    }
+
+    private void release(Key key) {
+        Stripe stripe = stripes.get(key);
+        if (stripe != null && stripe.lock.isHeldByCurrentThread()) {
+            stripe.lock.unlock();
+        }
+        unreference(key);
+    }
+
+    private void unreference(Key key) {
+        stripes.computeIfPresent(key, (k, s) -> --s.holders == 0 ? null : s);
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long getContended() {
+        return contended.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    public int getActiveStripes() {
+        return stripes.size();
+    }
+}
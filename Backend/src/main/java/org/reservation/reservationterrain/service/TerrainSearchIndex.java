@@ -0,0 +1,143 @@
+package org.reservation.reservationterrain.service;
+
+import org.reservation.reservationterrain.dto.TerrainSearchResult;
+import org.reservation.reservationterrain.repository.TerrainRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche "un terrain libre à Casablanca demain à 20h" sans parcourir les
+ * réservations terrain par terrain.
+ *
+ * Index ville → terrains OUVERT (avec prix et grille), reconstruit en une
+ * requête dès que le catalogue change ; l'occupation du jour vient de
+ * {@link SlotAvailabilityIndex}, chargée en une requête pour toute la ville.
+ */
+@Component
+public class TerrainSearchIndex {
+
+    private final TerrainRepository terrainRepository;
+    private final SlotAvailabilityIndex availabilityIndex;
+
+    // null = à reconstruire au prochain appel
+    private volatile Map<String, List<Entry>> byVille;
+    // écarte une reconstruction commencée avant la dernière modification
+    private final AtomicLong generation = new AtomicLong();
+    // une seule reconstruction à la fois ; verrou plutôt que synchronized (requête SQL sur un thread virtuel)
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public TerrainSearchIndex(TerrainRepository terrainRepository, SlotAvailabilityIndex availabilityIndex) {
+        this.terrainRepository = terrainRepository;
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    record Entry(long terrainId, String nom, String prixTerrain, double prix, long complexeId, String complexeNom,
+            String ville, String adress) {
+    }
+
+    private record Match(Entry entry, LocalTime heureDebut) {
+    }
+
+    public List<TerrainSearchResult> search(String ville, LocalDate date, LocalTime from, LocalTime to,
+            int dureeMinutes, int limit) {
+        List<Entry> candidates = snapshot().getOrDefault(normalize(ville), List.of());
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> terrainIds = candidates.stream().map(Entry::terrainId).toList();
+        Map<Long, List<LocalTime>> freeStarts = availabilityIndex.freeStarts(terrainIds, date, from, to,
+                dureeMinutes);
+
+        List<Match> matches = new ArrayList<>();
+        for (Entry e : candidates) {
+            for (LocalTime start : freeStarts.getOrDefault(e.terrainId(), List.of())) {
+                matches.add(new Match(e, start));
+            }
+        }
+
+        return matches.stream()
+                .sorted(Comparator.comparing(Match::heureDebut)
+                        .thenComparingDouble(m -> m.entry().prix())
+                        .thenComparingLong(m -> m.entry().terrainId()))
+                .limit(limit)
+                .map(m -> toResult(m, date, dureeMinutes))
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+        byVille = null;
+    }
+
+    private Map<String, List<Entry>> snapshot() {
+        Map<String, List<Entry>> current = byVille;
+        if (current != null) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            current = byVille;
+            if (current == null) {
+                long startGeneration = generation.get();
+                current = terrainRepository.findOpenForSearch().stream()
+                        .filter(v -> v.getVille() != null)
+                        .map(v -> new Entry(v.getId(), v.getNom(), v.getPrixTerrain(), parsePrix(v.getPrixTerrain()),
+                                v.getComplexeId(), v.getComplexeNom(), v.getVille(), v.getAdress()))
+                        .collect(Collectors.groupingBy(e -> normalize(e.ville())));
+                if (generation.get() == startGeneration) {
+                    byVille = current;
+                }
+            }
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private static TerrainSearchResult toResult(Match m, LocalDate date, int dureeMinutes) {
+        Entry e = m.entry();
+        TerrainSearchResult r = new TerrainSearchResult();
+        r.setTerrainId(e.terrainId());
+        r.setTerrainNom(e.nom());
+        r.setPrixTerrain(e.prixTerrain());
+        r.setComplexeId(e.complexeId());
+        r.setComplexeNom(e.complexeNom());
+        r.setVille(e.ville());
+        r.setAdress(e.adress());
+        r.setDate(date);
+        r.setHeureDebut(m.heureDebut());
+        r.setHeureFin(m.heureDebut().plusMinutes(dureeMinutes));
+        return r;
+    }
+
+    private static double parsePrix(String prix) {
+        try {
+            return Double.parseDouble(prix);
+        } catch (NumberFormatException | NullPointerException e) {
+            return Double.MAX_VALUE;
+        }
+    }
+
+    // "Casablanca", " casablanca ", "CASABLANCA" et "Casablança" tombent sur la même clé
+    static String normalize(String ville) {
+        if (ville == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(ville.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT);
+    }
+}
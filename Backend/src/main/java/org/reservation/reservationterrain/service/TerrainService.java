@@ -1,22 +1,41 @@
 package org.reservation.reservationterrain.service;
 
+import org.reservation.reservationterrain.dto.AvailabilityResponse;
 import org.reservation.reservationterrain.dto.TerrainResponseDTO;
+import org.reservation.reservationterrain.dto.TerrainSearchResult;
 import org.reservation.reservationterrain.model.Terrain;
 import org.reservation.reservationterrain.repository.TerrainRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class TerrainService {
 
+    private static final int MAX_AVAILABILITY_DAYS = 62;
+    private static final int MAX_SEARCH_RESULTS = 200;
+
     private final TerrainRepository terrainRepository;
+    private final SlotAvailabilityIndex availabilityIndex;
+    private final TerrainSearchIndex searchIndex;
+    private final ImageStore imageStore;
 
-    public TerrainService(TerrainRepository terrainRepository) {
+    public TerrainService(TerrainRepository terrainRepository, SlotAvailabilityIndex availabilityIndex,
+            TerrainSearchIndex searchIndex, ImageStore imageStore) {
         this.terrainRepository = terrainRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.searchIndex = searchIndex;
+        this.imageStore = imageStore;
     }
 
+    @Transactional(readOnly = true)
     public List<TerrainResponseDTO> getTerrainsByComplexe(Long complexeId) {
         List<Terrain> terrains = terrainRepository.findByComplexe_Id(complexeId);
 
@@ -30,6 +49,7 @@ public class TerrainService {
             dto.setStatus(t.getStatus());
             dto.setHeureOuverture(t.getHeureOuverture());
             dto.setHeureFermeture(t.getHeureFermeture());
+            dto.setPhoto(imageStore.urlOf(t.getImageHash(), ImageVariants.Variant.CARD.id()));
 
             terrainDtos.add(dto);
         }
@@ -37,6 +57,51 @@ public class TerrainService {
         return terrainDtos;
     }
 
+    // Pas de readOnly ici ni dans searchFreeTerrains : les index en mémoire se chargent sur le primaire
+    public AvailabilityResponse getAvailability(Long terrainId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("La date de fin doit être après la date de début");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_AVAILABILITY_DAYS) {
+            throw new IllegalArgumentException(
+                    "La période demandée ne peut pas dépasser " + MAX_AVAILABILITY_DAYS + " jours");
+        }
+
+        Map<LocalDate, SlotAvailabilityIndex.DayAvailability> byDay = availabilityIndex.getAvailability(terrainId,
+                from, to);
+
+        AvailabilityResponse response = new AvailabilityResponse();
+        response.setTerrainId(terrainId);
+        response.setFrom(from);
+        response.setTo(to);
+
+        Map<LocalDate, String> days = new LinkedHashMap<>();
+        byDay.forEach((date, day) -> {
+            // Même grille pour toute la période, sauf modification du terrain entre deux chargements
+            response.setHeureOuverture(day.heureOuverture());
+            response.setHeureFermeture(day.heureFermeture());
+            response.setDureeCreneau(day.dureeCreneau());
+            days.put(date, day.freeSlots());
+        });
+        response.setDays(days);
+        return response;
+    }
+
+    public List<TerrainSearchResult> searchFreeTerrains(String ville, LocalDate date, LocalTime from, LocalTime to,
+            int duree, int limit) {
+        if (ville == null || ville.isBlank()) {
+            throw new IllegalArgumentException("La ville est obligatoire");
+        }
+        if (duree <= 0) {
+            throw new IllegalArgumentException("La durée doit être positive");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("L'heure de début doit être avant l'heure de fin");
+        }
+        return searchIndex.search(ville, date, from, to, duree, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
+    }
+
+    @Transactional(readOnly = true)
     public long countActiveTerrains() {
         return terrainRepository.count(); // Returning total count to ensure all terrains are counted regardless of
                                           // status
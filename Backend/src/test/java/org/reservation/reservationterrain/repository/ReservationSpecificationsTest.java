@@ -0,0 +1,128 @@
+package org.reservation.reservationterrain.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.reservation.reservationterrain.model.Reservation;
+import org.reservation.reservationterrain.service.ReservationCursor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Le prédicat de {@link ReservationSpecifications#after} est évalué en
+ * mémoire par un CriteriaBuilder simulé, sur des lignes triées comme les
+ * listes paginées : chaque ligne prise comme curseur doit donner exactement
+ * les lignes qui la suivent.
+ */
+class ReservationSpecificationsTest {
+
+    // Chaque Path / Predicate produit par les mocks, vu comme une fonction d'une réservation
+    private final Map<Object, Function<Reservation, Object>> values = new IdentityHashMap<>();
+
+    @Test
+    void afterReturnsExactlyTheRowsFollowingTheCursor() {
+        List<Reservation> rows = new ArrayList<>();
+        long id = 1;
+        for (LocalDate date : List.of(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 2), LocalDate.of(2025, 7, 1))) {
+            for (LocalTime heure : List.of(LocalTime.of(8, 0), LocalTime.of(9, 30), LocalTime.of(18, 0))) {
+                // ids volontairement non monotones entre les dates, plusieurs lignes à la même heure
+                for (int i = 0; i < 3; i++) {
+                    rows.add(reservation(id * 7 % 100, date, heure));
+                    id++;
+                }
+            }
+        }
+        rows.sort(Comparator.comparing(Reservation::getDate)
+                .thenComparing(Reservation::getHeureDebut)
+                .thenComparing(Reservation::getId));
+
+        for (int i = 0; i < rows.size(); i++) {
+            Reservation last = rows.get(i);
+            ReservationCursor cursor = ReservationCursor.decode(
+                    new ReservationCursor(last.getDate(), last.getHeureDebut(), last.getId()).encode());
+
+            List<Reservation> page = rows.stream()
+                    .filter(r -> matches(cursor, r))
+                    .toList();
+
+            assertThat(page).as("après la ligne %d", i).containsExactlyElementsOf(rows.subList(i + 1, rows.size()));
+        }
+    }
+
+    @Test
+    void laterDayWithEarlierHourAndSmallerIdIsStillAfter() {
+        ReservationCursor cursor = new ReservationCursor(LocalDate.of(2025, 6, 1), LocalTime.of(20, 0), 500L);
+
+        assertThat(matches(cursor, reservation(1L, LocalDate.of(2025, 6, 2), LocalTime.of(8, 0)))).isTrue();
+        assertThat(matches(cursor, reservation(999L, LocalDate.of(2025, 5, 31), LocalTime.of(23, 0)))).isFalse();
+        assertThat(matches(cursor, reservation(499L, LocalDate.of(2025, 6, 1), LocalTime.of(20, 0)))).isFalse();
+        assertThat(matches(cursor, reservation(501L, LocalDate.of(2025, 6, 1), LocalTime.of(20, 0)))).isTrue();
+    }
+
+    private boolean matches(ReservationCursor cursor, Reservation reservation) {
+        @SuppressWarnings("unchecked")
+        Root<Reservation> root = mock(Root.class, this::path);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class, this::predicate);
+        Predicate predicate = ReservationSpecifications.after(cursor.date(), cursor.heureDebut(), cursor.id())
+                .toPredicate(root, mock(CriteriaQuery.class), cb);
+        return (Boolean) values.get(predicate).apply(reservation);
+    }
+
+    private Object path(InvocationOnMock invocation) {
+        String attribute = invocation.getArgument(0);
+        Function<Reservation, Object> getter = switch (attribute) {
+            case "date" -> Reservation::getDate;
+            case "heureDebut" -> Reservation::getHeureDebut;
+            case "id" -> Reservation::getId;
+            default -> throw new IllegalArgumentException("Attribut non simulé: " + attribute);
+        };
+        Path<?> path = mock(Path.class);
+        values.put(path, getter);
+        return path;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Object predicate(InvocationOnMock invocation) {
+        Object[] args = invocation.getArguments();
+        Function<Reservation, Object> test = switch (invocation.getMethod().getName()) {
+            case "and" -> r -> Arrays.stream(args).allMatch(p -> (Boolean) eval(p, r));
+            case "or" -> r -> Arrays.stream(args).anyMatch(p -> (Boolean) eval(p, r));
+            case "equal" -> r -> eval(args[0], r).equals(eval(args[1], r));
+            case "greaterThan" -> r -> ((Comparable) eval(args[0], r)).compareTo(eval(args[1], r)) > 0;
+            case "greaterThanOrEqualTo" -> r -> ((Comparable) eval(args[0], r)).compareTo(eval(args[1], r)) >= 0;
+            default -> throw new UnsupportedOperationException(invocation.getMethod().getName());
+        };
+        Predicate predicate = mock(Predicate.class);
+        values.put(predicate, test);
+        return predicate;
+    }
+
+    // Une expression simulée ou une constante passée telle quelle
+    private Object eval(Object expression, Reservation r) {
+        Function<Reservation, Object> value = values.get(expression);
+        return value != null ? value.apply(r) : expression;
+    }
+
+    private static Reservation reservation(Long id, LocalDate date, LocalTime heureDebut) {
+        Reservation r = new Reservation();
+        r.setId(id);
+        r.setDate(date);
+        r.setHeureDebut(heureDebut);
+        return r;
+    }
+}
@@ -0,0 +1,114 @@
+package org.reservation.reservationterrain.service;
+
+import org.junit.jupiter.api.Test;
+import org.reservation.reservationterrain.service.SlotAvailabilityIndex.Booking;
+import org.reservation.reservationterrain.service.SlotAvailabilityIndex.DaySlots;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DaySlotsTest {
+
+    // Terrain ouvert de 8h à 22h, créneaux d'une heure
+    private static DaySlots day(Booking... bookings) {
+        return new DaySlots(8, 22, 60, List.of(bookings));
+    }
+
+    private static Booking booking(long id, String debut, String fin) {
+        return new Booking(id, "CONFIRMEE", LocalTime.parse(debut), LocalTime.parse(fin));
+    }
+
+    private static boolean isFree(DaySlots day, String debut, String fin, Long excludeId) {
+        return day.isFree(LocalTime.parse(debut), LocalTime.parse(fin), excludeId);
+    }
+
+    @Test
+    void emptyDayIsFree() {
+        assertThat(isFree(day(), "08:00", "22:00", null)).isTrue();
+        assertThat(day().availability().freeSlots()).isEqualTo("1".repeat(14));
+    }
+
+    @Test
+    void alignedRequestUsesTheBitmap() {
+        DaySlots day = day(booking(1, "10:00", "12:00"));
+
+        assertThat(day.aligned).isTrue();
+        assertThat(isFree(day, "10:00", "11:00", null)).isFalse();
+        assertThat(isFree(day, "11:00", "12:00", null)).isFalse();
+        assertThat(isFree(day, "09:00", "13:00", null)).isFalse();
+        assertThat(day.availability().freeSlots()).isEqualTo("11001111111111");
+    }
+
+    @Test
+    void touchingBookingsDoNotOverlap() {
+        DaySlots day = day(booking(1, "10:00", "11:00"));
+
+        assertThat(isFree(day, "09:00", "10:00", null)).isTrue();
+        assertThat(isFree(day, "11:00", "12:00", null)).isTrue();
+    }
+
+    @Test
+    void offGridRequestIsCheckedAgainstTheBookings() {
+        DaySlots day = day(booking(1, "10:00", "11:00"));
+
+        assertThat(isFree(day, "09:30", "10:30", null)).isFalse();
+        assertThat(isFree(day, "10:59", "11:30", null)).isFalse();
+        assertThat(isFree(day, "09:15", "10:00", null)).isTrue();
+        assertThat(isFree(day, "11:00", "11:45", null)).isTrue();
+    }
+
+    @Test
+    void offGridBookingDisablesTheBitmapShortcut() {
+        // 9h30-10h30 marque les créneaux 9h et 10h, mais 9h-9h30 et 10h30-11h restent libres
+        DaySlots day = day(booking(1, "09:30", "10:30"));
+
+        assertThat(day.aligned).isFalse();
+        assertThat(isFree(day, "09:00", "10:00", null)).isFalse();
+        assertThat(isFree(day, "10:30", "11:00", null)).isTrue();
+        assertThat(isFree(day, "10:30", "11:30", null)).isTrue();
+        assertThat(isFree(day, "08:00", "09:30", null)).isTrue();
+        assertThat(day.availability().freeSlots()).startsWith("1001");
+    }
+
+    @Test
+    void excludedReservationDoesNotConflictWithItself() {
+        DaySlots day = day(booking(1, "10:00", "12:00"), booking(2, "14:00", "15:00"));
+
+        assertThat(isFree(day, "10:00", "11:00", 1L)).isTrue();
+        assertThat(isFree(day, "11:00", "13:00", 1L)).isTrue();
+        assertThat(isFree(day, "11:00", "15:00", 1L)).isFalse();
+        assertThat(isFree(day, "10:00", "11:00", 2L)).isFalse();
+    }
+
+    @Test
+    void requestOutsideOpeningHoursIsCheckedExactly() {
+        DaySlots day = day(booking(1, "21:00", "22:00"));
+
+        assertThat(isFree(day, "07:00", "08:00", null)).isTrue();
+        assertThat(isFree(day, "21:30", "23:00", null)).isFalse();
+        assertThat(isFree(day, "22:00", "23:00", null)).isTrue();
+    }
+
+    @Test
+    void withReplacesAndRemovesBookings() {
+        DaySlots day = day(booking(1, "10:00", "11:00"));
+
+        DaySlots moved = day.with(booking(1, "15:00", "16:00"), 1L);
+        assertThat(isFree(moved, "10:00", "11:00", null)).isTrue();
+        assertThat(isFree(moved, "15:00", "16:00", null)).isFalse();
+        assertThat(isFree(day, "10:00", "11:00", null)).isFalse();
+
+        DaySlots cancelled = moved.with(null, 1L);
+        assertThat(cancelled.bookings).isEmpty();
+        assertThat(isFree(cancelled, "15:00", "16:00", null)).isTrue();
+    }
+
+    @Test
+    void bookingsAreKeptSortedByStartTime() {
+        DaySlots day = day(booking(3, "18:00", "19:00"), booking(1, "08:00", "09:00"), booking(2, "12:00", "13:00"));
+
+        assertThat(day.bookings).extracting(Booking::reservationId).containsExactly(1L, 2L, 3L);
+    }
+}
@@ -0,0 +1,198 @@
+package org.reservation.reservationterrain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comptabilité des places du bulkhead et de l'essai du disjoncteur dans
+ * {@link KeycloakCalls#recordAsync} : succès, erreur, annulation, attente
+ * d'une place et abandon.
+ */
+class KeycloakCallsTest {
+
+    private static final long BULKHEAD_WAIT_MS = 100;
+    private static final long OPEN_MS = 50;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // une place par API, disjoncteur ouvert dès le premier échec
+    private final KeycloakCalls calls = new KeycloakCalls(registry, 1, 1, BULKHEAD_WAIT_MS, 2, 50, OPEN_MS);
+
+    @Test
+    void successReleasesThePermitAndIsTimed() {
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.TOKEN, "login", Mono.just("token")))
+                .expectNext("token")
+                .verifyComplete();
+
+        assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isZero();
+        assertThat(timerCount("login", "success")).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorIsRejectedWithoutOpeningTheCircuit() {
+        Mono<String> unauthorized = Mono.error(WebClientResponseException.create(
+                HttpStatus.UNAUTHORIZED.value(), "Unauthorized", null, null, null));
+
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.TOKEN, "login", unauthorized))
+                .expectError(WebClientResponseException.class)
+                .verify();
+
+        assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isZero();
+        assertThat(timerCount("login", "rejected")).isEqualTo(1);
+        assertThat(calls.getCircuitState()).isZero();
+    }
+
+    @Test
+    void serverErrorReleasesThePermitAndOpensTheCircuit() {
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.TOKEN, "login",
+                Mono.<String>error(new IllegalStateException("connection refused"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isZero();
+        assertThat(timerCount("login", "error")).isEqualTo(1);
+        assertThat(calls.getCircuitState()).isEqualTo(KeycloakCircuitBreaker.State.OPEN.ordinal());
+
+        AtomicInteger subscribed = new AtomicInteger();
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.TOKEN, "login",
+                Mono.fromSupplier(() -> subscribed.incrementAndGet())))
+                .expectError(KeycloakUnavailableException.class)
+                .verify();
+        assertThat(subscribed).hasValue(0);
+        assertThat(refusedCount("circuit-open")).isEqualTo(1);
+    }
+
+    @Test
+    void cancelReleasesThePermitWithoutCountingAnOutcome() {
+        Disposable pending = calls.recordAsync(KeycloakCalls.TOKEN, "login", Mono.never()).subscribe();
+        assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isEqualTo(1);
+
+        pending.dispose();
+
+        assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isZero();
+        assertThat(registry.find("keycloak.requests").timers()).isEmpty();
+        assertThat(calls.getCircuitState()).isZero();
+    }
+
+    @Test
+    void waitsForAPermitWithoutTakingTwo() {
+        Disposable holder = calls.recordAsync(KeycloakCalls.TOKEN, "login", Mono.never()).subscribe();
+
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.TOKEN, "login", Mono.just("token")))
+                .expectSubscription()
+                .then(() -> assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isEqualTo(1))
+                .thenAwait(Duration.ofMillis(20))
+                .then(holder::dispose)
+                .expectNext("token")
+                .verifyComplete();
+
+        assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isZero();
+        assertThat(timerCount("login", "success")).isEqualTo(1);
+    }
+
+    @Test
+    void fullBulkheadFailsAfterTheWaitAndOnlyForItsApi() {
+        Disposable holder = calls.recordAsync(KeycloakCalls.TOKEN, "login", Mono.never()).subscribe();
+
+        AtomicInteger subscribed = new AtomicInteger();
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.TOKEN, "login",
+                Mono.fromSupplier(() -> subscribed.incrementAndGet())))
+                .expectError(KeycloakUnavailableException.class)
+                .verify(Duration.ofSeconds(2));
+        assertThat(subscribed).hasValue(0);
+        assertThat(refusedCount("bulkhead-full")).isEqualTo(1);
+        assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isEqualTo(1);
+
+        // l'API d'administration a ses propres places
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.ADMIN, "users.search", Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+
+        holder.dispose();
+        assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isZero();
+    }
+
+    @Test
+    void cancelledProbeLetsTheNextCallTry() throws InterruptedException {
+        openCircuit();
+        Thread.sleep(OPEN_MS + 20);
+
+        Disposable probe = calls.recordAsync(KeycloakCalls.TOKEN, "login", Mono.never()).subscribe();
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.ADMIN, "users.search", Mono.just("ok")))
+                .expectError(KeycloakUnavailableException.class)
+                .verify();
+
+        probe.dispose();
+
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.ADMIN, "users.search", Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+        assertThat(calls.getCircuitState()).isZero();
+        assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isZero();
+    }
+
+    @Test
+    void probeAbandonedOnAFullBulkheadLetsTheNextCallTry() throws InterruptedException {
+        // place prise tant que le circuit est fermé, puis circuit ouvert par un échec sur l'autre API
+        Disposable holder = calls.recordAsync(KeycloakCalls.TOKEN, "login", Mono.never()).subscribe();
+        openCircuit();
+        Thread.sleep(OPEN_MS + 20);
+
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.TOKEN, "login", Mono.just("token")))
+                .expectError(KeycloakUnavailableException.class)
+                .verify(Duration.ofSeconds(2));
+        assertThat(refusedCount("bulkhead-full")).isEqualTo(1);
+
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.ADMIN, "users.search", Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+        assertThat(calls.getCircuitState()).isZero();
+
+        holder.dispose();
+        assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isZero();
+    }
+
+    @Test
+    void cancelWhileWaitingForAPermitTakesNothing() throws InterruptedException {
+        Disposable holder = calls.recordAsync(KeycloakCalls.TOKEN, "login", Mono.never()).subscribe();
+        AtomicInteger subscribed = new AtomicInteger();
+        Disposable waiting = calls.recordAsync(KeycloakCalls.TOKEN, "login",
+                Mono.fromSupplier(() -> subscribed.incrementAndGet())).subscribe();
+        Thread.sleep(20);
+
+        waiting.dispose();
+        holder.dispose();
+        Thread.sleep(BULKHEAD_WAIT_MS);
+
+        assertThat(subscribed).hasValue(0);
+        assertThat(calls.getInFlight(KeycloakCalls.TOKEN)).isZero();
+        assertThat(registry.find("keycloak.requests.refused").counters()).isEmpty();
+    }
+
+    private void openCircuit() {
+        StepVerifier.create(calls.recordAsync(KeycloakCalls.ADMIN, "users.search",
+                Mono.<String>error(new IllegalStateException("timeout"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertThat(calls.getCircuitState()).isEqualTo(KeycloakCircuitBreaker.State.OPEN.ordinal());
+    }
+
+    private long timerCount(String operation, String outcome) {
+        var timer = registry.find("keycloak.requests").tag("operation", operation).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double refusedCount(String reason) {
+        var counter = registry.find("keycloak.requests.refused").tag("reason", reason).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,120 @@
+package org.reservation.reservationterrain.service;
+
+import org.junit.jupiter.api.Test;
+import org.reservation.reservationterrain.service.KeycloakCircuitBreaker.State;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeycloakCircuitBreakerTest {
+
+    private static final long OPEN_MS = 30;
+
+    private final KeycloakCircuitBreaker circuit = new KeycloakCircuitBreaker(10, 50, OPEN_MS);
+
+    @Test
+    void waitsForHalfTheWindowBeforeOpening() {
+        for (int i = 0; i < 4; i++) {
+            circuit.onFailure();
+        }
+        assertThat(circuit.getState()).isEqualTo(State.CLOSED);
+
+        circuit.onFailure();
+        assertThat(circuit.getState()).isEqualTo(State.OPEN);
+        assertThat(circuit.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void opensWhenTheFailureRateReachesTheThreshold() {
+        for (int i = 0; i < 6; i++) {
+            circuit.onSuccess();
+        }
+        for (int i = 0; i < 4; i++) {
+            circuit.onFailure();
+        }
+        // 4 échecs sur 10 : sous les 50 %
+        assertThat(circuit.getState()).isEqualTo(State.CLOSED);
+
+        // fenêtre glissante : le plus ancien succès sort, 5 échecs sur 10
+        circuit.onFailure();
+        assertThat(circuit.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void letsASingleProbeThroughOnceTheOpenDelayHasPassed() throws InterruptedException {
+        open();
+        assertThat(circuit.tryAcquire()).isFalse();
+
+        Thread.sleep(OPEN_MS + 20);
+        assertThat(circuit.tryAcquire()).isTrue();
+        assertThat(circuit.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(circuit.tryAcquire()).isFalse();
+        assertThat(circuit.tryAcquire()).isFalse();
+
+        circuit.onSuccess();
+        assertThat(circuit.getState()).isEqualTo(State.CLOSED);
+        assertThat(circuit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void failedProbeReopensForAFullDelay() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 20);
+        assertThat(circuit.tryAcquire()).isTrue();
+
+        circuit.onFailure();
+        assertThat(circuit.getState()).isEqualTo(State.OPEN);
+        assertThat(circuit.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void abandonedProbeLetsTheNextCallTry() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 20);
+        assertThat(circuit.tryAcquire()).isTrue();
+        assertThat(circuit.tryAcquire()).isFalse();
+
+        circuit.onAbandoned();
+        assertThat(circuit.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(circuit.tryAcquire()).isTrue();
+        assertThat(circuit.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void abandonWhileClosedChangesNothing() {
+        circuit.onAbandoned();
+        assertThat(circuit.getState()).isEqualTo(State.CLOSED);
+        assertThat(circuit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void closedCircuitStartsWithAnEmptyWindow() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 20);
+        circuit.tryAcquire();
+        circuit.onSuccess();
+
+        // les échecs d'avant l'ouverture ne comptent plus
+        for (int i = 0; i < 4; i++) {
+            circuit.onFailure();
+        }
+        assertThat(circuit.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new KeycloakCircuitBreaker(1, 50, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new KeycloakCircuitBreaker(10, 0, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new KeycloakCircuitBreaker(10, 101, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void open() {
+        for (int i = 0; i < 5; i++) {
+            circuit.onFailure();
+        }
+        assertThat(circuit.getState()).isEqualTo(State.OPEN);
+    }
+}
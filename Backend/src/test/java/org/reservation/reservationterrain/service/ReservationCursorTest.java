@@ -0,0 +1,44 @@
+package org.reservation.reservationterrain.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReservationCursorTest {
+
+    @Test
+    void roundTripsThroughTheToken() {
+        ReservationCursor cursor = new ReservationCursor(LocalDate.of(2025, 6, 2), LocalTime.of(18, 30), 4242L);
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("=", "+", "/", "|");
+        assertThat(ReservationCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> ReservationCursor.decode("not base64 !"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Curseur de pagination invalide");
+        assertThatThrownBy(() -> ReservationCursor.decode(token("2025-06-02|18:30")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Curseur de pagination invalide");
+        assertThatThrownBy(() -> ReservationCursor.decode(token("2025-13-02|18:30|1")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Curseur de pagination invalide");
+        assertThatThrownBy(() -> ReservationCursor.decode(token("2025-06-02|18:30|abc")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Curseur de pagination invalide");
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,108 @@
+package org.reservation.reservationterrain.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reservation.reservationterrain.repository.ReservationRepository;
+import org.reservation.reservationterrain.repository.TerrainRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlotAvailabilityIndexTest {
+
+    private static final long TERRAIN = 1L;
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+    private static final LocalTime DIX = LocalTime.of(10, 0);
+    private static final LocalTime ONZE = LocalTime.of(11, 0);
+
+    private ReservationRepository reservations;
+    private TerrainRepository terrains;
+
+    @BeforeEach
+    void setUp() {
+        reservations = mock(ReservationRepository.class);
+        terrains = mock(TerrainRepository.class);
+        // Terrain ouvert de 8h à 22h, créneaux d'une heure
+        TerrainRepository.ScheduleView schedule = mock(TerrainRepository.ScheduleView.class);
+        when(schedule.getHeureOuverture()).thenReturn(8);
+        when(schedule.getHeureFermeture()).thenReturn(22);
+        when(schedule.getDureeCreneau()).thenReturn(60);
+        when(terrains.findScheduleById(anyLong())).thenReturn(Optional.of(schedule));
+    }
+
+    private SlotAvailabilityIndex index(long dayTtlSeconds) {
+        return new SlotAvailabilityIndex(reservations, terrains, 0, 62, dayTtlSeconds);
+    }
+
+    private static ReservationRepository.SlotView slot(long id, LocalTime debut, LocalTime fin) {
+        ReservationRepository.SlotView view = mock(ReservationRepository.SlotView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getStatus()).thenReturn("CONFIRMEE");
+        when(view.getHeureDebut()).thenReturn(debut);
+        when(view.getHeureFin()).thenReturn(fin);
+        return view;
+    }
+
+    @Test
+    void dayNotLoadedIsNotKnownTaken() {
+        assertThat(index(60).isKnownTaken(TERRAIN, DAY, DIX, ONZE, null)).isFalse();
+
+        verify(reservations, never()).findActiveSlots(any(), any());
+    }
+
+    @Test
+    void freeSlotIsAnsweredWithoutTheDatabase() {
+        when(reservations.findActiveSlots(TERRAIN, DAY)).thenReturn(List.of());
+        SlotAvailabilityIndex index = index(60);
+        index.getBookings(TERRAIN, DAY);
+
+        assertThat(index.isKnownTaken(TERRAIN, DAY, DIX, ONZE, null)).isFalse();
+        verify(reservations, times(1)).findActiveSlots(TERRAIN, DAY);
+    }
+
+    @Test
+    void takenSlotIsConfirmedInTheDatabase() {
+        List<ReservationRepository.SlotView> booked = List.of(slot(7, DIX, ONZE));
+        when(reservations.findActiveSlots(TERRAIN, DAY)).thenReturn(booked);
+        SlotAvailabilityIndex index = index(60);
+        index.getBookings(TERRAIN, DAY);
+
+        assertThat(index.isKnownTaken(TERRAIN, DAY, DIX, ONZE, null)).isTrue();
+        verify(reservations, times(2)).findActiveSlots(TERRAIN, DAY);
+    }
+
+    @Test
+    void slotFreedByAnotherInstanceIsNotRejected() {
+        List<ReservationRepository.SlotView> booked = List.of(slot(7, DIX, ONZE));
+        when(reservations.findActiveSlots(TERRAIN, DAY)).thenReturn(booked, List.of());
+        SlotAvailabilityIndex index = index(60);
+        index.getBookings(TERRAIN, DAY);
+
+        // Annulée ailleurs : l'index local la croit encore prise
+        assertThat(index.isKnownTaken(TERRAIN, DAY, DIX, ONZE, null)).isFalse();
+        // La journée relue remplace l'ancienne
+        assertThat(index.getBookings(TERRAIN, DAY)).isEmpty();
+        verify(reservations, times(2)).findActiveSlots(TERRAIN, DAY);
+    }
+
+    @Test
+    void expiredDayIsReadAgain() {
+        List<ReservationRepository.SlotView> booked = List.of(slot(7, DIX, ONZE));
+        when(reservations.findActiveSlots(TERRAIN, DAY)).thenReturn(List.of(), booked);
+        SlotAvailabilityIndex index = index(0);
+
+        assertThat(index.getBookings(TERRAIN, DAY)).isEmpty();
+        assertThat(index.getBookings(TERRAIN, DAY)).hasSize(1);
+    }
+}
@@ -0,0 +1,165 @@
+package org.reservation.reservationterrain.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TerrainDayLockManagerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 2);
+    private static final TerrainDayLockManager.Key K1 = new TerrainDayLockManager.Key(1, DAY);
+    private static final TerrainDayLockManager.Key K2 = new TerrainDayLockManager.Key(2, DAY);
+
+    private final TerrainDayLockManager locks = new TerrainDayLockManager(true, 100, 16);
+    private final ExecutorService other = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        other.shutdownNow();
+    }
+
+    @Test
+    void refusesToLockOutsideATransaction() {
+        assertThatThrownBy(() -> locks.lockUntilCompletion(1L, DAY))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(locks.getActiveStripes()).isZero();
+    }
+
+    @Test
+    void timesOutWithIllegalStateExceptionWhileAnotherTransactionHoldsTheDay() throws Exception {
+        CountDownLatch release = holdOnOtherThread(K1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThatThrownBy(() -> locks.lockUntilCompletion(1L, DAY))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("en cours de réservation");
+        assertThat(locks.getTimeouts()).isEqualTo(1);
+        assertThat(locks.getContended()).isEqualTo(1);
+
+        release.countDown();
+    }
+
+    @Test
+    void locksKeysInTerrainOrderWhateverTheRequestOrder() throws Exception {
+        CountDownLatch release = holdOnOtherThread(K1);
+
+        // K2 demandé en premier : trié, K1 est tenté d'abord et K2 n'est jamais pris
+        TransactionSynchronizationManager.initSynchronization();
+        assertThatThrownBy(() -> locks.lockUntilCompletion(List.of(K2, K1)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(locks.getActiveStripes()).isEqualTo(1);
+        assertThat(locks.getAcquisitions()).isEqualTo(2);
+
+        release.countDown();
+    }
+
+    @Test
+    void releasesOnRollbackSoTheNextTransactionGetsTheDay() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        locks.lockUntilCompletion(List.of(K1, K2, K1));
+        assertThat(locks.getActiveStripes()).isEqualTo(2);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(locks.getActiveStripes()).isZero();
+
+        inTransactionOnOtherThread(() -> locks.lockUntilCompletion(1L, DAY));
+        assertThat(locks.getTimeouts()).isZero();
+        assertThat(locks.getActiveStripes()).isZero();
+    }
+
+    @Test
+    void waiterGetsTheDayOnceTheHolderCommits() throws Exception {
+        TerrainDayLockManager patient = new TerrainDayLockManager(true, 5_000, 16);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> inTransaction(() -> {
+            patient.lockUntilCompletion(1L, DAY);
+            holding.countDown();
+            await(release);
+        }), other);
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(
+                () -> inTransaction(() -> patient.lockUntilCompletion(1L, DAY)));
+        Thread.sleep(50);
+        assertThat(waiter).isNotDone();
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        waiter.get(5, TimeUnit.SECONDS);
+        assertThat(patient.getContended()).isEqualTo(1);
+        assertThat(patient.getTimeouts()).isZero();
+        assertThat(patient.getActiveStripes()).isZero();
+    }
+
+    @Test
+    void refusesNewDaysBeyondTheStripeLimit() {
+        TerrainDayLockManager small = new TerrainDayLockManager(true, 100, 1);
+        TransactionSynchronizationManager.initSynchronization();
+        small.lockUntilCompletion(1L, DAY);
+
+        assertThatThrownBy(() -> small.lockUntilCompletion(2L, DAY))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Trop de réservations");
+        // le même jour reste accessible (verrou réentrant, pas de nouvelle entrée)
+        small.lockUntilCompletion(1L, DAY);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(small.getActiveStripes()).isZero();
+    }
+
+    // Tient la journée dans une transaction d'un autre thread jusqu'au countDown du latch renvoyé
+    private CountDownLatch holdOnOtherThread(TerrainDayLockManager.Key key) throws InterruptedException {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        other.execute(() -> inTransaction(() -> {
+            locks.lockUntilCompletion(List.of(key));
+            holding.countDown();
+            await(release);
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+        return release;
+    }
+
+    private void inTransactionOnOtherThread(Runnable body) throws Exception {
+        CompletableFuture.runAsync(() -> inTransaction(body), other).get(5, TimeUnit.SECONDS);
+    }
+
+    // Simule une transaction Spring : synchronisations actives puis afterCompletion
+    private static void inTransaction(Runnable body) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            body.run();
+        } finally {
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
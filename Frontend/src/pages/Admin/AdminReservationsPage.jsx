@@ -7,8 +7,12 @@ const AdminReservationsPage = () => {
     const [reservations, setReservations] = useState([]);
     const [complexes, setComplexes] = useState([]);
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [showFilters, setShowFilters] = useState(true);
     const [selectedIds, setSelectedIds] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [totalCount, setTotalCount] = useState(null);
+    const [totalCapped, setTotalCapped] = useState(false);
 
     // Edit Modal State
     const [isEditModalOpen, setIsEditModalOpen] = useState(false);
@@ -48,30 +52,43 @@ const AdminReservationsPage = () => {
         }
     };
 
-    const fetchReservations = async () => {
-        setLoading(true);
+    // Filter parameters shared by the list and the export
+    const buildFilterParams = () => {
+        const queryParams = new URLSearchParams();
+        if (filters.complexId) queryParams.append("complexId", filters.complexId);
+        if (filters.clientQuery) queryParams.append("clientQuery", filters.clientQuery);
+        if (filters.dateFrom) queryParams.append("dateFrom", filters.dateFrom);
+        if (filters.dateTo) queryParams.append("dateTo", filters.dateTo);
+        if (filters.status) queryParams.append("status", filters.status);
+
+        // Handle Duration Logic
+        if (filters.durationRange) {
+            if (filters.durationRange === "<60") {
+                queryParams.append("maxDuration", "59");
+            } else if (filters.durationRange === "60-180") {
+                queryParams.append("minDuration", "60");
+                queryParams.append("maxDuration", "180");
+            } else if (filters.durationRange === "180-360") {
+                queryParams.append("minDuration", "180");
+                queryParams.append("maxDuration", "360");
+            } else if (filters.durationRange === ">360") {
+                queryParams.append("minDuration", "361");
+            }
+        }
+
+        return queryParams;
+    };
+
+    // cursor = null: first page (replaces the list), otherwise appends the next page
+    const fetchReservations = async (cursor = null) => {
+        cursor ? setLoadingMore(true) : setLoading(true);
         const token = localStorage.getItem("admin_access_token");
         try {
-            const queryParams = new URLSearchParams();
-            if (filters.complexId) queryParams.append("complexId", filters.complexId);
-            if (filters.clientQuery) queryParams.append("clientQuery", filters.clientQuery);
-            if (filters.dateFrom) queryParams.append("dateFrom", filters.dateFrom);
-            if (filters.dateTo) queryParams.append("dateTo", filters.dateTo);
-            if (filters.status) queryParams.append("status", filters.status);
-
-            // Handle Duration Logic
-            if (filters.durationRange) {
-                if (filters.durationRange === "<60") {
-                    queryParams.append("maxDuration", "59");
-                } else if (filters.durationRange === "60-180") {
-                    queryParams.append("minDuration", "60");
-                    queryParams.append("maxDuration", "180");
-                } else if (filters.durationRange === "180-360") {
-                    queryParams.append("minDuration", "180");
-                    queryParams.append("maxDuration", "360");
-                } else if (filters.durationRange === ">360") {
-                    queryParams.append("minDuration", "361");
-                }
+            const queryParams = buildFilterParams();
+            if (cursor) {
+                queryParams.append("cursor", cursor);
+            } else {
+                queryParams.append("withTotal", "true");
             }
 
             const response = await fetch(`http://localhost:8080/api/reservations/filter?${queryParams.toString()}`, {
@@ -79,12 +96,42 @@ const AdminReservationsPage = () => {
             });
 
             if (response.ok) {
-                setReservations(await response.json());
+                const page = await response.json();
+                setReservations(prev => cursor ? [...prev, ...page.items] : page.items);
+                setNextCursor(page.nextCursor);
+                if (!cursor) {
+                    setTotalCount(page.estimatedTotal);
+                    setTotalCapped(page.totalCapped);
+                }
             }
         } catch (error) {
             console.error("Error fetching reservations:", error);
         } finally {
             setLoading(false);
+            setLoadingMore(false);
+        }
+    };
+
+    const handleExport = async () => {
+        const token = localStorage.getItem("admin_access_token");
+        const queryParams = buildFilterParams();
+        queryParams.append("format", "csv");
+        try {
+            const response = await fetch(`http://localhost:8080/api/reservations/export?${queryParams.toString()}`, {
+                headers: { "Authorization": `Bearer ${token}` }
+            });
+            if (!response.ok) {
+                alert("Failed to export reservations");
+                return;
+            }
+            const url = URL.createObjectURL(await response.blob());
+            const link = document.createElement("a");
+            link.href = url;
+            link.download = `reservations-${new Date().toISOString().slice(0, 10)}.csv`;
+            link.click();
+            URL.revokeObjectURL(url);
+        } catch (error) {
+            console.error("Error exporting reservations:", error);
         }
     };
 
@@ -255,8 +302,14 @@ const AdminReservationsPage = () => {
                                     Delete Selected ({selectedIds.length})
                                 </button>
                             )}
+                            <button
+                                onClick={handleExport}
+                                className="bg-[#1a1a1a] border border-[#333] px-4 py-2 rounded-lg text-sm font-bold hover:bg-[#252525] transition-colors"
+                            >
+                                Export CSV
+                            </button>
                             <div className="bg-[#141414] border border-[#222] px-4 py-2 rounded-lg text-sm text-gray-400">
-                                <span className="text-white font-bold">{reservations.length}</span> results found
+                                <span className="text-white font-bold">{totalCount ?? reservations.length}{totalCapped ? '+' : ''}</span> results found
                             </div>
                             <button
                                 onClick={() => setShowFilters(!showFilters)}
@@ -274,6 +327,18 @@ const AdminReservationsPage = () => {
                         onAction={handleAction}
                         onSelectionChange={setSelectedIds}
                     />
+
+                    {nextCursor && (
+                        <div className="flex justify-center mt-6">
+                            <button
+                                onClick={() => fetchReservations(nextCursor)}
+                                disabled={loadingMore}
+                                className="bg-[#1a1a1a] border border-[#333] px-6 py-2 rounded-lg text-sm font-bold hover:bg-[#252525] transition-colors disabled:opacity-50"
+                            >
+                                {loadingMore ? 'Loading...' : 'Load more'}
+                            </button>
+                        </div>
+                    )}
                 </main>
             </div>
 
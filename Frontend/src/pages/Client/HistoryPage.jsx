@@ -11,6 +11,36 @@ const HistoryPage = () => {
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState(null);
     const [dateFilter, setDateFilter] = useState('');
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
+
+    // Une page de l'historique, du plus récent au plus ancien
+    const fetchReservationsPage = async (token, cursor = null) => {
+        const url = cursor
+            ? `http://localhost:8080/api/my-reservations?cursor=${encodeURIComponent(cursor)}`
+            : 'http://localhost:8080/api/my-reservations';
+        const response = await fetch(url, {
+            headers: { 'Authorization': `Bearer ${token}` }
+        });
+        return response.ok ? response.json() : null;
+    };
+
+    const loadMore = async () => {
+        const token = localStorage.getItem('kc_access_token');
+        if (!token || !nextCursor) return;
+        setLoadingMore(true);
+        try {
+            const page = await fetchReservationsPage(token, nextCursor);
+            if (page) {
+                setReservations(prev => [...prev, ...page.items]);
+                setNextCursor(page.nextCursor);
+            }
+        } catch (err) {
+            console.error("Error loading more reservations:", err);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
 
     useEffect(() => {
         const fetchUserData = async () => {
@@ -44,18 +74,12 @@ const HistoryPage = () => {
                     return;
                 }
 
-                // Fetch reservations
-                const reservationsResponse = await fetch('http://localhost:8080/api/my-reservations', {
-                    headers: {
-                        'Authorization': `Bearer ${token}`
-                    }
-                });
+                // Fetch reservations (first page, newest first)
+                const page = await fetchReservationsPage(token);
 
-                if (reservationsResponse.ok) {
-                    const reservationsData = await reservationsResponse.json();
-                    // Sort by date descending (newest first)
-                    reservationsData.sort((a, b) => new Date(b.date) - new Date(a.date));
-                    setReservations(reservationsData);
+                if (page) {
+                    setReservations(page.items);
+                    setNextCursor(page.nextCursor);
                 } else {
                     setError("Impossible de charger l'historique des réservations.");
                 }
@@ -230,13 +254,10 @@ const HistoryPage = () => {
                                                                 if (!token) return;
 
                                                                 try {
-                                                                    const reservationsResponse = await fetch('http://localhost:8080/api/my-reservations', {
-                                                                        headers: { 'Authorization': `Bearer ${token}` }
-                                                                    });
-                                                                    if (reservationsResponse.ok) {
-                                                                        const reservationsData = await reservationsResponse.json();
-                                                                        reservationsData.sort((a, b) => new Date(b.date) - new Date(a.date));
-                                                                        setReservations(reservationsData);
+                                                                    const page = await fetchReservationsPage(token);
+                                                                    if (page) {
+                                                                        setReservations(page.items);
+                                                                        setNextCursor(page.nextCursor);
                                                                     }
                                                                 } catch (err) {
                                                                     console.error("Error refreshing reservations:", err);
@@ -253,6 +274,18 @@ const HistoryPage = () => {
                             </table>
                         )}
                     </div>
+
+                    {nextCursor && (
+                        <div className="p-6 border-t border-gray-100 flex justify-center">
+                            <button
+                                onClick={loadMore}
+                                disabled={loadingMore}
+                                className="inline-flex items-center px-4 py-2 border border-gray-300 shadow-sm text-sm font-medium rounded-md text-gray-700 bg-white hover:bg-gray-50 focus:outline-none disabled:opacity-50"
+                            >
+                                {loadingMore ? 'Chargement...' : 'Voir plus'}
+                            </button>
+                        </div>
+                    )}
                 </div>
             </main>
             <Footer />
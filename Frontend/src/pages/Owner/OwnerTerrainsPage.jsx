@@ -48,7 +48,7 @@ function OwnerTerrainsPage() {
     };
 
 
-    const handleImageChange = (e) => {
+    const handleImageChange = async (e) => {
         const file = e.target.files[0];
         if (file) {
             // Validate file size (max 5MB)
@@ -57,13 +57,14 @@ function OwnerTerrainsPage() {
                 return;
             }
 
-            const reader = new FileReader();
-            reader.onloadend = () => {
-                const base64String = reader.result;
-                setImagePreview(base64String);
-                form.setFieldsValue({ image: base64String });
-            };
-            reader.readAsDataURL(file);
+            try {
+                const { url } = await ownerService.uploadTerrainImage(file);
+                setImagePreview(url);
+                form.setFieldsValue({ image: url });
+            } catch (err) {
+                console.error(err);
+                message.error(typeof err.response?.data === 'string' ? err.response.data : "Échec de l'envoi de l'image");
+            }
         }
     };
 
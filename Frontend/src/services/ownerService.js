@@ -22,6 +22,14 @@ const addTerrain = async (terrainData) => {
     return response.data;
 };
 
+// Photo envoyée en binaire (multipart), pas en base64 dans le JSON du terrain
+const uploadTerrainImage = async (file) => {
+    const formData = new FormData();
+    formData.append('file', file);
+    const response = await axios.post(`${API_URL}/terrains/images`, formData, { headers: getAuthHeaders() });
+    return response.data;
+};
+
 const updateProfile = async (profileData) => {
     const response = await axios.put(`${API_URL}/profile`, profileData, { headers: getAuthHeaders() });
     return response.data;
@@ -75,6 +83,7 @@ const ownerService = {
     getProfile,
     getMyTerrains,
     addTerrain,
+    uploadTerrainImage,
     updateProfile,
     updateTerrain,
     getReservations,